@@ -9,6 +9,17 @@ repositories {
     mavenCentral()
 }
 
+sourceSets {
+    create("jmh") {
+        compileClasspath += sourceSets.main.get().output
+        runtimeClasspath += sourceSets.main.get().output
+    }
+}
+
+val jmhImplementation: Configuration by configurations.getting {
+    extendsFrom(configurations.implementation.get())
+}
+
 dependencies {
     testImplementation(platform("org.junit:junit-bom:5.9.1"))
     testImplementation("org.junit.jupiter:junit-jupiter")
@@ -22,8 +33,32 @@ dependencies {
     implementation("com.h2database:h2:2.2.224")
     implementation("com.zaxxer:HikariCP:5.0.1")
     implementation("com.google.code.gson:gson:2.10.1")
+    jmhImplementation("org.openjdk.jmh:jmh-core:1.37")
+    "jmhAnnotationProcessor"("org.openjdk.jmh:jmh-generator-annprocess:1.37")
 }
 
 tasks.test {
     useJUnitPlatform()
-}
\ No newline at end of file
+}
+
+tasks.check {
+    dependsOn(tasks.named("jmhClasses"))
+}
+
+// Ejecuta los benchmarks JMH: ./gradlew jmh -PjmhArgs="NameSearch -prof gc"
+tasks.register<JavaExec>("jmh") {
+    group = "benchmark"
+    description = "Ejecuta los benchmarks JMH de src/jmh"
+    mainClass.set("org.openjdk.jmh.Main")
+    classpath = sourceSets["jmh"].runtimeClasspath
+    args = (findProperty("jmhArgs") as String? ?: "").split(" ").filter { it.isNotBlank() }
+}
+
+// Compara la tasa de aciertos de las politicas de la cache: ./gradlew cacheSimulator -PsimArgs="traza.log 1000"
+tasks.register<JavaExec>("cacheSimulator") {
+    group = "benchmark"
+    description = "Reproduce una traza de accesos sobre la cache con cada politica de expulsion"
+    mainClass.set("org.develop.benchmarks.CacheTraceSimulator")
+    classpath = sourceSets["jmh"].runtimeClasspath
+    args = (findProperty("simArgs") as String? ?: "").split(" ").filter { it.isNotBlank() }
+}
@@ -0,0 +1,102 @@
+package org.develop.benchmarks;
+
+import org.develop.model.Funko;
+import org.develop.repositories.FunkoRowMapper;
+import org.develop.services.analytics.FunkoAggregateQueries;
+import org.develop.services.analytics.InMemoryFunkoAnalytics;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Milisegundos por informe sobre un millon de Funkos. Los metodos *Report calculan el Funko mas caro, el precio medio,
+ * el recuento por modelo, los lanzados en 2023 y el numero de Funkos de Stitch: streamReport carga la tabla y repite
+ * los streams de Main, inMemoryReport carga la tabla y usa InMemoryFunkoAnalytics y databaseReport lanza las
+ * consultas de FunkoAggregateQueries. Los metodos *Group comparan la agrupacion por modelo de Main, que recorre la
+ * lista una vez por modelo, con la de una sola pasada.
+ *
+ * Ejecutar con: ./gradlew jmh -PjmhArgs="AnalyticsBenchmark"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+public class AnalyticsBenchmark {
+    private static final int ROWS = 1_000_000;
+
+    private Connection conn;
+
+    @Setup(Level.Trial)
+    public void setup() throws SQLException {
+        conn = BenchmarkDatabase.create("analytics", ROWS);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        conn.close();
+    }
+
+    @Benchmark
+    public void streamReport(Blackhole bh) throws SQLException {
+        List<Funko> all = loadAll();
+        bh.consume(all.stream().max(Comparator.comparingDouble(Funko::getPrecio)));
+        bh.consume(all.stream().mapToDouble(Funko::getPrecio).average());
+        bh.consume(all.stream().map(Funko::getModelo).collect(Collectors.groupingBy(fk -> fk, Collectors.counting())));
+        bh.consume(all.stream().filter(fk -> fk.getFecha_lanzamiento().toString().contains("2023")).toList());
+        bh.consume(all.stream().filter(fk -> fk.getName().contains("Stitch")).count());
+    }
+
+    @Benchmark
+    public void inMemoryReport(Blackhole bh) throws SQLException {
+        var analytics = new InMemoryFunkoAnalytics(loadAll());
+        bh.consume(analytics.findMostExpensive().join());
+        bh.consume(analytics.averagePrice().join());
+        bh.consume(analytics.countByModelo().join());
+        bh.consume(analytics.findReleasedIn(2023).join());
+        bh.consume(analytics.countByNombre("Stitch").join());
+    }
+
+    @Benchmark
+    public void databaseReport(Blackhole bh) throws SQLException {
+        bh.consume(FunkoAggregateQueries.findMostExpensive(conn));
+        bh.consume(FunkoAggregateQueries.averagePrice(conn));
+        bh.consume(FunkoAggregateQueries.countByModelo(conn));
+        bh.consume(FunkoAggregateQueries.findReleasedIn(conn, 2023));
+        bh.consume(FunkoAggregateQueries.countByNombre(conn, "Stitch"));
+    }
+
+    @Benchmark
+    public Object streamGroup() throws SQLException {
+        List<Funko> all = loadAll();
+        return all.stream()
+                .map(Funko::getModelo)
+                .distinct()
+                .collect(Collectors.toMap(fk -> fk, fk -> all.stream().filter(fkT -> fkT.getModelo().equals(fk)).toList()));
+    }
+
+    @Benchmark
+    public Object databaseGroup() throws SQLException {
+        return FunkoAggregateQueries.groupByModelo(conn);
+    }
+
+    private List<Funko> loadAll() throws SQLException {
+        List<Funko> all = new ArrayList<>(ROWS);
+        try (var stmt = conn.prepareStatement("SELECT * FROM Funko"); ResultSet rs = stmt.executeQuery()) {
+            var mapper = new FunkoRowMapper();
+            while (rs.next()) {
+                all.add(mapper.map(rs));
+            }
+        }
+        return all;
+    }
+}
@@ -0,0 +1,122 @@
+package org.develop.benchmarks;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import org.develop.adapters.LocalDateAdapter;
+import org.develop.adapters.LocalDateTimeAdapter;
+import org.develop.model.Funko;
+import org.develop.repositories.FunkoRowMapper;
+import org.develop.services.files.BackupManagerImpl;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.FileWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Milisegundos por copia de seguridad JSON de un millon de Funkos. listPretty reproduce la escritura anterior: carga
+ * la tabla en una lista y la pasa a un Gson nuevo con setPrettyPrinting sobre un FileWriter. stream recorre el
+ * ResultSet y escribe cada Funko segun llega con BackupManagerImpl. Con -prof gc se ve la memoria reservada por copia.
+ *
+ * Ejecutar con: ./gradlew jmh -PjmhArgs="BackupBenchmark -prof gc"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1, time = 10)
+@Measurement(iterations = 3, time = 10)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+public class BackupBenchmark {
+    private static final int ROWS = 1_000_000;
+    private static final String FILE = "benchmarkBackup.json";
+
+    private Connection conn;
+    private BackupManagerImpl backupManager;
+
+    @Setup(Level.Trial)
+    public void setup() throws SQLException, IOException {
+        conn = BenchmarkDatabase.create("backup", ROWS);
+        Files.createDirectories(Paths.get("data"));
+        backupManager = BackupManagerImpl.getInstance();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException, IOException {
+        conn.close();
+        Files.deleteIfExists(Paths.get("data", FILE));
+    }
+
+    @Benchmark
+    public void listPretty() throws SQLException, IOException {
+        List<Funko> all = new ArrayList<>();
+        try (var stmt = conn.prepareStatement("SELECT * FROM Funko"); ResultSet rs = stmt.executeQuery()) {
+            var mapper = new FunkoRowMapper();
+            while (rs.next()) {
+                all.add(mapper.map(rs));
+            }
+        }
+        Gson gson = new GsonBuilder()
+                .registerTypeAdapter(LocalDate.class, new LocalDateAdapter())
+                .registerTypeAdapter(LocalDateTime.class, new LocalDateTimeAdapter())
+                .setPrettyPrinting()
+                .create();
+        Path path = Paths.get("").toAbsolutePath().resolve("data").resolve(FILE);
+        try (FileWriter writer = new FileWriter(path.toFile())) {
+            gson.toJson(all, writer);
+        }
+    }
+
+    @Benchmark
+    public boolean stream() throws SQLException {
+        var stmt = conn.prepareStatement("SELECT * FROM Funko");
+        ResultSet rs = stmt.executeQuery();
+        var mapper = new FunkoRowMapper();
+        Iterator<Funko> it = new Iterator<>() {
+            private boolean hasNext = rs.next();
+
+            @Override
+            public boolean hasNext() {
+                return hasNext;
+            }
+
+            @Override
+            public Funko next() {
+                if (!hasNext) {
+                    throw new NoSuchElementException();
+                }
+                try {
+                    Funko fk = mapper.map(rs);
+                    hasNext = rs.next();
+                    return fk;
+                } catch (SQLException e) {
+                    throw new IllegalStateException(e);
+                }
+            }
+        };
+        Stream<Funko> funkos = StreamSupport.stream(Spliterators.spliteratorUnknownSize(it, Spliterator.ORDERED), false)
+                .onClose(() -> {
+                    try {
+                        stmt.close();
+                    } catch (SQLException e) {
+                        throw new IllegalStateException(e);
+                    }
+                });
+        return backupManager.writeFileFunko(FILE, funkos).join();
+    }
+}
@@ -0,0 +1,52 @@
+package org.develop.benchmarks;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.Random;
+import java.util.UUID;
+
+/**
+ * Genera ficheros CSV con el formato de data/funkos.csv y filas deterministas, para los benchmarks de importacion.
+ *
+ * @author Alonso Cruz, Joselyn Obando
+ */
+public final class BenchmarkCsv {
+    static final String HEADER = "COD,NOMBRE,MODELO,PRECIO,FECHA_LANZAMIENTO";
+
+    private BenchmarkCsv() {
+    }
+
+    /**
+     * Crea un fichero CSV temporal con la cabecera y el numero de lineas indicado. El fichero se borra al salir de la
+     * JVM.
+     *
+     * @param lines El numero de Funkos del fichero.
+     * @return La ruta del fichero creado.
+     * @throws IOException Si ocurre un error al escribir el fichero.
+     */
+    public static Path create(int lines) throws IOException {
+        Path path = Files.createTempFile("funkos", ".csv");
+        path.toFile().deleteOnExit();
+        Random random = new Random(42);
+        try (BufferedWriter writer = Files.newBufferedWriter(path)) {
+            writer.write(HEADER);
+            writer.newLine();
+            for (int i = 1; i <= lines; i++) {
+                writer.write(line(random, i));
+                writer.newLine();
+            }
+        }
+        return path;
+    }
+
+    static String line(Random random, int i) {
+        return new UUID(random.nextLong(), random.nextLong()) + ","
+                + BenchmarkDatabase.name(random, i) + ","
+                + BenchmarkDatabase.MODELOS[random.nextInt(BenchmarkDatabase.MODELOS.length)] + ","
+                + (5 + random.nextInt(4000) / 100.0) + ","
+                + LocalDate.of(2020, 1, 1).plusDays(random.nextInt(1500));
+    }
+}
@@ -0,0 +1,67 @@
+package org.develop.benchmarks;
+
+import org.apache.ibatis.jdbc.ScriptRunner;
+
+import java.io.InputStreamReader;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.Random;
+import java.util.UUID;
+
+/**
+ * Crea bases de datos H2 en memoria con el esquema de init.sql y filas generadas de forma determinista, para que los
+ * benchmarks no dependan de la base de datos del proyecto.
+ *
+ * @author Alonso Cruz, Joselyn Obando
+ */
+public final class BenchmarkDatabase {
+    static final String[] FRANCHISES = {"Spiderman", "Stitch", "Naruto", "Iron Man", "Goku", "Mickey", "Thor", "Luffy", "Elsa", "Hulk"};
+    static final String[] VARIANTS = {"Classic", "Hula", "Shippuden", "Deluxe", "Glow", "Chase", "Exclusive", "Retro"};
+    static final String[] MODELOS = {"MARVEL", "DISNEY", "ANIME", "OTROS"};
+
+    private BenchmarkDatabase() {
+    }
+
+    /**
+     * Crea una base de datos en memoria con la tabla FUNKO y el numero de filas indicado.
+     *
+     * @param name El nombre de la base de datos en memoria.
+     * @param rows El numero de Funkos a insertar.
+     * @return Una conexion abierta a la base de datos; mientras siga abierta la base de datos se conserva.
+     * @throws SQLException Si ocurre un error al crear o rellenar la tabla.
+     */
+    public static Connection create(String name, int rows) throws SQLException {
+        Connection conn = DriverManager.getConnection("jdbc:h2:mem:" + name);
+        ScriptRunner runner = new ScriptRunner(conn);
+        runner.setLogWriter(null);
+        runner.runScript(new InputStreamReader(BenchmarkDatabase.class.getClassLoader().getResourceAsStream("init.sql")));
+        conn.setAutoCommit(false);
+        Random random = new Random(42);
+        try (var stmt = conn.prepareStatement("INSERT INTO Funko (uuid, myid, name, modelo, precio, fecha_lanzamiento) VALUES (?, ?, ?, ?, ?, ?)")) {
+            for (int i = 1; i <= rows; i++) {
+                stmt.setObject(1, UUID.randomUUID());
+                stmt.setLong(2, i);
+                stmt.setString(3, name(random, i));
+                stmt.setString(4, MODELOS[random.nextInt(MODELOS.length)]);
+                stmt.setDouble(5, 5 + random.nextInt(4000) / 100.0);
+                stmt.setDate(6, Date.valueOf(LocalDate.of(2020, 1, 1).plusDays(random.nextInt(1500))));
+                stmt.addBatch();
+                if (i % 1000 == 0) {
+                    stmt.executeBatch();
+                    conn.commit();
+                }
+            }
+            stmt.executeBatch();
+            conn.commit();
+        }
+        conn.setAutoCommit(true);
+        return conn;
+    }
+
+    static String name(Random random, int i) {
+        return FRANCHISES[random.nextInt(FRANCHISES.length)] + " " + VARIANTS[random.nextInt(VARIANTS.length)] + " " + i;
+    }
+}
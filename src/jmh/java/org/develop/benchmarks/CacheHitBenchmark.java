@@ -0,0 +1,55 @@
+package org.develop.benchmarks;
+
+import org.develop.model.Funko;
+import org.develop.services.funkos.FunkoCacheImpl;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latencia de un acierto de cache: la lectura asincrona get(key).get(), que pasa por el executor de la cache, frente
+ * a la lectura sincrona getIfPresent(key) que usa ahora FunkoServiceImpl.findById.
+ *
+ * Ejecutar con: ./gradlew jmh -PjmhArgs="CacheHit"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CacheHitBenchmark {
+    private static final int SIZE = 10;
+
+    private FunkoCacheImpl cache;
+    private int key;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        cache = new FunkoCacheImpl(SIZE);
+        for (int i = 0; i < SIZE; i++) {
+            Funko fk = new Funko();
+            fk.setId(i);
+            cache.put(i, fk).join();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        cache.shutdown().join();
+    }
+
+    @Benchmark
+    public Optional<Funko> asyncGet() throws ExecutionException, InterruptedException {
+        key = (key + 1) % SIZE;
+        return cache.get(key).get();
+    }
+
+    @Benchmark
+    public Funko getIfPresent() {
+        key = (key + 1) % SIZE;
+        return cache.getIfPresent(key);
+    }
+}
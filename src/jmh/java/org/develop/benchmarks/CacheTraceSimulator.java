@@ -0,0 +1,98 @@
+package org.develop.benchmarks;
+
+import org.develop.model.Funko;
+import org.develop.services.cache.CacheConfig;
+import org.develop.services.cache.EvictionPolicy;
+import org.develop.services.funkos.FunkoCacheImpl;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.stream.Stream;
+
+/**
+ * Simulador que reproduce una traza de accesos por ID sobre FunkoCacheImpl con cada politica de expulsion y muestra
+ * la tasa de aciertos. Cada acceso es una lectura con getIfPresent y, si falla, una escritura, igual que hace
+ * FunkoServiceImpl.findById.
+ *
+ * La traza es un fichero con un ID por linea (se toma el primer campo numerico de cada linea y se ignoran las vacias
+ * y las que empiezan por #). Sin fichero, o con "-", se genera una traza sintetica: consultas Zipf sobre un catalogo con
+ * recorridos completos periodicos, como los de un findAll o una importacion.
+ *
+ * Ejecutar con: ./gradlew cacheSimulator -PsimArgs="traza.log 1000"
+ */
+public class CacheTraceSimulator {
+    private static final int DEFAULT_SIZE = 100;
+    private static final int CATALOG = 10_000;
+    private static final int ACCESSES = 1_000_000;
+
+    public static void main(String[] args) throws IOException {
+        boolean synthetic = args.length == 0 || args[0].equals("-");
+        int[] trace = synthetic ? syntheticTrace() : readTrace(Path.of(args[0]));
+        int size = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_SIZE;
+        System.out.printf("Traza: %s (%d accesos), capacidad: %d%n",
+                synthetic ? "sintetica" : args[0], trace.length, size);
+        for (EvictionPolicy policy : EvictionPolicy.values()) {
+            System.out.printf("%-9s tasa de aciertos: %6.2f%%%n", policy, 100 * replay(trace, size, policy));
+        }
+    }
+
+    static double replay(int[] trace, int size, EvictionPolicy policy) {
+        CacheConfig config = CacheConfig.builder()
+                .maximumSize(size)
+                .evictionPolicy(policy)
+                .expireAfterWrite(null)
+                .build();
+        FunkoCacheImpl cache = new FunkoCacheImpl(config, Runnable::run);
+        long hits = 0;
+        for (int id : trace) {
+            if (cache.getIfPresent(id) != null) {
+                hits++;
+            } else {
+                Funko fk = new Funko();
+                fk.setId(id);
+                cache.put(id, fk).join();
+            }
+        }
+        cache.shutdown().join();
+        return trace.length == 0 ? 0 : (double) hits / trace.length;
+    }
+
+    static int[] readTrace(Path file) throws IOException {
+        try (Stream<String> lines = Files.lines(file)) {
+            return lines.map(String::trim)
+                    .filter(line -> !line.isEmpty() && !line.startsWith("#"))
+                    .map(line -> line.split("[\\s,;]+")[0])
+                    .filter(token -> token.matches("-?\\d+"))
+                    .mapToInt(Integer::parseInt)
+                    .toArray();
+        }
+    }
+
+    static int[] syntheticTrace() {
+        Random random = new Random(42);
+        double[] cumulative = new double[CATALOG];
+        double sum = 0;
+        for (int i = 0; i < CATALOG; i++) {
+            sum += 1 / Math.pow(i + 1, 0.9);
+            cumulative[i] = sum;
+        }
+        int[] trace = new int[ACCESSES];
+        int i = 0;
+        while (i < ACCESSES) {
+            // Cada 100.000 consultas, un recorrido completo del catalogo
+            if (i > 0 && i % 100_000 == 0) {
+                for (int id = 1; id <= CATALOG && i < ACCESSES; id++) {
+                    trace[i++] = id;
+                }
+            }
+            if (i < ACCESSES) {
+                int pos = Arrays.binarySearch(cumulative, random.nextDouble() * sum);
+                trace[i++] = (pos < 0 ? -pos - 1 : pos) + 1;
+            }
+        }
+        return trace;
+    }
+}
@@ -0,0 +1,63 @@
+package org.develop.benchmarks;
+
+import org.develop.model.Funko;
+import org.develop.services.files.ImportResult;
+import org.develop.services.files.ParallelCsvImporter;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Milisegundos por importacion de un CSV de cinco millones de Funkos. sequential reproduce la lectura anterior de
+ * readFileFunko, linea a linea con un BufferedReader en un solo hilo y Funko.setFunko; parallel usa
+ * ParallelCsvImporter con el ForkJoinPool comun, que convierte cada linea con FunkoCsvParser.
+ *
+ * Ejecutar con: ./gradlew jmh -PjmhArgs="CsvImportBenchmark"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+public class CsvImportBenchmark {
+    private static final int LINES = 5_000_000;
+
+    private Path csv;
+    private ParallelCsvImporter importer;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        csv = BenchmarkCsv.create(LINES);
+        importer = new ParallelCsvImporter();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(csv);
+    }
+
+    @Benchmark
+    public List<Funko> sequential() throws IOException {
+        List<Funko> funkos = new ArrayList<>();
+        try (BufferedReader reader = Files.newBufferedReader(csv)) {
+            String line;
+            reader.readLine();
+            while ((line = reader.readLine()) != null) {
+                funkos.add(new Funko().setFunko(line));
+            }
+        }
+        return funkos;
+    }
+
+    @Benchmark
+    public ImportResult parallel() throws IOException {
+        return importer.importFile(csv);
+    }
+}
@@ -0,0 +1,68 @@
+package org.develop.benchmarks;
+
+import org.develop.model.Funko;
+import org.develop.services.files.FunkoCsvParser;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Nanosegundos por linea al convertir lineas CSV en Funkos: Funko.setFunko sobre un String frente a FunkoCsvParser
+ * sobre los bytes de la linea, que es como lo usan los importadores. parserInto reutiliza un unico Funko, asi que
+ * mide solo la lectura de los campos sin la creacion del Funko y de sus fechas de creacion. Con -prof gc, gc.alloc.rate.norm dividido entre
+ * LINES da los bytes reservados por linea.
+ *
+ * Ejecutar con: ./gradlew jmh -PjmhArgs="CsvParserBenchmark -prof gc"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CsvParserBenchmark {
+    private static final int LINES = 10_000;
+
+    private String[] lines;
+    private byte[][] bytes;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        Random random = new Random(42);
+        lines = new String[LINES];
+        bytes = new byte[LINES][];
+        for (int i = 0; i < LINES; i++) {
+            lines[i] = BenchmarkCsv.line(random, i + 1);
+            bytes[i] = lines[i].getBytes(StandardCharsets.UTF_8);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LINES)
+    public void setFunko(Blackhole bh) {
+        for (String line : lines) {
+            bh.consume(new Funko().setFunko(line));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LINES)
+    public void parser(Blackhole bh) {
+        for (byte[] line : bytes) {
+            bh.consume(FunkoCsvParser.parse(line, 0, line.length));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LINES)
+    public void parserInto(Blackhole bh) {
+        Funko target = new Funko();
+        for (byte[] line : bytes) {
+            FunkoCsvParser.parseInto(line, 0, line.length, target);
+            bh.consume(target);
+        }
+    }
+}
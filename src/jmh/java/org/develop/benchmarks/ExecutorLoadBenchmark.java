@@ -0,0 +1,90 @@
+package org.develop.benchmarks;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import org.develop.services.executor.IOExecutors;
+import org.develop.services.executor.InstrumentedExecutor;
+import org.openjdk.jmh.annotations.*;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Prueba de carga de las consultas bloqueantes del repositorio segun el executor en el que se ejecutan: el
+ * ForkJoinPool comun (comportamiento anterior), el pool bounded dimensionado como el pool de Hikari y los hilos
+ * virtuales. Cada operacion lanza tantas busquedas por clave primaria concurrentes como llamadores y espera a todas,
+ * por lo que las busquedas por segundo son la puntuacion multiplicada por el numero de llamadores.
+ *
+ * Ejecutar con: ./gradlew jmh -PjmhArgs="ExecutorLoad"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ExecutorLoadBenchmark {
+    private static final int ROWS = 10_000;
+    private static final int POOL_SIZE = 10;
+
+    public enum ExecutorMode { COMMON_POOL, BOUNDED, VIRTUAL }
+
+    @Param({"COMMON_POOL", "BOUNDED", "VIRTUAL"})
+    public ExecutorMode mode;
+
+    @Param({"1", "8", "64"})
+    public int callers;
+
+    private Connection keepAlive;
+    private HikariDataSource dataSource;
+    private Executor executor;
+
+    @Setup(Level.Trial)
+    public void setup() throws SQLException {
+        keepAlive = BenchmarkDatabase.create("executorload", ROWS);
+        HikariConfig config = new HikariConfig();
+        config.setJdbcUrl("jdbc:h2:mem:executorload");
+        config.setMaximumPoolSize(POOL_SIZE);
+        dataSource = new HikariDataSource(config);
+        executor = switch (mode) {
+            case COMMON_POOL -> ForkJoinPool.commonPool();
+            case BOUNDED -> IOExecutors.bounded("bench-db", POOL_SIZE, 1000);
+            case VIRTUAL -> IOExecutors.virtualThreads("bench-db", POOL_SIZE);
+        };
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        if (executor instanceof InstrumentedExecutor instrumented) {
+            instrumented.shutdown(5, TimeUnit.SECONDS);
+        }
+        dataSource.close();
+        keepAlive.close();
+    }
+
+    @Benchmark
+    public int concurrentFindById() {
+        CompletableFuture<?>[] futures = new CompletableFuture<?>[callers];
+        for (int i = 0; i < callers; i++) {
+            futures[i] = CompletableFuture.supplyAsync(this::findRandom, executor);
+        }
+        CompletableFuture.allOf(futures).join();
+        return futures.length;
+    }
+
+    private String findRandom() {
+        try (var conn = dataSource.getConnection(); var stmt = conn.prepareStatement("SELECT * FROM Funko WHERE id = ?")) {
+            stmt.setInt(1, ThreadLocalRandom.current().nextInt(1, ROWS + 1));
+            try (var rs = stmt.executeQuery()) {
+                return rs.next() ? rs.getString("name") : null;
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
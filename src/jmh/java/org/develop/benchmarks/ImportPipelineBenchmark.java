@@ -0,0 +1,70 @@
+package org.develop.benchmarks;
+
+import org.develop.model.Funko;
+import org.develop.model.MyIDGenerator;
+import org.develop.repositories.FunkoRepository;
+import org.develop.repositories.FunkoRepositoryImpl;
+import org.develop.services.database.DatabaseManager;
+import org.develop.services.files.BackupManagerImpl;
+import org.develop.services.files.ImportConfig;
+import org.develop.services.files.ImportReport;
+import org.develop.services.funkos.FunkoImportPipeline;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Milisegundos por importacion completa de un CSV de quinientos mil Funkos en la base de datos de config.properties,
+ * que se vacia antes de cada iteracion. listThenSaveAll reproduce Main: lee el fichero entero en una lista con
+ * readFileFunko y la guarda con saveAll. pipeline usa FunkoImportPipeline con la configuracion por defecto. Con
+ * -prof gc se ve la memoria reservada por importacion.
+ *
+ * Ejecutar con: ./gradlew jmh -PjmhArgs="ImportPipelineBenchmark -prof gc"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgsAppend = "-Xmx1g")
+public class ImportPipelineBenchmark {
+    private static final int LINES = 500_000;
+
+    private Path csv;
+    private BackupManagerImpl backupManager;
+    private FunkoRepository repository;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        csv = BenchmarkCsv.create(LINES);
+        backupManager = BackupManagerImpl.getInstance();
+        repository = FunkoRepositoryImpl.getInstance(DatabaseManager.getInstance(), MyIDGenerator.getInstance());
+    }
+
+    @Setup(Level.Iteration)
+    public void clear() throws SQLException {
+        repository.deleteAll().join();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException, SQLException {
+        repository.deleteAll().join();
+        Files.deleteIfExists(csv);
+    }
+
+    @Benchmark
+    public int listThenSaveAll() {
+        List<Funko> funkos = backupManager.readFileFunko(csv.toString()).join();
+        return repository.saveAll(funkos).join().size();
+    }
+
+    @Benchmark
+    public ImportReport pipeline() {
+        return new FunkoImportPipeline(backupManager, repository, ImportConfig.builder().build()).run(csv).join();
+    }
+}
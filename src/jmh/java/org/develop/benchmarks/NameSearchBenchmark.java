@@ -0,0 +1,81 @@
+package org.develop.benchmarks;
+
+import org.develop.repositories.FunkoNameIndex;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compara la busqueda por nombre con LIKE '%...%' (recorrido completo de la tabla) frente al indice de trigramas de
+ * FunkoRepositoryImpl seguido de la lectura por clave primaria de los candidatos.
+ *
+ * Ejecutar con: ./gradlew jmh -PjmhArgs="NameSearch"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xmx4g"})
+public class NameSearchBenchmark {
+
+    @Param({"10000", "100000", "1000000"})
+    public int rows;
+
+    @Param({"4242", "Stitch"})
+    public String query;
+
+    private Connection conn;
+    private FunkoNameIndex index;
+
+    @Setup(Level.Trial)
+    public void setup() throws SQLException {
+        conn = BenchmarkDatabase.create("namesearch" + rows, rows);
+        index = new FunkoNameIndex();
+        try (var stmt = conn.prepareStatement("SELECT ID, name FROM Funko"); var rs = stmt.executeQuery()) {
+            while (rs.next()) {
+                index.add(rs.getInt(1), rs.getString(2));
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        conn.close();
+    }
+
+    @Benchmark
+    public void like(Blackhole bh) throws SQLException {
+        try (var stmt = conn.prepareStatement("SELECT * FROM Funko WHERE name LIKE ?")) {
+            stmt.setString(1, "%" + query + "%");
+            consume(stmt.executeQuery(), bh);
+        }
+    }
+
+    @Benchmark
+    public void indexed(Blackhole bh) throws SQLException {
+        int[] ids = index.candidates(query, false);
+        if (ids.length == 0) {
+            return;
+        }
+        try (var stmt = conn.prepareStatement("SELECT * FROM Funko WHERE ID = ANY(?) ORDER BY ID")) {
+            stmt.setObject(1, Arrays.stream(ids).boxed().toArray(Integer[]::new));
+            consume(stmt.executeQuery(), bh);
+        }
+    }
+
+    private void consume(java.sql.ResultSet rs, Blackhole bh) throws SQLException {
+        try (rs) {
+            while (rs.next()) {
+                String name = rs.getString("name");
+                if (name.contains(query)) {
+                    bh.consume(rs.getInt("id"));
+                }
+            }
+        }
+    }
+}
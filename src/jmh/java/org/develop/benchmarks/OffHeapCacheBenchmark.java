@@ -0,0 +1,96 @@
+package org.develop.benchmarks;
+
+import org.develop.model.Funko;
+import org.develop.model.Modelo;
+import org.develop.services.cache.CacheConfig;
+import org.develop.services.funkos.FunkoCacheImpl;
+import org.develop.services.funkos.OffHeapFunkoCache;
+import org.develop.services.cache.Cache;
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.management.BufferPoolMXBean;
+import java.lang.management.ManagementFactory;
+import java.time.LocalDate;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Coste de guardar un catalogo de un millon de Funkos en la cache del heap (FunkoCacheImpl) frente a la cache fuera
+ * del heap (OffHeapFunkoCache). Al preparar cada prueba se imprime la memoria de heap y directa que ocupa la cache.
+ * fullGc mide la pausa de una recoleccion completa con la cache llena, que crece con el numero de objetos vivos, y
+ * getIfPresent la latencia de una lectura.
+ *
+ * Ejecutar con: ./gradlew jmh -PjmhArgs="OffHeapCache"
+ */
+@State(Scope.Benchmark)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx2g", "-XX:+UseG1GC"})
+public class OffHeapCacheBenchmark {
+    private static final int SIZE = 1_000_000;
+
+    public enum Tier { HEAP, OFF_HEAP }
+
+    @Param({"HEAP", "OFF_HEAP"})
+    private Tier tier;
+
+    private Cache<Integer, Funko> cache;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        long heapBefore = usedHeap();
+        long directBefore = directMemory();
+        cache = tier == Tier.HEAP
+                ? new FunkoCacheImpl(CacheConfig.builder().maximumSize(SIZE).expireAfterWrite(null).build(), Runnable::run)
+                : new OffHeapFunkoCache(SIZE, null, System::nanoTime, Runnable::run);
+        Modelo[] modelos = Modelo.values();
+        for (int i = 0; i < SIZE; i++) {
+            Funko fk = new Funko();
+            fk.setId(i);
+            fk.setMyId(i);
+            fk.setUuid(UUID.randomUUID());
+            fk.setName("Funko numero " + i);
+            fk.setModelo(modelos[i % modelos.length]);
+            fk.setPrecio(i % 100 + 0.99);
+            fk.setFecha_lanzamiento(LocalDate.of(2020, 1, 1).plusDays(i % 1000));
+            cache.put(i, fk).join();
+        }
+        System.out.printf("%n%s: heap %,d bytes, directa %,d bytes%n",
+                tier, usedHeap() - heapBefore, directMemory() - directBefore);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        cache.clear().join();
+        cache.shutdown().join();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @Warmup(iterations = 2)
+    @Measurement(iterations = 5)
+    public void fullGc() {
+        System.gc();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    @Warmup(iterations = 3, time = 2)
+    @Measurement(iterations = 5, time = 2)
+    public Funko getIfPresent() {
+        return cache.getIfPresent(ThreadLocalRandom.current().nextInt(SIZE));
+    }
+
+    private static long usedHeap() {
+        System.gc();
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+
+    private static long directMemory() {
+        return ManagementFactory.getPlatformMXBeans(BufferPoolMXBean.class).stream()
+                .filter(pool -> pool.getName().equals("direct"))
+                .mapToLong(BufferPoolMXBean::getMemoryUsed)
+                .sum();
+    }
+}
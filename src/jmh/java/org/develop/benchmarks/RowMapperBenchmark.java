@@ -0,0 +1,83 @@
+package org.develop.benchmarks;
+
+import org.develop.model.Funko;
+import org.develop.model.FunkoSummary;
+import org.develop.model.Modelo;
+import org.develop.repositories.FunkoRowMapper;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Filas por segundo al convertir en Funkos un millon de filas de SELECT * FROM Funko: la conversion anterior, que
+ * buscaba cada columna por nombre, usaba Modelo.valueOf y consultaba el reloj al crear cada Funko, frente a
+ * FunkoRowMapper. Ambas incluyen el coste de recorrer el ResultSet de H2. summaryProjection lee solo las columnas de
+ * FunkoSummary; con -prof gc se ve la memoria reservada por fila de cada variante.
+ *
+ * Ejecutar con: ./gradlew jmh -PjmhArgs="RowMapper"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class RowMapperBenchmark {
+    private static final int ROWS = 1_000_000;
+
+    private Connection conn;
+
+    @Setup(Level.Trial)
+    public void setup() throws SQLException {
+        conn = BenchmarkDatabase.create("rowmapper", ROWS);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        conn.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void byColumnName(Blackhole bh) throws SQLException {
+        try (var stmt = conn.prepareStatement("SELECT * FROM Funko"); ResultSet rs = stmt.executeQuery()) {
+            while (rs.next()) {
+                Funko fk = new Funko();
+                fk.setId(rs.getInt("id"));
+                fk.setMyId(rs.getLong("Myid"));
+                fk.setUuid((UUID) rs.getObject("uuid"));
+                fk.setName(rs.getString("name"));
+                fk.setModelo(Modelo.valueOf(rs.getString("modelo")));
+                fk.setPrecio(rs.getDouble("precio"));
+                fk.setFecha_lanzamiento(rs.getDate("fecha_lanzamiento").toLocalDate());
+                bh.consume(fk);
+            }
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void rowMapper(Blackhole bh) throws SQLException {
+        try (var stmt = conn.prepareStatement("SELECT * FROM Funko"); ResultSet rs = stmt.executeQuery()) {
+            var mapper = new FunkoRowMapper();
+            while (rs.next()) {
+                bh.consume(mapper.map(rs));
+            }
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void summaryProjection(Blackhole bh) throws SQLException {
+        try (var stmt = conn.prepareStatement("SELECT ID, name, modelo, precio FROM Funko ORDER BY ID"); ResultSet rs = stmt.executeQuery()) {
+            while (rs.next()) {
+                bh.consume(new FunkoSummary(rs.getInt(1), rs.getString(2), FunkoRowMapper.toModelo(rs.getString(3)), rs.getDouble(4)));
+            }
+        }
+    }
+}
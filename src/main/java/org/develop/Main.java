@@ -10,6 +10,7 @@ import org.develop.services.funkos.FunkoServiceImpl;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.nio.file.Paths;
 import java.sql.SQLException;
 import java.util.Comparator;
 import java.util.List;
@@ -24,15 +25,11 @@ public class Main {
     public static void main(String[] args) throws ExecutionException, InterruptedException, SQLException {
         FunkoServiceImpl fknServ = FunkoServiceImpl.getInstance(BackupManagerImpl.getInstance(),FunkoRepositoryImpl.getInstance(DatabaseManager.getInstance(), MyIDGenerator.getInstance()));
         Main main = new Main();
-        //Importando archivo de Funkos
-        var importe = fknServ.imported("funkos.csv");
+        //Importando archivo de Funkos y guardandolos en la BD
+        var importe = fknServ.importStream(Paths.get("data", "funkos.csv"));
+        System.out.println(importe.get());
 //        //Importando mal archivo de Funkos
 //        var BadImporte = fknServ.imported("funkosbad.csv");
-//
-        //Guardando Funkos en la BD
-        for (Funko funko : importe.get()) {
-            var funkoSave = fknServ.save(funko).get();
-        }
 //
 //        //Obteniendo todos los Funkos de la BD
 //        fknServ.findAll().get().forEach(System.out::println);
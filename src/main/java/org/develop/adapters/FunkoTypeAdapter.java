@@ -0,0 +1,103 @@
+package org.develop.adapters;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import org.develop.model.Funko;
+import org.develop.model.Modelo;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.UUID;
+
+/**
+ * Esta clase proporciona una adaptacion personalizada para la serializacion y deserializacion
+ * de objetos Funko a y desde formato JSON utilizando la libreria Gson.
+ *
+ * Escribe los mismos campos, en el mismo orden y con el mismo formato que la serializacion por reflexion con
+ * LocalDateAdapter y LocalDateTimeAdapter, pero sin reflexion ni objetos intermedios por cada Funko.
+ *
+ * @author Alonso Cruz, Joselyn Obando
+ */
+public class FunkoTypeAdapter extends TypeAdapter<Funko> {
+    private final DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+
+    /**
+     * Serializa un objeto Funko a formato JSON. Los campos nulos se omiten.
+     *
+     * @param out   El escritor JSON de destino.
+     * @param value El objeto Funko a serializar.
+     * @throws IOException Si hay un problema al escribir en el flujo de salida JSON.
+     */
+    @Override
+    public void write(JsonWriter out, Funko value) throws IOException {
+        if (value == null) {
+            out.nullValue();
+            return;
+        }
+        out.beginObject();
+        out.name("myId").value(value.getMyId());
+        out.name("id").value(value.getId());
+        if (value.getUuid() != null) {
+            out.name("uuid").value(value.getUuid().toString());
+        }
+        if (value.getName() != null) {
+            out.name("name").value(value.getName());
+        }
+        if (value.getModelo() != null) {
+            out.name("modelo").value(value.getModelo().name());
+        }
+        out.name("precio").value(value.getPrecio());
+        if (value.getFecha_lanzamiento() != null) {
+            out.name("fecha_lanzamiento").value(formatter.format(value.getFecha_lanzamiento()));
+        }
+        if (value.getCreated_at() != null) {
+            out.name("created_at").value(formatter.format(value.getCreated_at()));
+        }
+        if (value.getUpdated_at() != null) {
+            out.name("updated_at").value(formatter.format(value.getUpdated_at()));
+        }
+        out.endObject();
+    }
+
+    /**
+     * Deserializa un objeto Funko desde formato JSON. Las fechas de creacion y actualizacion solo guardan el dia, asi
+     * que se leen como el inicio de ese dia.
+     *
+     * @param in El lector JSON de origen.
+     * @return El objeto Funko leido, o null si el valor JSON es null.
+     * @throws IOException Si hay un problema al leer desde el flujo de entrada JSON.
+     */
+    @Override
+    public Funko read(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        Funko fk = Funko.withoutTimestamps();
+        in.beginObject();
+        while (in.hasNext()) {
+            String name = in.nextName();
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                continue;
+            }
+            switch (name) {
+                case "myId" -> fk.setMyId(in.nextLong());
+                case "id" -> fk.setId(in.nextInt());
+                case "uuid" -> fk.setUuid(UUID.fromString(in.nextString()));
+                case "name" -> fk.setName(in.nextString());
+                case "modelo" -> fk.setModelo(Modelo.valueOf(in.nextString()));
+                case "precio" -> fk.setPrecio(in.nextDouble());
+                case "fecha_lanzamiento" -> fk.setFecha_lanzamiento(LocalDate.parse(in.nextString(), formatter));
+                case "created_at" -> fk.setCreated_at(LocalDate.parse(in.nextString(), formatter).atStartOfDay());
+                case "updated_at" -> fk.setUpdated_at(LocalDate.parse(in.nextString(), formatter).atStartOfDay());
+                default -> in.skipValue();
+            }
+        }
+        in.endObject();
+        return fk;
+    }
+}
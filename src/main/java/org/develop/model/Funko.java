@@ -1,7 +1,6 @@
 package org.develop.model;
 
 import lombok.Data;
-import lombok.NoArgsConstructor;
 import org.develop.locale.MyLocale;
 
 import java.time.LocalDate;
@@ -16,7 +15,6 @@ import java.util.UUID;
  * @author Alonso Cruz, Joselyn Obando
  */
 @Data
-@NoArgsConstructor
 public class Funko {
     private long myId;
     private int id;
@@ -25,8 +23,31 @@ public class Funko {
     private Modelo modelo;
     private double precio;
     private LocalDate fecha_lanzamiento;
-    private LocalDateTime created_at = LocalDateTime.now();
-    private LocalDateTime updated_at = LocalDateTime.now();
+    private LocalDateTime created_at;
+    private LocalDateTime updated_at;
+
+    /**
+     * Crea un Funko vacio con la fecha de creacion y de actualizacion del momento actual.
+     */
+    public Funko() {
+        this.created_at = LocalDateTime.now();
+        this.updated_at = created_at;
+    }
+
+    private Funko(LocalDateTime created_at, LocalDateTime updated_at) {
+        this.created_at = created_at;
+        this.updated_at = updated_at;
+    }
+
+    /**
+     * Crea un Funko vacio sin fechas de creacion ni actualizacion, para rellenarlo con datos que ya las traen (por
+     * ejemplo una fila de la base de datos) sin consultar el reloj en cada objeto.
+     *
+     * @return Un Funko vacio con las fechas a null.
+     */
+    public static Funko withoutTimestamps() {
+        return new Funko(null, null);
+    }
 
     /**
      * Genera una representacion en formato de cadena del objeto Funko.
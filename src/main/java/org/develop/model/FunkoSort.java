@@ -0,0 +1,40 @@
+package org.develop.model;
+
+/**
+ * Enumeracion que representa los criterios de ordenacion disponibles al paginar Funkos.
+ * Cada valor conoce la columna de la tabla FUNKO por la que se ordena; el ID se usa siempre como desempate.
+ *
+ * @author Alonso Cruz, Joselyn Obando
+ */
+public enum FunkoSort {
+    ID("ID"), PRECIO("precio"), FECHA_LANZAMIENTO("fecha_lanzamiento");
+
+    private final String column;
+
+    FunkoSort(String column) {
+        this.column = column;
+    }
+
+    /**
+     * Obtiene el nombre de la columna por la que se ordena.
+     *
+     * @return El nombre de la columna en la tabla FUNKO.
+     */
+    public String getColumn() {
+        return column;
+    }
+
+    /**
+     * Obtiene el valor por el que se ordena el Funko indicado, tal y como se guarda en el cursor de una pagina.
+     *
+     * @param funko El Funko del que se obtiene el valor.
+     * @return El ID, el precio o la fecha de lanzamiento del Funko, segun el criterio.
+     */
+    public Object sortValue(Funko funko) {
+        return switch (this) {
+            case ID -> funko.getId();
+            case PRECIO -> funko.getPrecio();
+            case FECHA_LANZAMIENTO -> funko.getFecha_lanzamiento();
+        };
+    }
+}
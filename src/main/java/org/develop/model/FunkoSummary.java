@@ -0,0 +1,15 @@
+package org.develop.model;
+
+/**
+ * Vista reducida de un Funko con solo las columnas que necesitan los listados y los calculos por modelo o precio.
+ * Se obtiene con una consulta que lee unicamente esas columnas, sin UUID, fechas ni myId.
+ *
+ * @param id     El ID del Funko.
+ * @param name   El nombre del Funko.
+ * @param modelo El modelo del Funko.
+ * @param precio El precio del Funko.
+ *
+ * @author Alonso Cruz, Joselyn Obando
+ */
+public record FunkoSummary(int id, String name, Modelo modelo, double precio) {
+}
@@ -0,0 +1,25 @@
+package org.develop.model;
+
+/**
+ * Enumeracion que representa los modos de busqueda de Funkos por nombre.
+ *
+ * @author Alonso Cruz, Joselyn Obando
+ */
+public enum NameMatch {
+    CONTAINS, PREFIX;
+
+    /**
+     * Comprueba si un nombre encaja con la busqueda segun este modo.
+     *
+     * @param name       El nombre a comprobar.
+     * @param query      La cadena buscada.
+     * @param ignoreCase true para no distinguir mayusculas de minusculas.
+     * @return true si el nombre encaja con la busqueda, false en caso contrario.
+     */
+    public boolean matches(String name, String query, boolean ignoreCase) {
+        if (this == PREFIX) {
+            return name.regionMatches(ignoreCase, 0, query, 0, query.length());
+        }
+        return ignoreCase ? name.toLowerCase().contains(query.toLowerCase()) : name.contains(query);
+    }
+}
@@ -0,0 +1,28 @@
+package org.develop.model;
+
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Clase que representa una pagina de resultados obtenida mediante paginacion por cursor (keyset).
+ * Ademas de los elementos de la pagina contiene el cursor con el que se pide la pagina siguiente.
+ *
+ * @param <T> El tipo de los elementos de la pagina.
+ *
+ * @author Alonso Cruz, Joselyn Obando
+ */
+@Data
+public class Page<T> {
+    private final List<T> content;
+    private final PageCursor nextCursor;
+
+    /**
+     * Indica si existe una pagina siguiente.
+     *
+     * @return true si hay mas resultados despues de esta pagina, false en caso contrario.
+     */
+    public boolean hasNext() {
+        return nextCursor != null;
+    }
+}
@@ -0,0 +1,16 @@
+package org.develop.model;
+
+import lombok.Value;
+
+/**
+ * Clase que representa el cursor de una pagina obtenida mediante paginacion por clave (keyset): el ID y el valor de la
+ * columna de ordenacion del ultimo elemento de la pagina. Con ambos la pagina siguiente se busca directamente en el
+ * indice, sin volver a leer ese elemento, por lo que el cursor sigue siendo valido aunque se borre mientras tanto.
+ *
+ * @author Alonso Cruz, Joselyn Obando
+ */
+@Value
+public class PageCursor {
+    Integer id;
+    Object sortValue;
+}
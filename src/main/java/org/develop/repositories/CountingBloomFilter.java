@@ -0,0 +1,167 @@
+package org.develop.repositories;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Filtro de Bloom con contadores de 4 bits para saber, sin consultar la base de datos, que un ID no existe.
+ *
+ * Cada ID incrementa k contadores elegidos por hash. Si alguno de sus contadores esta a cero el ID seguro que no se
+ * anadio (o ya se elimino); si todos son mayores que cero puede existir, con una probabilidad de falso positivo que
+ * depende del tamano elegido. Al usar contadores en lugar de bits los IDs tambien se pueden eliminar. Un contador que
+ * llega a 15 se queda fijo para no producir nunca falsos negativos: a cambio, ese hueco ya no vuelve a cero.
+ *
+ * Los contadores se guardan de dieciseis en dieciseis en un AtomicLongArray y se actualizan con CAS, por lo que el
+ * filtro se puede usar desde varios hilos sin cerrojos.
+ *
+ * @author Alonso Cruz, Joselyn Obando
+ */
+public class CountingBloomFilter {
+    private static final int COUNTERS_PER_WORD = 16;
+    private static final long MAX_COUNT = 0xfL;
+
+    private final AtomicLongArray words;
+    private final long counters;
+    private final int hashes;
+    private final int expectedInsertions;
+    private final AtomicLong size = new AtomicLong();
+
+    /**
+     * Crea un filtro dimensionado para el numero de IDs y la tasa de falsos positivos indicados.
+     *
+     * @param expectedInsertions El numero de IDs que se espera guardar.
+     * @param fpp                La probabilidad de falso positivo deseada con ese numero de IDs, entre 0 y 1.
+     */
+    public CountingBloomFilter(int expectedInsertions, double fpp) {
+        if (expectedInsertions <= 0 || fpp <= 0 || fpp >= 1) {
+            throw new IllegalArgumentException("Tamano o tasa de falsos positivos no validos");
+        }
+        this.expectedInsertions = expectedInsertions;
+        this.counters = Math.max(COUNTERS_PER_WORD,
+                (long) Math.ceil(-expectedInsertions * Math.log(fpp) / (Math.log(2) * Math.log(2))));
+        this.hashes = Math.max(1, (int) Math.round((double) counters / expectedInsertions * Math.log(2)));
+        this.words = new AtomicLongArray((int) ((counters + COUNTERS_PER_WORD - 1) / COUNTERS_PER_WORD));
+    }
+
+    /**
+     * Anade un ID al filtro.
+     *
+     * @param id El ID a anadir.
+     */
+    public void add(int id) {
+        long hash = mix(id);
+        for (int i = 0; i < hashes; i++) {
+            increment(index(hash, i));
+        }
+        size.incrementAndGet();
+    }
+
+    /**
+     * Elimina del filtro un ID anadido previamente.
+     *
+     * @param id El ID a eliminar.
+     */
+    public void remove(int id) {
+        long hash = mix(id);
+        for (int i = 0; i < hashes; i++) {
+            decrement(index(hash, i));
+        }
+        size.decrementAndGet();
+    }
+
+    /**
+     * Indica si un ID puede estar en el filtro.
+     *
+     * @param id El ID a consultar.
+     * @return false si el ID seguro que no esta, true si puede estar.
+     */
+    public boolean mightContain(int id) {
+        long hash = mix(id);
+        for (int i = 0; i < hashes; i++) {
+            long counter = index(hash, i);
+            if (((words.get((int) (counter / COUNTERS_PER_WORD)) >>> shift(counter)) & MAX_COUNT) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Vacia el filtro.
+     */
+    public void clear() {
+        for (int i = 0; i < words.length(); i++) {
+            words.set(i, 0);
+        }
+        size.set(0);
+    }
+
+    /**
+     * Obtiene el numero de IDs anadidos y no eliminados.
+     *
+     * @return El numero de IDs del filtro.
+     */
+    public long size() {
+        return size.get();
+    }
+
+    /**
+     * Obtiene el numero de IDs para el que se dimensiono el filtro; por encima de el, los falsos positivos aumentan.
+     *
+     * @return El numero de IDs esperado.
+     */
+    public int getExpectedInsertions() {
+        return expectedInsertions;
+    }
+
+    /**
+     * Obtiene la memoria que ocupan los contadores del filtro.
+     *
+     * @return El tamano de los contadores en bytes.
+     */
+    public long memoryBytes() {
+        return (long) words.length() * Long.BYTES;
+    }
+
+    private void increment(long counter) {
+        int word = (int) (counter / COUNTERS_PER_WORD);
+        int shift = shift(counter);
+        long current;
+        do {
+            current = words.get(word);
+            if (((current >>> shift) & MAX_COUNT) == MAX_COUNT) {
+                return;
+            }
+        } while (!words.compareAndSet(word, current, current + (1L << shift)));
+    }
+
+    private void decrement(long counter) {
+        int word = (int) (counter / COUNTERS_PER_WORD);
+        int shift = shift(counter);
+        long current;
+        do {
+            current = words.get(word);
+            long count = (current >>> shift) & MAX_COUNT;
+            if (count == 0 || count == MAX_COUNT) {
+                return;
+            }
+        } while (!words.compareAndSet(word, current, current - (1L << shift)));
+    }
+
+    private long index(long hash, int i) {
+        // Doble hash: h1 + i * h2 genera las k posiciones a partir de un solo hash de 64 bits
+        long combined = (int) hash + (long) i * (int) (hash >>> 32);
+        return Math.floorMod(combined, counters);
+    }
+
+    private static int shift(long counter) {
+        return (int) (counter % COUNTERS_PER_WORD) << 2;
+    }
+
+    private static long mix(int id) {
+        long z = id * 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,138 @@
+package org.develop.repositories;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Recorre un ResultSet de solo avance como un Stream perezoso. Las filas se leen de la base de datos a medida que
+ * el consumidor las pide, por lo que nunca se materializa la tabla completa en memoria.
+ *
+ * La conexion se libera al agotar el cursor o al cerrar el Stream, lo que ocurra antes. Si el consumidor se detiene
+ * antes de tiempo debe cerrar el Stream (por ejemplo con try-with-resources) para devolver la conexion al pool.
+ *
+ * @param <T> El tipo de objeto que se obtiene de cada fila.
+ *
+ * @author Alonso Cruz, Joselyn Obando
+ */
+class CursorStream<T> extends Spliterators.AbstractSpliterator<T> implements AutoCloseable {
+    private final Logger logger = LoggerFactory.getLogger(CursorStream.class);
+
+    private final Connection conn;
+    private final PreparedStatement stmt;
+    private final ResultSet rs;
+    private final RowMapper<T> mapper;
+    private boolean closed;
+
+    private CursorStream(Connection conn, PreparedStatement stmt, ResultSet rs, RowMapper<T> mapper) {
+        super(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL);
+        this.conn = conn;
+        this.stmt = stmt;
+        this.rs = rs;
+        this.mapper = mapper;
+    }
+
+    /**
+     * Ejecuta la consulta sobre la conexion indicada y devuelve un Stream sobre sus filas. El Stream pasa a ser el
+     * propietario de la conexion y la cierra al terminar.
+     *
+     * @param conn      La conexion sobre la que se ejecuta la consulta.
+     * @param sql       La consulta a ejecutar.
+     * @param fetchSize El numero de filas que se piden a la base de datos en cada viaje.
+     * @param binder    Asigna los parametros de la consulta antes de ejecutarla.
+     * @param mapper    Convierte cada fila en un objeto.
+     * @return Un Stream perezoso sobre las filas de la consulta.
+     * @throws SQLException Si ocurre un error al preparar o ejecutar la consulta. En ese caso, igual que con cualquier
+     *                      otra excepcion, la conexion se cierra.
+     */
+    static <T> Stream<T> open(Connection conn, String sql, int fetchSize, StatementBinder binder, RowMapper<T> mapper) throws SQLException {
+        PreparedStatement stmt = null;
+        try {
+            try (Statement lazy = conn.createStatement()) {
+                lazy.execute("SET LAZY_QUERY_EXECUTION TRUE");
+            }
+            stmt = conn.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            stmt.setFetchSize(fetchSize);
+            binder.bind(stmt);
+            ResultSet rs = stmt.executeQuery();
+            CursorStream<T> cursor = new CursorStream<>(conn, stmt, rs, mapper);
+            return StreamSupport.stream(cursor, false).onClose(cursor::close);
+        } catch (SQLException | RuntimeException e) {
+            // Igual que close(): la conexion no vuelve al pool con la ejecucion perezosa activada
+            PreparedStatement prepared = stmt;
+            try (conn; prepared) {
+                resetLazyExecution(conn);
+            } catch (SQLException closeError) {
+                e.addSuppressed(closeError);
+            }
+            throw e;
+        }
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super T> action) {
+        if (closed) {
+            return false;
+        }
+        try {
+            if (!rs.next()) {
+                close();
+                return false;
+            }
+            action.accept(mapper.map(rs));
+            return true;
+        } catch (SQLException e) {
+            close();
+            throw new RuntimeException(e);
+        } catch (RuntimeException e) {
+            // Un fallo del mapper o del consumidor suele cortar el Stream sin cerrarlo, asi que se libera aqui
+            close();
+            throw e;
+        }
+    }
+
+    /**
+     * Cierra el cursor y devuelve la conexion al pool. Es idempotente.
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try (conn; stmt; rs) {
+            resetLazyExecution(conn);
+        } catch (SQLException e) {
+            logger.error("ERROR: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Desactiva la ejecucion perezosa que activa {@link #open} para que la conexion vuelva al pool como estaba.
+     */
+    private static void resetLazyExecution(Connection conn) throws SQLException {
+        try (Statement lazy = conn.createStatement()) {
+            lazy.execute("SET LAZY_QUERY_EXECUTION FALSE");
+        }
+    }
+
+    /**
+     * Asigna los parametros de una sentencia preparada.
+     */
+    @FunctionalInterface
+    interface StatementBinder {
+        StatementBinder NONE = stmt -> { };
+
+        void bind(PreparedStatement stmt) throws SQLException;
+    }
+}
@@ -0,0 +1,218 @@
+package org.develop.repositories;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Indice invertido de trigramas sobre los nombres de los Funkos, mantenido en memoria por el repositorio.
+ *
+ * Cada nombre se pasa a minusculas y se descompone en trigramas; para cada trigrama se guarda la lista ordenada de IDs
+ * que lo contienen. Buscar una subcadena consiste en intersecar las listas de los trigramas de la busqueda, lo que
+ * devuelve un conjunto pequeno de candidatos que despues se comprueban contra el nombre real. Al inicio de cada
+ * nombre se anade un caracter centinela para que las busquedas por prefijo solo encajen al principio.
+ *
+ * El indice puede devolver candidatos de mas (por ejemplo tras renombrar un Funko) pero nunca de menos, por lo que
+ * los resultados siempre deben verificarse. Tambien recuerda los trigramas indexados de cada ID, para que eliminar un
+ * Funko solo toque las listas de sus trigramas.
+ *
+ * @author Alonso Cruz, Joselyn Obando
+ */
+public class FunkoNameIndex {
+    /**
+     * Longitud minima de busqueda que puede resolver el indice; las busquedas mas cortas deben resolverse de otra forma.
+     */
+    public static final int GRAM_SIZE = 3;
+    private static final char START = '\u0002';
+    private static final int[] EMPTY = new int[0];
+
+    private final Map<Long, Postings> grams = new HashMap<>();
+    private final Map<Integer, long[]> gramsById = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * Indexa el nombre de un Funko. Si el ID ya estaba indexado, sus trigramas nuevos se anaden a los existentes.
+     *
+     * @param id   El ID del Funko.
+     * @param name El nombre del Funko.
+     */
+    public void add(int id, String name) {
+        long[] nameGrams = grams(START + name.toLowerCase());
+        lock.writeLock().lock();
+        try {
+            for (long gram : nameGrams) {
+                grams.computeIfAbsent(gram, k -> new Postings()).add(id);
+            }
+            gramsById.merge(id, nameGrams, FunkoNameIndex::union);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Elimina un ID de las listas de los trigramas con los que se indexo.
+     *
+     * @param id El ID del Funko a eliminar.
+     */
+    public void remove(int id) {
+        lock.writeLock().lock();
+        try {
+            long[] idGrams = gramsById.remove(id);
+            if (idGrams == null) {
+                return;
+            }
+            for (long gram : idGrams) {
+                Postings postings = grams.get(gram);
+                if (postings != null && postings.remove(id) && postings.size == 0) {
+                    grams.remove(gram);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Vacia el indice.
+     */
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            grams.clear();
+            gramsById.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Obtiene los IDs candidatos cuyo nombre, sin distinguir mayusculas, puede contener (o empezar por) la busqueda.
+     *
+     * @param query  La cadena a buscar.
+     * @param prefix true si la busqueda es por prefijo, false si es por subcadena.
+     * @return Los IDs candidatos en orden ascendente, o null si la busqueda es demasiado corta para el indice.
+     */
+    public int[] candidates(String query, boolean prefix) {
+        String text = (prefix ? START : "") + query.toLowerCase();
+        if (text.length() < GRAM_SIZE) {
+            return null;
+        }
+        lock.readLock().lock();
+        try {
+            Postings[] lists = new Postings[text.length() - GRAM_SIZE + 1];
+            for (int i = 0; i < lists.length; i++) {
+                lists[i] = grams.get(gram(text, i));
+                if (lists[i] == null) {
+                    return EMPTY;
+                }
+            }
+            // Se empieza por la lista mas corta para que el resto de intersecciones sean busquedas binarias baratas
+            Arrays.sort(lists, Comparator.comparingInt(p -> p.size));
+            int[] result = Arrays.copyOf(lists[0].ids, lists[0].size);
+            int size = result.length;
+            for (int l = 1; l < lists.length && size > 0; l++) {
+                int kept = 0;
+                for (int i = 0; i < size; i++) {
+                    if (lists[l].contains(result[i])) {
+                        result[kept++] = result[i];
+                    }
+                }
+                size = kept;
+            }
+            return size == result.length ? result : Arrays.copyOf(result, size);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Obtiene los trigramas distintos de un texto, ordenados.
+     */
+    private static long[] grams(String text) {
+        int count = Math.max(0, text.length() - GRAM_SIZE + 1);
+        long[] result = new long[count];
+        for (int i = 0; i < count; i++) {
+            result[i] = gram(text, i);
+        }
+        Arrays.sort(result);
+        int size = 0;
+        for (int i = 0; i < count; i++) {
+            if (size == 0 || result[size - 1] != result[i]) {
+                result[size++] = result[i];
+            }
+        }
+        return size == count ? result : Arrays.copyOf(result, size);
+    }
+
+    /**
+     * Une dos listas ordenadas de trigramas sin repetidos.
+     */
+    private static long[] union(long[] a, long[] b) {
+        long[] result = new long[a.length + b.length];
+        int i = 0, j = 0, size = 0;
+        while (i < a.length || j < b.length) {
+            long next;
+            if (j == b.length || (i < a.length && a[i] < b[j])) {
+                next = a[i++];
+            } else if (i == a.length || b[j] < a[i]) {
+                next = b[j++];
+            } else {
+                next = a[i++];
+                j++;
+            }
+            result[size++] = next;
+        }
+        return size == result.length ? result : Arrays.copyOf(result, size);
+    }
+
+    private static long gram(String text, int from) {
+        return ((long) text.charAt(from) << 32) | ((long) text.charAt(from + 1) << 16) | text.charAt(from + 2);
+    }
+
+    /**
+     * Lista ordenada de IDs sin repetidos. Los IDs autoincrementales llegan casi siempre en orden, por lo que anadir
+     * suele ser una insercion al final.
+     */
+    private static final class Postings {
+        private int[] ids = new int[4];
+        private int size;
+
+        void add(int id) {
+            if (size > 0 && ids[size - 1] >= id) {
+                int pos = Arrays.binarySearch(ids, 0, size, id);
+                if (pos >= 0) {
+                    return;
+                }
+                insert(-pos - 1, id);
+            } else {
+                insert(size, id);
+            }
+        }
+
+        boolean remove(int id) {
+            int pos = Arrays.binarySearch(ids, 0, size, id);
+            if (pos < 0) {
+                return false;
+            }
+            System.arraycopy(ids, pos + 1, ids, pos, size - pos - 1);
+            size--;
+            return true;
+        }
+
+        boolean contains(int id) {
+            return Arrays.binarySearch(ids, 0, size, id) >= 0;
+        }
+
+        private void insert(int pos, int id) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            System.arraycopy(ids, pos, ids, pos + 1, size - pos);
+            ids[pos] = id;
+            size++;
+        }
+    }
+}
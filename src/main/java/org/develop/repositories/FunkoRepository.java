@@ -2,9 +2,16 @@ package org.develop.repositories;
 
 import org.develop.exceptions.FunkoNotFoundException;
 import org.develop.model.Funko;
+import org.develop.model.FunkoSort;
+import org.develop.model.FunkoSummary;
+import org.develop.model.NameMatch;
+import org.develop.model.Page;
+import org.develop.model.PageCursor;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
+import java.util.stream.Stream;
 
 /**
  * Interfaz que extiende la interfaz `CRUDRepository` para definir operaciones especificas de un repositorio de entidades Funko.
@@ -21,4 +28,84 @@ public interface FunkoRepository extends CRUDRepository<Funko,Integer>{
      * @return Una lista de Funkos cuyos nombres coinciden con el parametro proporcionado.
      */
     CompletableFuture<List<Funko>> findByNombre(String nombre);
+
+    /**
+     * Busca y recupera una lista de Funkos por nombre segun el modo de busqueda indicado.
+     *
+     * @param nombre     La cadena a buscar.
+     * @param match      Si el nombre debe contener la cadena o empezar por ella.
+     * @param ignoreCase true para no distinguir mayusculas de minusculas.
+     * @return Una lista de Funkos cuyos nombres coinciden con la busqueda.
+     */
+    CompletableFuture<List<Funko>> findByNombre(String nombre, NameMatch match, boolean ignoreCase);
+
+    /**
+     * Obtiene una pagina de Funkos ordenados por ID, buscando a partir del ID indicado en lugar de usar OFFSET.
+     *
+     * @param afterId El ID del ultimo Funko de la pagina anterior, o null para la primera pagina.
+     * @param limit   El numero maximo de Funkos de la pagina.
+     * @return La pagina de Funkos junto al cursor de la pagina siguiente.
+     */
+    CompletableFuture<Page<Funko>> findPage(Integer afterId, int limit);
+
+    /**
+     * Obtiene una pagina de Funkos ordenados por el criterio indicado, buscando a partir del cursor indicado.
+     *
+     * @param after El cursor devuelto por la pagina anterior con el mismo criterio, o null para la primera pagina.
+     * @param limit El numero maximo de Funkos de la pagina.
+     * @param sort  El criterio de ordenacion.
+     * @return La pagina de Funkos junto al cursor de la pagina siguiente.
+     */
+    CompletableFuture<Page<Funko>> findPage(PageCursor after, int limit, FunkoSort sort);
+
+    /**
+     * Recorre todos los Funkos de la base de datos mediante un cursor, sin cargarlos todos en memoria.
+     * El Stream devuelto debe cerrarse si no se consume por completo para liberar la conexion.
+     *
+     * @return Un Stream perezoso con todos los Funkos.
+     */
+    CompletableFuture<Stream<Funko>> streamAll();
+
+    /**
+     * Guarda una coleccion de Funkos en la base de datos utilizando inserciones por lotes.
+     *
+     * @param funkos Los Funkos que se van a guardar.
+     * @return Una lista con los Funkos guardados, con su ID y myId asignados.
+     */
+    CompletableFuture<List<Funko>> saveAll(Collection<Funko> funkos);
+
+    /**
+     * Guarda una coleccion de Funkos en la base de datos utilizando inserciones por lotes del tamano indicado.
+     * Se realiza un commit por cada lote enviado a la base de datos.
+     *
+     * @param funkos    Los Funkos que se van a guardar.
+     * @param batchSize El numero maximo de Funkos que se envian en cada lote.
+     * @return Una lista con los Funkos guardados, con su ID y myId asignados.
+     */
+    CompletableFuture<List<Funko>> saveAll(Collection<Funko> funkos, int batchSize);
+
+    /**
+     * Actualiza una coleccion de Funkos en la base de datos con una unica conexion, sentencias por lotes y un unico
+     * commit. Los Funkos cuyo ID ya no existe se omiten.
+     *
+     * @param funkos Los Funkos que se van a actualizar.
+     * @return Una lista con los Funkos que se han actualizado.
+     */
+    CompletableFuture<List<Funko>> updateAll(Collection<Funko> funkos);
+
+    /**
+     * Recupera el ID, nombre, modelo y precio de todos los Funkos, ordenados por ID, leyendo solo esas columnas.
+     *
+     * @return Una lista con el resumen de todos los Funkos.
+     */
+    CompletableFuture<List<FunkoSummary>> findAllSummaries();
+
+    /**
+     * Recorre el ID, nombre, modelo y precio de todos los Funkos mediante un cursor, leyendo solo esas columnas y sin
+     * cargarlos todos en memoria. El Stream devuelto debe cerrarse si no se consume por completo para liberar la
+     * conexion.
+     *
+     * @return Un Stream perezoso con el resumen de todos los Funkos.
+     */
+    CompletableFuture<Stream<FunkoSummary>> streamSummaries();
 }
@@ -3,20 +3,32 @@ package org.develop.repositories;
 import org.develop.exceptions.FunkoNotFoundException;
 import org.develop.exceptions.FunkoNotSaveException;
 import org.develop.model.Funko;
-import org.develop.model.Modelo;
+import org.develop.model.FunkoSort;
+import org.develop.model.FunkoSummary;
 import org.develop.model.MyIDGenerator;
+import org.develop.model.NameMatch;
+import org.develop.model.Page;
+import org.develop.model.PageCursor;
 import org.develop.services.database.DatabaseManager;
+import org.develop.services.executor.IOExecutors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.sql.*;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
-import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
 
 /**
  * Clase que implementa la interfaz `FunkoRepository` y proporciona metodos para realizar operaciones CRUD en objetos Funko
@@ -28,27 +40,69 @@ import java.util.concurrent.CompletionException;
  @author Alonso Cruz, Joselyn Obando
  */
 public class FunkoRepositoryImpl implements FunkoRepository {
+    /**
+     * Numero de Funkos enviados por lote cuando no se indica un tamano en {@link #saveAll(Collection)}.
+     */
+    public static final int DEFAULT_BATCH_SIZE = 500;
+    /**
+     * Numero de filas que se piden a la base de datos en cada viaje al recorrer un cursor con {@link #streamAll()}.
+     */
+    public static final int DEFAULT_FETCH_SIZE = 256;
+    /**
+     * Probabilidad de falso positivo del filtro de IDs con el numero de IDs para el que se dimensiona.
+     */
+    public static final double ID_FILTER_FPP = 0.01;
+    private static final int MIN_ID_FILTER_CAPACITY = 1024;
+    private static final String UPDATE_QUERY = "UPDATE Funko SET name = ? , modelo = ?, precio = ? , updated_at = ? WHERE id = ?";
+    private static final String SUMMARY_QUERY = "SELECT ID, name, modelo, precio FROM Funko ORDER BY ID";
+    private static final RowMapper<FunkoSummary> SUMMARY_MAPPER = rs -> new FunkoSummary(
+            rs.getInt(1), rs.getString(2), FunkoRowMapper.toModelo(rs.getString(3)), rs.getDouble(4));
+    private static final String INSERT_QUERY = "INSERT INTO Funko (uuid,myid, name, modelo, precio, fecha_lanzamiento) VALUES (?, ?, ?, ?, ?, ?)";
+
     private static FunkoRepositoryImpl instance;
     private final Logger logger = LoggerFactory.getLogger(FunkoRepositoryImpl.class);
 
     private final DatabaseManager db;
     private final MyIDGenerator idGenerator;
+    private final Executor executor;
+    private final FunkoNameIndex nameIndex = new FunkoNameIndex();
+    private volatile boolean nameIndexLoaded;
+    // Nulo mientras se construye: findById solo lo consulta cuando ya refleja todos los IDs de la BD
+    private volatile CountingBloomFilter idFilter;
+    private final ReadWriteLock idFilterLock = new ReentrantReadWriteLock();
+    private final AtomicBoolean idFilterBuilding = new AtomicBoolean();
 
-    private FunkoRepositoryImpl(DatabaseManager db,MyIDGenerator idGenerator) {
+    private FunkoRepositoryImpl(DatabaseManager db,MyIDGenerator idGenerator,Executor executor) {
         this.db = db;
         this.idGenerator = idGenerator;
+        this.executor = executor;
+        rebuildIdFilter();
     }
 
     /**
      * Obtiene la única instancia de la clase FunkoRepositoryImpl, utilizando el patron Singleton.
+     * Las consultas se ejecutan en el executor de base de datos compartido, dimensionado segun el pool de conexiones.
      *
      * @param db          El gestor de la base de datos.
      * @param idGenerator El generador de IDs.
      * @return La instancia de FunkoRepositoryImpl.
      */
     public synchronized static FunkoRepositoryImpl getInstance(DatabaseManager db,MyIDGenerator idGenerator) {
+        return getInstance(db, idGenerator, IOExecutors.database(db));
+    }
+
+    /**
+     * Obtiene la única instancia de la clase FunkoRepositoryImpl, utilizando el patron Singleton.
+     * El executor solo se tiene en cuenta la primera vez que se crea la instancia.
+     *
+     * @param db          El gestor de la base de datos.
+     * @param idGenerator El generador de IDs.
+     * @param executor    El executor en el que se ejecutan las consultas bloqueantes.
+     * @return La instancia de FunkoRepositoryImpl.
+     */
+    public synchronized static FunkoRepositoryImpl getInstance(DatabaseManager db,MyIDGenerator idGenerator,Executor executor) {
         if (instance == null) {
-            instance = new FunkoRepositoryImpl(db,idGenerator);
+            instance = new FunkoRepositoryImpl(db,idGenerator,executor);
         }
 
         return instance;
@@ -63,28 +117,32 @@ public class FunkoRepositoryImpl implements FunkoRepository {
      */
     @Override
     public CompletableFuture<Funko> save(Funko funko) throws FunkoNotSaveException {
-        String sqlQuery = "INSERT INTO Funko (uuid,myid, name, modelo, precio, fecha_lanzamiento) VALUES (?, ?, ?, ?, ?, ?)";
-        return CompletableFuture.supplyAsync(() -> {
+        return IOExecutors.supplyAsync(() -> {
             try (var conn = db.getConnection();
-                 var stmt = conn.prepareStatement(sqlQuery, Statement.RETURN_GENERATED_KEYS)) {
+                 var stmt = conn.prepareStatement(INSERT_QUERY, Statement.RETURN_GENERATED_KEYS)) {
                 logger.debug("Saving Funko On Database: " + funko.getName());
                 funko.setMyId(idGenerator.getIDandIncrement());
-                stmt.setObject(1, funko.getUuid());
-                stmt.setLong(2, funko.getMyId());
-                stmt.setString(3, funko.getName());
-                stmt.setString(4, funko.getModelo().toString());
-                stmt.setDouble(5, funko.getPrecio());
-                stmt.setDate(6, Date.valueOf(funko.getFecha_lanzamiento()));
-                int res = stmt.executeUpdate();
-                conn.commit();
-
-                if (res > 0) {
-                    ResultSet rs = stmt.getGeneratedKeys();
-                    if (rs.next()) {
-                        funko.setId(rs.getInt(1)); // Obtiene el ID generado automáticamente
+                bindInsert(stmt, funko);
+                int res;
+                idFilterLock.readLock().lock();
+                try {
+                    res = stmt.executeUpdate();
+                    conn.commit();
+                    if (res > 0) {
+                        ResultSet rs = stmt.getGeneratedKeys();
+                        if (rs.next()) {
+                            funko.setId(rs.getInt(1)); // Obtiene el ID generado automáticamente
+                        }
+                        rs.close();
+                        addToIdFilter(funko.getId());
+                        nameIndex.add(funko.getId(), funko.getName());
                     }
-                    rs.close();
-                } else {
+                } finally {
+                    idFilterLock.readLock().unlock();
+                }
+                checkIdFilterCapacity();
+
+                if (res <= 0) {
                     logger.error("Objeto no guardado en la base de datos");
                     throw new FunkoNotSaveException("Funko con nombre " + funko.getName() + " no almacenado en la BD");
                 }
@@ -92,7 +150,115 @@ public class FunkoRepositoryImpl implements FunkoRepository {
                 throw new RuntimeException(e);
             }
             return funko;
-        });
+        }, executor);
+    }
+
+    /**
+     * Guarda una coleccion de Funkos en la base de datos en lotes de {@link #DEFAULT_BATCH_SIZE} elementos.
+     *
+     * @param funkos Los Funkos que se van a guardar.
+     * @return Un CompletableFuture que contendra la lista de Funkos guardados con su ID y myId asignados.
+     */
+    @Override
+    public CompletableFuture<List<Funko>> saveAll(Collection<Funko> funkos) {
+        return saveAll(funkos, DEFAULT_BATCH_SIZE);
+    }
+
+    /**
+     * Guarda una coleccion de Funkos en la base de datos utilizando una unica conexion y sentencias por lotes
+     * (addBatch/executeBatch). Se hace un commit por cada lote y las claves generadas se asignan de vuelta a cada Funko.
+     *
+     * @param funkos    Los Funkos que se van a guardar.
+     * @param batchSize El numero maximo de Funkos que se envian en cada lote.
+     * @return Un CompletableFuture que contendra la lista de Funkos guardados con su ID y myId asignados.
+     * @throws FunkoNotSaveException Si algun lote no se almacena completamente en la BD.
+     */
+    @Override
+    public CompletableFuture<List<Funko>> saveAll(Collection<Funko> funkos, int batchSize) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("El tamano de lote debe ser mayor que 0");
+        }
+        return IOExecutors.supplyAsync(() -> {
+            List<Funko> saved = new ArrayList<>(funkos.size());
+            if (funkos.isEmpty()) {
+                return saved;
+            }
+            try (var conn = db.getConnection();
+                 var stmt = conn.prepareStatement(INSERT_QUERY, Statement.RETURN_GENERATED_KEYS)) {
+                logger.debug("Guardando " + funkos.size() + " Funkos en lotes de " + batchSize);
+                boolean autoCommit = conn.getAutoCommit();
+                conn.setAutoCommit(false);
+                try {
+                    List<Funko> batch = new ArrayList<>(Math.min(batchSize, funkos.size()));
+                    for (Funko funko : funkos) {
+                        funko.setMyId(idGenerator.getIDandIncrement());
+                        bindInsert(stmt, funko);
+                        stmt.addBatch();
+                        batch.add(funko);
+                        if (batch.size() == batchSize) {
+                            executeBatch(conn, stmt, batch);
+                            saved.addAll(batch);
+                            batch.clear();
+                        }
+                    }
+                    if (!batch.isEmpty()) {
+                        executeBatch(conn, stmt, batch);
+                        saved.addAll(batch);
+                    }
+                } catch (SQLException | FunkoNotSaveException e) {
+                    conn.rollback();
+                    throw e;
+                } finally {
+                    conn.setAutoCommit(autoCommit);
+                }
+                logger.debug("Funkos guardados correctamente: " + saved.size());
+            } catch (SQLException e) {
+                throw new CompletionException(e);
+            }
+            return saved;
+        }, executor);
+    }
+
+    private void executeBatch(Connection conn, PreparedStatement stmt, List<Funko> batch) throws SQLException {
+        int[] results = stmt.executeBatch();
+        for (int res : results) {
+            if (res == 0) {
+                logger.error("Lote no guardado en la base de datos");
+                throw new FunkoNotSaveException("Lote de " + batch.size() + " Funkos no almacenado en la BD");
+            }
+        }
+        try (ResultSet rs = stmt.getGeneratedKeys()) {
+            int i = 0;
+            while (rs.next() && i < batch.size()) {
+                batch.get(i++).setId(rs.getInt(1));
+            }
+        }
+        // Los IDs entran en el filtro antes del commit para que nadie pueda verlos en la BD sin que esten en el filtro.
+        // Todo ocurre con el cerrojo de lectura tomado para que deleteAll no pueda vaciar el filtro ni el indice entre
+        // medias y dejar fuera filas confirmadas
+        idFilterLock.readLock().lock();
+        try {
+            batch.forEach(fk -> addToIdFilter(fk.getId()));
+            try {
+                conn.commit();
+            } catch (SQLException e) {
+                batch.forEach(fk -> removeFromIdFilter(fk.getId()));
+                throw e;
+            }
+            batch.forEach(fk -> nameIndex.add(fk.getId(), fk.getName()));
+        } finally {
+            idFilterLock.readLock().unlock();
+        }
+        checkIdFilterCapacity();
+    }
+
+    private void bindInsert(PreparedStatement stmt, Funko funko) throws SQLException {
+        stmt.setObject(1, funko.getUuid());
+        stmt.setLong(2, funko.getMyId());
+        stmt.setString(3, funko.getName());
+        stmt.setString(4, funko.getModelo().toString());
+        stmt.setDouble(5, funko.getPrecio());
+        stmt.setDate(6, Date.valueOf(funko.getFecha_lanzamiento()));
     }
 
     /**
@@ -104,10 +270,9 @@ public class FunkoRepositoryImpl implements FunkoRepository {
      */
     @Override
     public CompletableFuture<Funko> update(Funko funko){
-        String sqlQuery = "UPDATE Funko SET name = ? , modelo = ?, precio = ? , updated_at = ? WHERE id = ?";
-        return CompletableFuture.supplyAsync(() -> {
+        return IOExecutors.supplyAsync(() -> {
             try (var conn = db.getConnection();
-                 var stmt = conn.prepareStatement(sqlQuery)) {
+                 var stmt = conn.prepareStatement(UPDATE_QUERY)) {
                 logger.debug("Actualizando Objeto ..... ");
                 stmt.setString(1, funko.getName());
                 stmt.setString(2, funko.getModelo().toString());
@@ -119,6 +284,7 @@ public class FunkoRepositoryImpl implements FunkoRepository {
                     logger.error("Funko no encontrado en la BD");
                     throw new FunkoNotFoundException("Funko con ID " + funko.getId() + " no encontrado en la BD");
                 }
+                nameIndex.add(funko.getId(), funko.getName());
 
                 logger.debug("Objeto Actualizado Correctamente!");
             } catch (SQLException| FunkoNotFoundException e) {
@@ -126,11 +292,78 @@ public class FunkoRepositoryImpl implements FunkoRepository {
             }
 
             return funko;
-        });
+        }, executor);
+    }
+
+    /**
+     * Actualiza una coleccion de Funkos utilizando una unica conexion y sentencias por lotes de
+     * {@link #DEFAULT_BATCH_SIZE} elementos. Todos los lotes se confirman con un unico commit, de forma que o se
+     * aplican todas las actualizaciones o ninguna. Los Funkos cuyo ID no existe en la BD se omiten.
+     *
+     * @param funkos Los Funkos que se van a actualizar.
+     * @return Un CompletableFuture que contendra la lista de Funkos actualizados.
+     */
+    @Override
+    public CompletableFuture<List<Funko>> updateAll(Collection<Funko> funkos) {
+        return IOExecutors.supplyAsync(() -> {
+            List<Funko> updated = new ArrayList<>(funkos.size());
+            if (funkos.isEmpty()) {
+                return updated;
+            }
+            try (var conn = db.getConnection();
+                 var stmt = conn.prepareStatement(UPDATE_QUERY)) {
+                logger.debug("Actualizando " + funkos.size() + " Funkos en lotes de " + DEFAULT_BATCH_SIZE);
+                boolean autoCommit = conn.getAutoCommit();
+                conn.setAutoCommit(false);
+                try {
+                    Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+                    List<Funko> batch = new ArrayList<>(Math.min(DEFAULT_BATCH_SIZE, funkos.size()));
+                    for (Funko funko : funkos) {
+                        stmt.setString(1, funko.getName());
+                        stmt.setString(2, funko.getModelo().toString());
+                        stmt.setDouble(3, funko.getPrecio());
+                        stmt.setTimestamp(4, now);
+                        stmt.setInt(5, funko.getId());
+                        stmt.addBatch();
+                        batch.add(funko);
+                        if (batch.size() == DEFAULT_BATCH_SIZE) {
+                            executeUpdateBatch(stmt, batch, updated);
+                            batch.clear();
+                        }
+                    }
+                    if (!batch.isEmpty()) {
+                        executeUpdateBatch(stmt, batch, updated);
+                    }
+                    conn.commit();
+                } catch (SQLException e) {
+                    conn.rollback();
+                    throw e;
+                } finally {
+                    conn.setAutoCommit(autoCommit);
+                }
+                updated.forEach(fk -> nameIndex.add(fk.getId(), fk.getName()));
+                logger.debug("Funkos actualizados correctamente: " + updated.size());
+            } catch (SQLException e) {
+                throw new CompletionException(e);
+            }
+            return updated;
+        }, executor);
+    }
+
+    private void executeUpdateBatch(PreparedStatement stmt, List<Funko> batch, List<Funko> updated) throws SQLException {
+        int[] results = stmt.executeBatch();
+        for (int i = 0; i < results.length; i++) {
+            if (results[i] > 0 || results[i] == Statement.SUCCESS_NO_INFO) {
+                updated.add(batch.get(i));
+            } else {
+                logger.warn("Funko con ID " + batch.get(i).getId() + " no encontrado en la BD al actualizar por lotes");
+            }
+        }
     }
 
     /**
-     * Busca un objeto Funko en la base de datos por su ID.
+     * Busca un objeto Funko en la base de datos por su ID. Si el filtro de IDs indica que el ID no existe, se responde
+     * directamente con un Optional vacio sin pedir una conexion al pool.
      *
      * @param id El ID del Funko que se desea buscar.
      * @return Un CompletableFuture que contendra un Optional que puede contener el Funko encontrado si existe.
@@ -140,66 +373,200 @@ public class FunkoRepositoryImpl implements FunkoRepository {
     public CompletableFuture<Optional<Funko>> findById(Integer id) throws FunkoNotFoundException {
 
         String sqlQuery = "SELECT * FROM Funko WHERE id = ?";
-        return CompletableFuture.supplyAsync(() -> {
+        CountingBloomFilter filter = idFilter;
+        if (filter != null && !filter.mightContain(id)) {
+            logger.debug("ID " + id + " descartado por el filtro de IDs");
+            return CompletableFuture.completedFuture(Optional.empty());
+        }
+        return IOExecutors.supplyAsync(() -> {
             Optional<Funko> funk = Optional.empty();
             try (var conn = db.getConnection(); var stmt = conn.prepareStatement(sqlQuery)) {
             logger.info("Buscando Objeto con ID " + id + "......");
                 stmt.setInt(1, id);
-                var rs = stmt.executeQuery();
-                while (rs.next()) {
-                    Funko fk = new Funko();
-                    fk.setId(rs.getInt("id"));
-                    fk.setMyId(rs.getLong("Myid"));
-                    fk.setUuid((UUID) rs.getObject("uuid"));
-                    fk.setName(rs.getString("name"));
-                    fk.setModelo(Modelo.valueOf(rs.getString("modelo")));
-                    fk.setPrecio(rs.getDouble("precio"));
-                    fk.setFecha_lanzamiento(rs.getDate("fecha_lanzamiento").toLocalDate());
-                    funk = Optional.of(fk);
+                try (var rs = stmt.executeQuery()) {
+                    if (rs.next()) {
+                        funk = Optional.of(new FunkoRowMapper().map(rs));
+                    }
                 }
             } catch (SQLException e) {
+                // Un fallo de la BD no significa que el Funko no exista: la cache no debe guardarlo como inexistente
                 logger.error("ERROR: " + e.getMessage(), e);
+                throw new CompletionException(e);
             }
 
             return funk;
-        });
+        }, executor);
     }
 
     /**
-     * Busca y recupera una lista de objetos Funko cuyos nombres contienen una cadena especifica.
+     * Busca y recupera una lista de objetos Funko cuyos nombres contienen una cadena especifica, distinguiendo
+     * mayusculas de minusculas.
      *
      * @param nombre La cadena que se utilizara para buscar Funkos por nombre.
      * @return Un CompletableFuture que contendra una lista de Funkos cuyos nombres coinciden con el parametro proporcionado.
      */
     @Override
     public CompletableFuture<List<Funko>> findByNombre(String nombre){
+        return findByNombre(nombre, NameMatch.CONTAINS, false);
+    }
+
+    /**
+     * Busca y recupera una lista de objetos Funko por nombre usando el indice de trigramas en memoria, lo que evita
+     * recorrer la tabla completa con un LIKE '%...%'. Los candidatos del indice se leen por clave primaria y se
+     * comprueban contra el nombre real. Las busquedas mas cortas que un trigrama se resuelven con LIKE en la BD.
+     *
+     * @param nombre     La cadena que se utilizara para buscar Funkos por nombre.
+     * @param match      Si el nombre debe contener la cadena o empezar por ella.
+     * @param ignoreCase true para no distinguir mayusculas de minusculas.
+     * @return Un CompletableFuture que contendra una lista de Funkos, ordenada por ID, cuyos nombres coinciden con la busqueda.
+     */
+    @Override
+    public CompletableFuture<List<Funko>> findByNombre(String nombre, NameMatch match, boolean ignoreCase) {
+        return IOExecutors.supplyAsync(()->{
+            List<Funko> funks = new ArrayList<>();
+            try (var conn = db.getConnection()){
+                logger.info("Obtener Funko con Nombre "+nombre+".......");
+                loadNameIndex(conn);
+                int[] ids = nameIndex.candidates(nombre, match == NameMatch.PREFIX);
+                if (ids == null) {
+                    findByNombreLike(conn, nombre, match, ignoreCase, funks);
+                } else if (ids.length > 0) {
+                    try (var stmt = conn.prepareStatement("SELECT * FROM Funko WHERE ID = ANY(?) ORDER BY ID")) {
+                        stmt.setObject(1, Arrays.stream(ids).boxed().toArray(Integer[]::new));
+                        try (var rs = stmt.executeQuery()) {
+                            var mapper = new FunkoRowMapper();
+                            while (rs.next()) {
+                                Funko fk = mapper.map(rs);
+                                if (match.matches(fk.getName(), nombre, ignoreCase)) {
+                                    funks.add(fk);
+                                }
+                            }
+                        }
+                    }
+                }
+                logger.debug("Objeto obtenido con nombre: " + nombre);
+            }catch (SQLException e) {
+                logger.error("ERROR: " + e.getMessage(),e);
+            }
+            return funks;
+        }, executor);
+    }
 
-        List<Funko> funks = new ArrayList<>();
-        return CompletableFuture.supplyAsync(()->{
-        String sqlQuery = "SELECT * FROM Funko WHERE name LIKE ?";
-        try (var conn = db.getConnection(); var stmt = conn.prepareStatement(sqlQuery)){
-            stmt.setString(1,"%" + nombre + "%");
-            logger.info("Obtener Funko con Nombre "+nombre+".......");
-            var rs = stmt.executeQuery();
-            while (rs.next()){
-                Funko fk = new Funko();
-                fk.setId(rs.getInt("id"));
-                fk.setMyId(rs.getLong("Myid"));
-                fk.setUuid((UUID) rs.getObject("uuid"));
-                fk.setName(rs.getString("name"));
-                fk.setModelo(Modelo.valueOf(rs.getString("modelo")));
-                fk.setPrecio(rs.getDouble("precio"));
-                fk.setFecha_lanzamiento(rs.getDate("fecha_lanzamiento").toLocalDate());
-                funks.add(fk);
+    private void findByNombreLike(Connection conn, String nombre, NameMatch match, boolean ignoreCase, List<Funko> funks) throws SQLException {
+        String sqlQuery = "SELECT * FROM Funko WHERE name " + (ignoreCase ? "ILIKE" : "LIKE") + " ? ESCAPE '\\' ORDER BY ID";
+        String escaped = nombre.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+        try (var stmt = conn.prepareStatement(sqlQuery)) {
+            stmt.setString(1, (match == NameMatch.PREFIX ? "" : "%") + escaped + "%");
+            try (var rs = stmt.executeQuery()) {
+                var mapper = new FunkoRowMapper();
+                while (rs.next()) {
+                    funks.add(mapper.map(rs));
+                }
             }
-            logger.debug("Objeto obtenido con nombre: " + nombre);
-        }catch (SQLException e) {
-            logger.error("ERROR: " + e.getMessage(),e);
         }
-        return funks;
+    }
+
+    /**
+     * Carga en el indice de nombres todos los Funkos de la BD la primera vez que se necesita. A partir de ese momento
+     * el indice se mantiene desde save, saveAll, update, deleteById y deleteAll.
+     */
+    private void loadNameIndex(Connection conn) throws SQLException {
+        if (nameIndexLoaded) {
+            return;
+        }
+        synchronized (nameIndex) {
+            if (nameIndexLoaded) {
+                return;
+            }
+            logger.debug("Construyendo indice de nombres");
+            try (var stmt = conn.prepareStatement("SELECT ID, name FROM Funko");
+                 var rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    nameIndex.add(rs.getInt(1), rs.getString(2));
+                }
+            }
+            nameIndexLoaded = true;
+        }
+    }
+
+    private void addToIdFilter(int id) {
+        CountingBloomFilter filter = idFilter;
+        if (filter != null) {
+            filter.add(id);
+        }
+    }
+
+    /**
+     * Reconstruye el filtro de IDs si ya tiene mas IDs de los previstos. Debe llamarse sin tener el cerrojo del filtro,
+     * porque con un executor que ejecute la tarea en el propio hilo la reconstruccion tomaria el cerrojo de escritura.
+     */
+    private void checkIdFilterCapacity() {
+        CountingBloomFilter filter = idFilter;
+        if (filter != null && filter.size() > filter.getExpectedInsertions()) {
+            rebuildIdFilter();
+        }
+    }
+
+    private void removeFromIdFilter(int id) {
+        CountingBloomFilter filter = idFilter;
+        if (filter != null) {
+            filter.remove(id);
+        }
+    }
+
+    /**
+     * Construye en segundo plano el filtro de IDs con un unico recorrido de la clave primaria, dimensionado para el
+     * doble de los Funkos actuales. Se hace al crear el repositorio y de nuevo cuando el numero de IDs supera aquel
+     * para el que se dimensiono. Mientras se construye findById consulta siempre la BD, y las escrituras que afectan
+     * al filtro esperan a que termine para que ningun ID se pierda entre el recorrido y su publicacion.
+     *
+     * La conexion se pide antes de tomar el cerrojo de escritura, en el mismo orden que las escrituras (conexion y
+     * despues cerrojo de lectura). Con el orden inverso, si el pool se agota, la reconstruccion esperaria una conexion
+     * con el cerrojo tomado mientras las escrituras esperan el cerrojo con todas las conexiones ocupadas.
+     */
+    private void rebuildIdFilter() {
+        if (!idFilterBuilding.compareAndSet(false, true)) {
+            return;
+        }
+        IOExecutors.runAsync(() -> {
+            try (var conn = db.getConnection(); var stmt = conn.createStatement()) {
+                idFilterLock.writeLock().lock();
+                try {
+                    buildIdFilter(stmt);
+                } finally {
+                    idFilterLock.writeLock().unlock();
+                }
+            } catch (SQLException e) {
+                logger.error("ERROR: no se pudo construir el filtro de IDs: " + e.getMessage(), e);
+            } finally {
+                idFilterBuilding.set(false);
+            }
+        }, executor).exceptionally(e -> {
+            // Si el executor rechaza la tarea no llega a ejecutarse y hay que liberar la marca aqui
+            if (e instanceof RejectedExecutionException) {
+                idFilterBuilding.set(false);
+            }
+            return null;
         });
     }
 
+    private void buildIdFilter(Statement stmt) throws SQLException {
+        idFilter = null;
+        int count;
+        try (var rs = stmt.executeQuery("SELECT COUNT(*) FROM Funko")) {
+            rs.next();
+            count = rs.getInt(1);
+        }
+        logger.debug("Construyendo filtro de IDs para " + count + " Funkos");
+        var filter = new CountingBloomFilter(Math.max(MIN_ID_FILTER_CAPACITY, count * 2), ID_FILTER_FPP);
+        try (var rs = stmt.executeQuery("SELECT ID FROM Funko")) {
+            while (rs.next()) {
+                filter.add(rs.getInt(1));
+            }
+        }
+        idFilter = filter;
+    }
+
     /**
      * Recupera una lista de todos los objetos Funko almacenados en la base de datos.
      *
@@ -208,28 +575,161 @@ public class FunkoRepositoryImpl implements FunkoRepository {
     @Override
     public CompletableFuture<List<Funko>> findAll() {
         String sqlQuery = "SELECT * FROM Funko";
-        return CompletableFuture.supplyAsync(() -> {
+        return IOExecutors.supplyAsync(() -> {
             List<Funko> funks = new ArrayList<>();
             try (var conn = db.getConnection(); var stmt = conn.prepareStatement(sqlQuery)) {
                 logger.info("Obteniendo todos los Objetos");
-                var rs = stmt.executeQuery();
-                while (rs.next()) {
-                    Funko fk = new Funko();
-                    fk.setId(rs.getInt("id"));
-                    fk.setMyId(rs.getLong("Myid"));
-                    fk.setUuid((UUID) rs.getObject("uuid"));
-                    fk.setName(rs.getString("name"));
-                    fk.setModelo(Modelo.valueOf(rs.getString("modelo")));
-                    fk.setPrecio(rs.getDouble("precio"));
-                    fk.setFecha_lanzamiento(rs.getDate("fecha_lanzamiento").toLocalDate());
-                    funks.add(fk);
+                try (var rs = stmt.executeQuery()) {
+                    var mapper = new FunkoRowMapper();
+                    while (rs.next()) {
+                        funks.add(mapper.map(rs));
+                    }
                 }
                 logger.debug("Objetos Obtenidos Correctamente");
             } catch (SQLException e) {
                 logger.error("ERROR: " + e.getMessage(), e);
             }
             return funks;
-        });
+        }, executor);
+    }
+
+    /**
+     * Abre un cursor de solo avance sobre todos los Funkos de la base de datos. Las filas se leen en bloques de
+     * {@link #DEFAULT_FETCH_SIZE} a medida que se consume el Stream, sin cargar la tabla completa en memoria.
+     *
+     * El Stream mantiene una conexion del pool mientras esta abierto: se libera al agotarlo o al cerrarlo, por lo que
+     * si el consumidor se detiene antes de tiempo debe usarse con try-with-resources.
+     *
+     * @return Un CompletableFuture que contendra un Stream perezoso de todos los Funkos almacenados en la base de datos.
+     */
+    @Override
+    public CompletableFuture<Stream<Funko>> streamAll() {
+        String sqlQuery = "SELECT * FROM Funko";
+        return IOExecutors.supplyAsync(() -> {
+            try {
+                logger.info("Abriendo cursor sobre todos los Objetos");
+                return CursorStream.open(db.getConnection(), sqlQuery, DEFAULT_FETCH_SIZE, CursorStream.StatementBinder.NONE, new FunkoRowMapper());
+            } catch (SQLException e) {
+                throw new CompletionException(e);
+            }
+        }, executor);
+    }
+
+    /**
+     * Recupera el resumen (ID, nombre, modelo y precio) de todos los Funkos, ordenados por ID. La consulta solo lee
+     * esas cuatro columnas, asi que transfiere y reserva por fila bastante menos que {@link #findAll()}.
+     *
+     * @return Un CompletableFuture que contendra la lista con el resumen de todos los Funkos.
+     */
+    @Override
+    public CompletableFuture<List<FunkoSummary>> findAllSummaries() {
+        return IOExecutors.supplyAsync(() -> {
+            List<FunkoSummary> summaries = new ArrayList<>();
+            try (var conn = db.getConnection(); var stmt = conn.prepareStatement(SUMMARY_QUERY);
+                 var rs = stmt.executeQuery()) {
+                logger.info("Obteniendo el resumen de todos los Objetos");
+                while (rs.next()) {
+                    summaries.add(SUMMARY_MAPPER.map(rs));
+                }
+            } catch (SQLException e) {
+                throw new CompletionException(e);
+            }
+            return summaries;
+        }, executor);
+    }
+
+    /**
+     * Abre un cursor de solo avance sobre el resumen (ID, nombre, modelo y precio) de todos los Funkos, ordenados por
+     * ID. Como {@link #streamAll()}, el Stream mantiene una conexion del pool hasta que se agota o se cierra.
+     *
+     * @return Un CompletableFuture que contendra un Stream perezoso con el resumen de todos los Funkos.
+     */
+    @Override
+    public CompletableFuture<Stream<FunkoSummary>> streamSummaries() {
+        return IOExecutors.supplyAsync(() -> {
+            try {
+                logger.info("Abriendo cursor sobre el resumen de todos los Objetos");
+                return CursorStream.open(db.getConnection(), SUMMARY_QUERY, DEFAULT_FETCH_SIZE, CursorStream.StatementBinder.NONE, SUMMARY_MAPPER);
+            } catch (SQLException e) {
+                throw new CompletionException(e);
+            }
+        }, executor);
+    }
+
+    /**
+     * Obtiene una pagina de Funkos ordenados por ID a partir del cursor indicado.
+     *
+     * @param afterId El ID del ultimo Funko de la pagina anterior, o null para obtener la primera pagina.
+     * @param limit   El numero maximo de Funkos de la pagina.
+     * @return Un CompletableFuture que contendra la pagina de Funkos y el cursor de la pagina siguiente.
+     */
+    @Override
+    public CompletableFuture<Page<Funko>> findPage(Integer afterId, int limit) {
+        return findPage(afterId == null ? null : new PageCursor(afterId, afterId), limit, FunkoSort.ID);
+    }
+
+    /**
+     * Obtiene una pagina de Funkos ordenados por el criterio indicado a partir del cursor dado, usando paginacion por
+     * clave (keyset) en lugar de OFFSET: la consulta busca directamente en el indice de la columna de ordenacion y el ID,
+     * de modo que cualquier pagina cuesta lo mismo que la primera. El cursor lleva el valor de ordenacion del ultimo
+     * Funko, asi que no hace falta leerlo de nuevo y la paginacion sigue aunque ese Funko se borre entre dos paginas.
+     *
+     * Al ordenar por fecha de lanzamiento se omiten los Funkos sin fecha.
+     *
+     * @param after El cursor de la pagina anterior obtenida con el mismo criterio, o null para obtener la primera pagina.
+     * @param limit El numero maximo de Funkos de la pagina.
+     * @param sort  El criterio de ordenacion; el ID se usa como desempate.
+     * @return Un CompletableFuture que contendra la pagina de Funkos y el cursor de la pagina siguiente.
+     */
+    @Override
+    public CompletableFuture<Page<Funko>> findPage(PageCursor after, int limit, FunkoSort sort) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("El tamano de pagina debe ser mayor que 0");
+        }
+        if (after != null && (after.getId() == null || after.getSortValue() == null)) {
+            throw new IllegalArgumentException("El cursor debe tener el ID y el valor de ordenacion");
+        }
+        String column = sort.getColumn();
+        StringBuilder sqlQuery = new StringBuilder("SELECT * FROM Funko WHERE ");
+        sqlQuery.append(sort == FunkoSort.FECHA_LANZAMIENTO ? column + " IS NOT NULL" : "TRUE");
+        if (after != null) {
+            sqlQuery.append(sort == FunkoSort.ID
+                    ? " AND ID > ?"
+                    : " AND " + column + " >= ? AND (" + column + " > ? OR ID > ?)");
+        }
+        sqlQuery.append(" ORDER BY ");
+        sqlQuery.append(sort == FunkoSort.ID ? "ID" : column + ", ID");
+        sqlQuery.append(" LIMIT ?");
+        return IOExecutors.supplyAsync(() -> {
+            List<Funko> funks = new ArrayList<>(limit);
+            try (var conn = db.getConnection(); var stmt = conn.prepareStatement(sqlQuery.toString())) {
+                logger.info("Obteniendo pagina de " + limit + " Objetos despues de " + after);
+                int param = 1;
+                if (after != null) {
+                    if (sort != FunkoSort.ID) {
+                        stmt.setObject(param++, after.getSortValue());
+                        stmt.setObject(param++, after.getSortValue());
+                    }
+                    stmt.setInt(param++, after.getId());
+                }
+                // Se pide un elemento de mas para saber si existe una pagina siguiente
+                stmt.setInt(param, limit + 1);
+                try (var rs = stmt.executeQuery()) {
+                    var mapper = new FunkoRowMapper();
+                    while (rs.next()) {
+                        funks.add(mapper.map(rs));
+                    }
+                }
+            } catch (SQLException e) {
+                throw new CompletionException(e);
+            }
+            if (funks.size() > limit) {
+                funks.remove(limit);
+                Funko last = funks.get(limit - 1);
+                return new Page<>(funks, new PageCursor(last.getId(), sort.sortValue(last)));
+            }
+            return new Page<>(funks, null);
+        }, executor);
     }
 
     /**
@@ -242,11 +742,21 @@ public class FunkoRepositoryImpl implements FunkoRepository {
     @Override
     public CompletableFuture<Boolean> deleteById(Integer id) {
         String sqlQuery = "DELETE FROM Funko WHERE id = ? ";
-        return CompletableFuture.supplyAsync(() -> {
+        return IOExecutors.supplyAsync(() -> {
             try (var conn = db.getConnection(); var stmt = conn.prepareStatement(sqlQuery)) {
                    logger.info("Eliminando Objeto con ID " + id + "..........");
                 stmt.setInt(1, id);
-                var rs = stmt.executeUpdate();
+                int rs;
+                idFilterLock.readLock().lock();
+                try {
+                    rs = stmt.executeUpdate();
+                    if (rs > 0) {
+                        removeFromIdFilter(id);
+                        nameIndex.remove(id);
+                    }
+                } finally {
+                    idFilterLock.readLock().unlock();
+                }
                 if (rs > 0) {
                     logger.info("Eliminado correctamente");
                     return true;
@@ -256,26 +766,40 @@ public class FunkoRepositoryImpl implements FunkoRepository {
             } catch (SQLException|FunkoNotFoundException e) {
                 throw new CompletionException(e);
             }
-        });
+        }, executor);
     }
 
     /**
      * Elimina todos los objetos Funko de la base de datos.
      *
      * @return Un CompletableFuture<Void> que se completa cuando se han eliminado todos los Funkos de la BD.
+     * @throws SQLException Si el borrado falla; en ese caso el filtro de IDs y el indice de nombres no se modifican.
      */
     @Override
     public CompletableFuture<Void> deleteAll() {
-        return CompletableFuture.runAsync(() -> {
+        return IOExecutors.runAsync(() -> {
             String sqlQuery = "DELETE FROM Funko";
             try (var conn = db.getConnection(); var stmt = conn.prepareStatement(sqlQuery)) {
                 logger.info("Eliminando Objetos de la BD......");
-                stmt.executeUpdate();
+                // Con el cerrojo de escritura ningun save, saveAll o deleteById puede tocar el filtro ni el indice entre
+                // el DELETE y su vaciado, y ambos se vacian solo si el DELETE ha ido bien
+                idFilterLock.writeLock().lock();
+                try {
+                    stmt.executeUpdate();
+                    CountingBloomFilter filter = idFilter;
+                    if (filter != null) {
+                        filter.clear();
+                    }
+                    nameIndex.clear();
+                } finally {
+                    idFilterLock.writeLock().unlock();
+                }
             } catch (SQLException e) {
                 logger.error("ERROR: " + e.getMessage(), e);
+                throw new CompletionException(e);
             }
             logger.info("Objetos eliminados Correctamente");
-        });
+        }, executor);
     }
 
 }
@@ -0,0 +1,94 @@
+package org.develop.repositories;
+
+import org.develop.model.Funko;
+import org.develop.model.Modelo;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Convierte filas de la tabla FUNKO en objetos Funko.
+ *
+ * Las posiciones de las columnas se buscan por nombre una sola vez por ResultSet, con la primera fila, y el resto de
+ * filas se leen por indice. El modelo se resuelve con una tabla precalculada a partir de la inicial del nombre, y las
+ * fechas de creacion y actualizacion se toman de la propia fila en lugar de consultar el reloj al crear cada Funko.
+ *
+ * Guarda las posiciones del ultimo ResultSet, asi que cada consulta debe usar su propia instancia y no debe
+ * compartirse entre hilos.
+ *
+ * @author Alonso Cruz, Joselyn Obando
+ */
+public class FunkoRowMapper implements RowMapper<Funko> {
+    private static final Modelo[] MODELOS_BY_INITIAL = new Modelo[128];
+
+    static {
+        for (Modelo modelo : Modelo.values()) {
+            char initial = modelo.name().charAt(0);
+            // Si dos modelos comparten inicial, ninguno usa la tabla y se resuelven con valueOf
+            MODELOS_BY_INITIAL[initial] = MODELOS_BY_INITIAL[initial] == null ? modelo : null;
+        }
+    }
+
+    private ResultSet resolvedFor;
+    private int id, myId, uuid, name, modelo, precio, fechaLanzamiento, createdAt, updatedAt;
+
+    @Override
+    public Funko map(ResultSet rs) throws SQLException {
+        if (rs != resolvedFor) {
+            resolve(rs);
+        }
+        Funko fk = Funko.withoutTimestamps();
+        fk.setId(rs.getInt(id));
+        fk.setMyId(rs.getLong(myId));
+        fk.setUuid(rs.getObject(uuid, UUID.class));
+        fk.setName(rs.getString(name));
+        fk.setModelo(toModelo(rs.getString(modelo)));
+        fk.setPrecio(rs.getDouble(precio));
+        fk.setFecha_lanzamiento(rs.getObject(fechaLanzamiento, LocalDate.class));
+        fk.setCreated_at(createdAt > 0 ? rs.getObject(createdAt, LocalDateTime.class) : null);
+        fk.setUpdated_at(updatedAt > 0 ? rs.getObject(updatedAt, LocalDateTime.class) : null);
+        return fk;
+    }
+
+    /**
+     * Obtiene el modelo a partir de su nombre sin recorrer la tabla de constantes del enum.
+     *
+     * @param value El nombre del modelo.
+     * @return El modelo, o null si el valor es null.
+     * @throws IllegalArgumentException Si el nombre no corresponde a ningun modelo.
+     */
+    public static Modelo toModelo(String value) {
+        if (value == null) {
+            return null;
+        }
+        char initial = value.isEmpty() ? 0 : value.charAt(0);
+        Modelo modelo = initial < MODELOS_BY_INITIAL.length ? MODELOS_BY_INITIAL[initial] : null;
+        return modelo != null && modelo.name().equals(value) ? modelo : Modelo.valueOf(value);
+    }
+
+    private void resolve(ResultSet rs) throws SQLException {
+        id = rs.findColumn("id");
+        myId = rs.findColumn("Myid");
+        uuid = rs.findColumn("uuid");
+        name = rs.findColumn("name");
+        modelo = rs.findColumn("modelo");
+        precio = rs.findColumn("precio");
+        fechaLanzamiento = rs.findColumn("fecha_lanzamiento");
+        createdAt = optionalColumn(rs, "created_at");
+        updatedAt = optionalColumn(rs, "updated_at");
+        resolvedFor = rs;
+    }
+
+    private static int optionalColumn(ResultSet rs, String column) throws SQLException {
+        var metaData = rs.getMetaData();
+        for (int i = 1; i <= metaData.getColumnCount(); i++) {
+            if (metaData.getColumnLabel(i).equalsIgnoreCase(column)) {
+                return i;
+            }
+        }
+        return 0;
+    }
+}
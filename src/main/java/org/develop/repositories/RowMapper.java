@@ -0,0 +1,24 @@
+package org.develop.repositories;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Interfaz funcional que convierte la fila actual de un ResultSet en un objeto.
+ *
+ * @param <T> El tipo de objeto que se obtiene de cada fila.
+ *
+ * @author Alonso Cruz, Joselyn Obando
+ */
+@FunctionalInterface
+public interface RowMapper<T> {
+
+    /**
+     * Convierte la fila en la que esta posicionado el ResultSet en un objeto.
+     *
+     * @param rs El ResultSet posicionado en la fila a convertir.
+     * @return El objeto obtenido a partir de la fila.
+     * @throws SQLException Si ocurre un error al leer las columnas.
+     */
+    T map(ResultSet rs) throws SQLException;
+}
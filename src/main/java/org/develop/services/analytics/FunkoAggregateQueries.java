@@ -0,0 +1,140 @@
+package org.develop.services.analytics;
+
+import org.develop.model.Funko;
+import org.develop.model.Modelo;
+import org.develop.repositories.FunkoRowMapper;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalDouble;
+
+/**
+ * Consultas de agregacion sobre la tabla FUNKO que resuelve la propia base de datos: solo viaja el resultado (una
+ * fila, un recuento por modelo o las filas que cumplen el filtro) en lugar de la tabla completa.
+ *
+ * Trabajan sobre la conexion que se les pasa y no la cierran.
+ */
+public final class FunkoAggregateQueries {
+
+    private FunkoAggregateQueries() {
+    }
+
+    /**
+     * Obtiene el Funko de mayor precio. Tanto MAX(precio) como la busqueda del primer ID con ese precio se resuelven
+     * con el indice (precio, ID), sin recorrer ni ordenar la tabla.
+     *
+     * @param conn La conexion sobre la que se ejecuta la consulta.
+     * @return El Funko mas caro, o un Optional vacio si la tabla esta vacia.
+     * @throws SQLException Si ocurre un error al ejecutar la consulta.
+     */
+    public static Optional<Funko> findMostExpensive(Connection conn) throws SQLException {
+        try (var stmt = conn.prepareStatement("SELECT * FROM Funko WHERE precio = (SELECT MAX(precio) FROM Funko) ORDER BY ID LIMIT 1");
+             var rs = stmt.executeQuery()) {
+            return rs.next() ? Optional.of(new FunkoRowMapper().map(rs)) : Optional.empty();
+        }
+    }
+
+    /**
+     * Calcula el precio medio con AVG.
+     *
+     * @param conn La conexion sobre la que se ejecuta la consulta.
+     * @return El precio medio, o un OptionalDouble vacio si la tabla esta vacia.
+     * @throws SQLException Si ocurre un error al ejecutar la consulta.
+     */
+    public static OptionalDouble averagePrice(Connection conn) throws SQLException {
+        try (var stmt = conn.prepareStatement("SELECT AVG(precio) FROM Funko");
+             var rs = stmt.executeQuery()) {
+            rs.next();
+            double average = rs.getDouble(1);
+            return rs.wasNull() ? OptionalDouble.empty() : OptionalDouble.of(average);
+        }
+    }
+
+    /**
+     * Cuenta los Funkos de cada modelo con GROUP BY.
+     *
+     * @param conn La conexion sobre la que se ejecuta la consulta.
+     * @return El numero de Funkos de cada modelo que tiene alguno.
+     * @throws SQLException Si ocurre un error al ejecutar la consulta.
+     */
+    public static Map<Modelo, Long> countByModelo(Connection conn) throws SQLException {
+        Map<Modelo, Long> counts = new EnumMap<>(Modelo.class);
+        try (var stmt = conn.prepareStatement("SELECT modelo, COUNT(*) FROM Funko GROUP BY modelo");
+             var rs = stmt.executeQuery()) {
+            while (rs.next()) {
+                counts.put(FunkoRowMapper.toModelo(rs.getString(1)), rs.getLong(2));
+            }
+        }
+        return counts;
+    }
+
+    /**
+     * Agrupa los Funkos por modelo en una sola pasada sobre la tabla.
+     *
+     * @param conn La conexion sobre la que se ejecuta la consulta.
+     * @return Los Funkos de cada modelo, ordenados por ID.
+     * @throws SQLException Si ocurre un error al ejecutar la consulta.
+     */
+    public static Map<Modelo, List<Funko>> groupByModelo(Connection conn) throws SQLException {
+        Map<Modelo, List<Funko>> groups = new EnumMap<>(Modelo.class);
+        try (var stmt = conn.prepareStatement("SELECT * FROM Funko ORDER BY ID");
+             var rs = stmt.executeQuery()) {
+            var mapper = new FunkoRowMapper();
+            while (rs.next()) {
+                Funko fk = mapper.map(rs);
+                groups.computeIfAbsent(fk.getModelo(), modelo -> new ArrayList<>()).add(fk);
+            }
+        }
+        return groups;
+    }
+
+    /**
+     * Obtiene los Funkos lanzados en un ano con un rango de fechas que puede resolverse con el indice de
+     * fecha_lanzamiento.
+     *
+     * @param conn La conexion sobre la que se ejecuta la consulta.
+     * @param year El ano de lanzamiento.
+     * @return Los Funkos lanzados ese ano, ordenados por ID.
+     * @throws SQLException Si ocurre un error al ejecutar la consulta.
+     */
+    public static List<Funko> findReleasedIn(Connection conn, int year) throws SQLException {
+        List<Funko> funks = new ArrayList<>();
+        try (var stmt = conn.prepareStatement(
+                "SELECT * FROM Funko WHERE fecha_lanzamiento >= ? AND fecha_lanzamiento < ? ORDER BY ID")) {
+            stmt.setObject(1, LocalDate.of(year, 1, 1));
+            stmt.setObject(2, LocalDate.of(year + 1, 1, 1));
+            try (var rs = stmt.executeQuery()) {
+                var mapper = new FunkoRowMapper();
+                while (rs.next()) {
+                    funks.add(mapper.map(rs));
+                }
+            }
+        }
+        return funks;
+    }
+
+    /**
+     * Cuenta los Funkos cuyo nombre contiene la cadena indicada con COUNT y LIKE.
+     *
+     * @param conn La conexion sobre la que se ejecuta la consulta.
+     * @param nombre La cadena a buscar en el nombre.
+     * @return El numero de Funkos cuyo nombre la contiene.
+     * @throws SQLException Si ocurre un error al ejecutar la consulta.
+     */
+    public static long countByNombre(Connection conn, String nombre) throws SQLException {
+        String escaped = nombre.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+        try (var stmt = conn.prepareStatement("SELECT COUNT(*) FROM Funko WHERE name LIKE ? ESCAPE '\\'")) {
+            stmt.setString(1, "%" + escaped + "%");
+            try (var rs = stmt.executeQuery()) {
+                rs.next();
+                return rs.getLong(1);
+            }
+        }
+    }
+}
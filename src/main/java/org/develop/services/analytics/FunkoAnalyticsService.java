@@ -0,0 +1,61 @@
+package org.develop.services.analytics;
+
+import org.develop.model.Funko;
+import org.develop.model.Modelo;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalDouble;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Interfaz que define los calculos sobre el catalogo de Funkos: el mas caro, el precio medio, el recuento y la
+ * agrupacion por modelo, los lanzamientos de un ano y el recuento por nombre.
+ */
+public interface FunkoAnalyticsService {
+
+    /**
+     * Obtiene el Funko de mayor precio. Si hay empate se devuelve el de menor ID.
+     *
+     * @return Un CompletableFuture que contendra el Funko mas caro, o un Optional vacio si no hay Funkos.
+     */
+    CompletableFuture<Optional<Funko>> findMostExpensive();
+
+    /**
+     * Calcula el precio medio de los Funkos.
+     *
+     * @return Un CompletableFuture que contendra el precio medio, o un OptionalDouble vacio si no hay Funkos.
+     */
+    CompletableFuture<OptionalDouble> averagePrice();
+
+    /**
+     * Cuenta los Funkos de cada modelo. Los modelos sin Funkos no aparecen en el mapa.
+     *
+     * @return Un CompletableFuture que contendra el numero de Funkos por modelo.
+     */
+    CompletableFuture<Map<Modelo, Long>> countByModelo();
+
+    /**
+     * Agrupa los Funkos por modelo, ordenados por ID dentro de cada grupo.
+     *
+     * @return Un CompletableFuture que contendra los Funkos de cada modelo.
+     */
+    CompletableFuture<Map<Modelo, List<Funko>>> groupByModelo();
+
+    /**
+     * Obtiene los Funkos lanzados en el ano indicado, ordenados por ID.
+     *
+     * @param year El ano de lanzamiento.
+     * @return Un CompletableFuture que contendra los Funkos lanzados ese ano.
+     */
+    CompletableFuture<List<Funko>> findReleasedIn(int year);
+
+    /**
+     * Cuenta los Funkos cuyo nombre contiene la cadena indicada, distinguiendo mayusculas de minusculas.
+     *
+     * @param nombre La cadena a buscar en el nombre.
+     * @return Un CompletableFuture que contendra el numero de Funkos que coinciden.
+     */
+    CompletableFuture<Long> countByNombre(String nombre);
+}
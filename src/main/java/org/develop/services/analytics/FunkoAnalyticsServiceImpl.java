@@ -0,0 +1,112 @@
+package org.develop.services.analytics;
+
+import org.develop.model.Funko;
+import org.develop.model.Modelo;
+import org.develop.services.database.DatabaseManager;
+import org.develop.services.executor.IOExecutors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalDouble;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+
+/**
+ * Implementacion de FunkoAnalyticsService que delega los calculos en la base de datos (MAX mediante el indice de
+ * precio, AVG, GROUP BY y rangos de fechas) con las consultas de {@link FunkoAggregateQueries}, de modo que no hace
+ * falta traer el catalogo completo a memoria.
+ */
+public class FunkoAnalyticsServiceImpl implements FunkoAnalyticsService {
+    private static FunkoAnalyticsServiceImpl instance;
+    private final Logger logger = LoggerFactory.getLogger(FunkoAnalyticsServiceImpl.class);
+    private final DatabaseManager db;
+    private final Executor executor;
+
+    private FunkoAnalyticsServiceImpl(DatabaseManager db, Executor executor) {
+        this.db = db;
+        this.executor = executor;
+    }
+
+    /**
+     * Obtiene una instancia unica de FunkoAnalyticsServiceImpl que ejecuta las consultas en el executor de base de
+     * datos compartido.
+     *
+     * @param db El gestor de la base de datos.
+     * @return Instancia de FunkoAnalyticsServiceImpl.
+     */
+    public synchronized static FunkoAnalyticsServiceImpl getInstance(DatabaseManager db) {
+        return getInstance(db, IOExecutors.database(db));
+    }
+
+    /**
+     * Obtiene una instancia unica de FunkoAnalyticsServiceImpl que ejecuta las consultas en el executor indicado.
+     *
+     * @param db       El gestor de la base de datos.
+     * @param executor El executor en el que se ejecutan las consultas.
+     * @return Instancia de FunkoAnalyticsServiceImpl.
+     */
+    public synchronized static FunkoAnalyticsServiceImpl getInstance(DatabaseManager db, Executor executor) {
+        if (instance == null) {
+            instance = new FunkoAnalyticsServiceImpl(db, executor);
+        }
+        return instance;
+    }
+
+    @Override
+    public CompletableFuture<Optional<Funko>> findMostExpensive() {
+        logger.debug("Obteniendo el Funko mas caro");
+        return query(FunkoAggregateQueries::findMostExpensive);
+    }
+
+    @Override
+    public CompletableFuture<OptionalDouble> averagePrice() {
+        logger.debug("Calculando el precio medio de los Funkos");
+        return query(FunkoAggregateQueries::averagePrice);
+    }
+
+    @Override
+    public CompletableFuture<Map<Modelo, Long>> countByModelo() {
+        logger.debug("Contando los Funkos por modelo");
+        return query(FunkoAggregateQueries::countByModelo);
+    }
+
+    @Override
+    public CompletableFuture<Map<Modelo, List<Funko>>> groupByModelo() {
+        logger.debug("Agrupando los Funkos por modelo");
+        return query(FunkoAggregateQueries::groupByModelo);
+    }
+
+    @Override
+    public CompletableFuture<List<Funko>> findReleasedIn(int year) {
+        logger.debug("Obteniendo los Funkos lanzados en " + year);
+        return query(conn -> FunkoAggregateQueries.findReleasedIn(conn, year));
+    }
+
+    @Override
+    public CompletableFuture<Long> countByNombre(String nombre) {
+        logger.debug("Contando los Funkos con nombre: " + nombre);
+        return query(conn -> FunkoAggregateQueries.countByNombre(conn, nombre));
+    }
+
+    private <T> CompletableFuture<T> query(Query<T> query) {
+        return IOExecutors.supplyAsync(() -> {
+            try (var conn = db.getConnection()) {
+                return query.run(conn);
+            } catch (SQLException e) {
+                logger.error("ERROR: " + e.getMessage(), e);
+                throw new CompletionException(e);
+            }
+        }, executor);
+    }
+
+    @FunctionalInterface
+    private interface Query<T> {
+        T run(Connection conn) throws SQLException;
+    }
+}
@@ -0,0 +1,112 @@
+package org.develop.services.analytics;
+
+import org.develop.model.Funko;
+import org.develop.model.Modelo;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalDouble;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Implementacion de FunkoAnalyticsService sobre una coleccion de Funkos ya cargada en memoria, por ejemplo los leidos
+ * de un fichero antes de guardarlos o los de una base de datos no disponible. Cada calculo recorre la coleccion una
+ * sola vez; en particular la agrupacion por modelo reparte cada Funko en su grupo en lugar de volver a filtrar la
+ * coleccion por cada modelo.
+ *
+ * Los resultados son los mismos que los de FunkoAnalyticsServiceImpl sobre los mismos datos y los CompletableFuture
+ * se devuelven ya completados.
+ */
+public class InMemoryFunkoAnalytics implements FunkoAnalyticsService {
+    private static final Comparator<Funko> BY_ID = Comparator.comparingInt(Funko::getId);
+
+    private final Collection<Funko> funkos;
+
+    /**
+     * Crea los calculos sobre la coleccion indicada. La coleccion no se copia, asi que los cambios posteriores se
+     * reflejan en los calculos siguientes.
+     *
+     * @param funkos Los Funkos sobre los que se calcula.
+     */
+    public InMemoryFunkoAnalytics(Collection<Funko> funkos) {
+        this.funkos = funkos;
+    }
+
+    @Override
+    public CompletableFuture<Optional<Funko>> findMostExpensive() {
+        Funko best = null;
+        for (Funko fk : funkos) {
+            if (best == null || fk.getPrecio() > best.getPrecio()
+                    || (fk.getPrecio() == best.getPrecio() && fk.getId() < best.getId())) {
+                best = fk;
+            }
+        }
+        return CompletableFuture.completedFuture(Optional.ofNullable(best));
+    }
+
+    @Override
+    public CompletableFuture<OptionalDouble> averagePrice() {
+        double sum = 0;
+        for (Funko fk : funkos) {
+            sum += fk.getPrecio();
+        }
+        return CompletableFuture.completedFuture(funkos.isEmpty() ? OptionalDouble.empty() : OptionalDouble.of(sum / funkos.size()));
+    }
+
+    @Override
+    public CompletableFuture<Map<Modelo, Long>> countByModelo() {
+        long[] counts = new long[Modelo.values().length];
+        for (Funko fk : funkos) {
+            counts[fk.getModelo().ordinal()]++;
+        }
+        Map<Modelo, Long> result = new EnumMap<>(Modelo.class);
+        for (Modelo modelo : Modelo.values()) {
+            if (counts[modelo.ordinal()] > 0) {
+                result.put(modelo, counts[modelo.ordinal()]);
+            }
+        }
+        return CompletableFuture.completedFuture(result);
+    }
+
+    @Override
+    public CompletableFuture<Map<Modelo, List<Funko>>> groupByModelo() {
+        Map<Modelo, List<Funko>> groups = new EnumMap<>(Modelo.class);
+        for (Funko fk : funkos) {
+            groups.computeIfAbsent(fk.getModelo(), modelo -> new ArrayList<>()).add(fk);
+        }
+        groups.values().forEach(group -> group.sort(BY_ID));
+        return CompletableFuture.completedFuture(groups);
+    }
+
+    @Override
+    public CompletableFuture<List<Funko>> findReleasedIn(int year) {
+        LocalDate from = LocalDate.of(year, 1, 1);
+        LocalDate to = from.plusYears(1);
+        List<Funko> released = new ArrayList<>();
+        for (Funko fk : funkos) {
+            LocalDate fecha = fk.getFecha_lanzamiento();
+            if (fecha != null && !fecha.isBefore(from) && fecha.isBefore(to)) {
+                released.add(fk);
+            }
+        }
+        released.sort(BY_ID);
+        return CompletableFuture.completedFuture(released);
+    }
+
+    @Override
+    public CompletableFuture<Long> countByNombre(String nombre) {
+        long count = 0;
+        for (Funko fk : funkos) {
+            if (fk.getName() != null && fk.getName().contains(nombre)) {
+                count++;
+            }
+        }
+        return CompletableFuture.completedFuture(count);
+    }
+}
@@ -1,7 +1,9 @@
 package org.develop.services.cache;
 
+import java.util.Collection;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
 
 /**
  * Interfaz que define las operaciones basicas de una cache generica.
@@ -27,6 +29,27 @@ public interface Cache <K,V>{
      * @return Un CompletableFuture que contendra un Optional que puede contener el valor asociado a la clave, si se encuentra en la cache.
      */
     CompletableFuture<Optional<V>> get(K key);
+
+    /**
+     * Recupera de forma sincrona el valor asociado a una clave, sin cambiar de hilo ni crear un CompletableFuture.
+     * Pensado para el camino rapido de los aciertos de cache.
+     *
+     * @param key La clave que se utilizara para buscar el valor en la cache.
+     * @return El valor asociado a la clave, o null si no se encuentra en la cache.
+     */
+    V getIfPresent(K key);
+
+    /**
+     * Recupera el valor asociado a una clave y, si no esta en la cache, lo carga con la funcion indicada y lo almacena
+     * para las siguientes lecturas. Las peticiones concurrentes de una misma clave que no esta en la cache comparten
+     * una unica llamada a la funcion de carga.
+     *
+     * @param key    La clave que se utilizara para buscar el valor en la cache.
+     * @param loader La funcion que carga el valor cuando no esta en la cache.
+     * @return Un CompletableFuture que contendra un Optional con el valor de la cache o el cargado.
+     */
+    CompletableFuture<Optional<V>> get(K key, Function<? super K, CompletableFuture<Optional<V>>> loader);
+
     /**
      * Elimina un valor de la cache asociado a una clave.
      *
@@ -34,6 +57,16 @@ public interface Cache <K,V>{
      * @return Un CompletableFuture<Void> que se completa cuando la operacion de eliminacion ha tenido exito.
      */
     CompletableFuture<Void> remove(K key);
+
+    /**
+     * Elimina de la cache los valores asociados a varias claves con una sola tarea, pensado para invalidar las claves
+     * afectadas por una escritura masiva.
+     *
+     * @param keys Las claves cuyos valores se eliminaran de la cache.
+     * @return Un CompletableFuture<Void> que se completa cuando se han eliminado todos los valores.
+     */
+    CompletableFuture<Void> removeAll(Collection<K> keys);
+
     /**
      * Elimina todos los valores almacenados en la cache, dejandola vacia.
      *
@@ -41,6 +74,14 @@ public interface Cache <K,V>{
      */
     CompletableFuture<Void> clear();
 
+    /**
+     * Obtiene una instantanea de las estadisticas de la cache: aciertos, fallos, tiempo de carga, expulsiones por
+     * tamano y por caducidad, y numero de entradas.
+     *
+     * @return Las estadisticas acumuladas desde que se creo la cache.
+     */
+    CacheStats stats();
+
 
     /**
      * Detiene y cierra la cache, liberando recursos y finalizando cualquier operacion pendiente.
@@ -0,0 +1,107 @@
+package org.develop.services.cache;
+
+import lombok.Builder;
+import lombok.Value;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Properties;
+import java.util.function.LongSupplier;
+
+/**
+ * Configuracion de una cache: capacidad maxima y politicas de caducidad de sus entradas.
+ *
+ * Las caducidades se miden desde que la entrada se guarda o se lee en la cache, no desde las fechas del objeto
+ * almacenado. Una caducidad nula desactiva esa politica.
+ */
+@Value
+@Builder
+public class CacheConfig {
+    private static final int DEFAULT_MAXIMUM_SIZE = 10;
+
+    /**
+     * Numero maximo de entradas de la cache.
+     */
+    int maximumSize;
+
+    /**
+     * Politica con la que se elige la entrada a expulsar cuando la cache esta llena.
+     */
+    @Builder.Default
+    EvictionPolicy evictionPolicy = EvictionPolicy.LRU;
+
+    /**
+     * Tiempo que una entrada puede permanecer en la cache desde que se guardo o se reemplazo por ultima vez.
+     */
+    @Builder.Default
+    Duration expireAfterWrite = Duration.ofMinutes(1);
+
+    /**
+     * Tiempo que una entrada puede permanecer en la cache sin ser leida ni reemplazada.
+     */
+    @Builder.Default
+    Duration expireAfterAccess = null;
+
+    /**
+     * Numero maximo de claves inexistentes que se recuerdan. Con 0 no se recuerdan las cargas sin resultado.
+     */
+    @Builder.Default
+    int negativeMaximumSize = 0;
+
+    /**
+     * Tiempo durante el que se recuerda que una clave no existe.
+     */
+    @Builder.Default
+    Duration negativeExpireAfterWrite = Duration.ofSeconds(10);
+
+    /**
+     * Numero maximo de entradas del segundo nivel fuera del heap, que recibe las entradas expulsadas por tamano. Con
+     * 0 no hay segundo nivel.
+     */
+    @Builder.Default
+    int offHeapMaximumSize = 0;
+
+    /**
+     * Periodo de la tarea que libera las entradas caducadas que nadie ha vuelto a leer.
+     */
+    @Builder.Default
+    Duration cleanupInterval = Duration.ofMinutes(1);
+
+    /**
+     * Fuente de tiempo en nanosegundos, sustituible en las pruebas.
+     */
+    @Builder.Default
+    LongSupplier ticker = System::nanoTime;
+
+    /**
+     * Lee la configuracion de la cache de las claves cache.* del fichero config.properties. Las claves que no
+     * aparecen toman el valor por defecto, y una caducidad de 0 segundos desactiva esa politica.
+     *
+     * @return La configuracion de la cache.
+     */
+    public static CacheConfig fromProperties() {
+        Properties properties = new Properties();
+        try (var in = CacheConfig.class.getClassLoader().getResourceAsStream("config.properties")) {
+            if (in != null) {
+                properties.load(in);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+        return CacheConfig.builder()
+                .maximumSize(Integer.parseInt(properties.getProperty("cache.maximumSize", String.valueOf(DEFAULT_MAXIMUM_SIZE))))
+                .evictionPolicy(EvictionPolicy.valueOf(properties.getProperty("cache.evictionPolicy", "LRU").toUpperCase()))
+                .expireAfterWrite(seconds(properties, "cache.expireAfterWriteSeconds", 60))
+                .expireAfterAccess(seconds(properties, "cache.expireAfterAccessSeconds", 0))
+                .negativeMaximumSize(Integer.parseInt(properties.getProperty("cache.negativeMaximumSize", "0")))
+                .negativeExpireAfterWrite(seconds(properties, "cache.negativeExpireAfterWriteSeconds", 10))
+                .offHeapMaximumSize(Integer.parseInt(properties.getProperty("cache.offHeapMaximumSize", "0")))
+                .cleanupInterval(seconds(properties, "cache.cleanupIntervalSeconds", 60))
+                .build();
+    }
+
+    private static Duration seconds(Properties properties, String key, long defaultSeconds) {
+        long seconds = Long.parseLong(properties.getProperty(key, String.valueOf(defaultSeconds)));
+        return seconds > 0 ? Duration.ofSeconds(seconds) : null;
+    }
+}
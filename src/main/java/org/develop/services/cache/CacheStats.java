@@ -0,0 +1,49 @@
+package org.develop.services.cache;
+
+import lombok.Value;
+
+/**
+ * Instantanea inmutable de las estadisticas de una cache.
+ */
+@Value
+public class CacheStats {
+    long hitCount;
+    long missCount;
+    long negativeHitCount;
+    long loadSuccessCount;
+    long loadFailureCount;
+    long totalLoadTimeNanos;
+    long sizeEvictionCount;
+    long expiryEvictionCount;
+    long size;
+    long negativeSize;
+
+    /**
+     * Obtiene la proporcion de lecturas que se resolvieron con la cache.
+     *
+     * @return La tasa de aciertos entre 0 y 1, o 1 si todavia no hubo lecturas.
+     */
+    public double hitRate() {
+        long requests = hitCount + missCount;
+        return requests == 0 ? 1.0 : (double) hitCount / requests;
+    }
+
+    /**
+     * Obtiene el tiempo medio de las cargas hechas tras un fallo de cache.
+     *
+     * @return El tiempo medio de carga en nanosegundos, o 0 si todavia no hubo cargas.
+     */
+    public double averageLoadPenaltyNanos() {
+        long loads = loadSuccessCount + loadFailureCount;
+        return loads == 0 ? 0.0 : (double) totalLoadTimeNanos / loads;
+    }
+
+    /**
+     * Obtiene el numero total de entradas expulsadas, por tamano o por caducidad.
+     *
+     * @return El numero de expulsiones.
+     */
+    public long evictionCount() {
+        return sizeEvictionCount + expiryEvictionCount;
+    }
+}
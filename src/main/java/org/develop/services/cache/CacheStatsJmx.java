@@ -0,0 +1,97 @@
+package org.develop.services.cache;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+
+/**
+ * Publica por JMX las estadisticas de una cache. Cada lectura de un atributo toma una instantanea nueva de la cache.
+ */
+public class CacheStatsJmx implements CacheStatsMXBean {
+    private static final Logger logger = LoggerFactory.getLogger(CacheStatsJmx.class);
+
+    private final Cache<?, ?> cache;
+
+    private CacheStatsJmx(Cache<?, ?> cache) {
+        this.cache = cache;
+    }
+
+    /**
+     * Registra las estadisticas de una cache en el servidor JMX de la plataforma con el nombre
+     * org.develop:type=Cache,name=&lt;name&gt;. Si ya habia una cache registrada con ese nombre se sustituye.
+     *
+     * @param name  El nombre con el que se publica la cache.
+     * @param cache La cache cuyas estadisticas se publican.
+     */
+    public static void register(String name, Cache<?, ?> cache) {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName objectName = new ObjectName("org.develop:type=Cache,name=" + ObjectName.quote(name));
+            if (server.isRegistered(objectName)) {
+                server.unregisterMBean(objectName);
+            }
+            server.registerMBean(new CacheStatsJmx(cache), objectName);
+        } catch (JMException e) {
+            logger.warn("No se pudieron publicar por JMX las estadisticas de la cache " + name, e);
+        }
+    }
+
+    @Override
+    public long getHitCount() {
+        return cache.stats().getHitCount();
+    }
+
+    @Override
+    public long getMissCount() {
+        return cache.stats().getMissCount();
+    }
+
+    @Override
+    public double getHitRate() {
+        return cache.stats().hitRate();
+    }
+
+    @Override
+    public long getNegativeHitCount() {
+        return cache.stats().getNegativeHitCount();
+    }
+
+    @Override
+    public long getLoadSuccessCount() {
+        return cache.stats().getLoadSuccessCount();
+    }
+
+    @Override
+    public long getLoadFailureCount() {
+        return cache.stats().getLoadFailureCount();
+    }
+
+    @Override
+    public double getAverageLoadPenaltyNanos() {
+        return cache.stats().averageLoadPenaltyNanos();
+    }
+
+    @Override
+    public long getSizeEvictionCount() {
+        return cache.stats().getSizeEvictionCount();
+    }
+
+    @Override
+    public long getExpiryEvictionCount() {
+        return cache.stats().getExpiryEvictionCount();
+    }
+
+    @Override
+    public long getSize() {
+        return cache.stats().getSize();
+    }
+
+    @Override
+    public long getNegativeSize() {
+        return cache.stats().getNegativeSize();
+    }
+}
@@ -0,0 +1,61 @@
+package org.develop.services.cache;
+
+/**
+ * Interfaz JMX con las estadisticas de una cache, visibles desde JConsole o VisualVM.
+ */
+public interface CacheStatsMXBean {
+    /**
+     * Numero de lecturas resueltas con la cache.
+     */
+    long getHitCount();
+
+    /**
+     * Numero de lecturas que no encontraron el valor en la cache.
+     */
+    long getMissCount();
+
+    /**
+     * Proporcion de lecturas resueltas con la cache, entre 0 y 1.
+     */
+    double getHitRate();
+
+    /**
+     * Numero de lecturas de claves inexistentes resueltas con una entrada negativa.
+     */
+    long getNegativeHitCount();
+
+    /**
+     * Numero de cargas terminadas con exito tras un fallo de cache.
+     */
+    long getLoadSuccessCount();
+
+    /**
+     * Numero de cargas terminadas con error tras un fallo de cache.
+     */
+    long getLoadFailureCount();
+
+    /**
+     * Tiempo medio de carga tras un fallo de cache, en nanosegundos.
+     */
+    double getAverageLoadPenaltyNanos();
+
+    /**
+     * Numero de entradas expulsadas por falta de capacidad.
+     */
+    long getSizeEvictionCount();
+
+    /**
+     * Numero de entradas expulsadas por caducidad.
+     */
+    long getExpiryEvictionCount();
+
+    /**
+     * Numero de entradas de la cache.
+     */
+    long getSize();
+
+    /**
+     * Numero de entradas negativas de la cache.
+     */
+    long getNegativeSize();
+}
@@ -0,0 +1,17 @@
+package org.develop.services.cache;
+
+/**
+ * Politica con la que una cache llena decide que entrada expulsar.
+ */
+public enum EvictionPolicy {
+    /**
+     * Expulsa la entrada usada hace mas tiempo.
+     */
+    LRU,
+    /**
+     * W-TinyLFU: las entradas nuevas pasan por una pequena ventana LRU y solo entran en la zona principal si se han
+     * pedido mas veces que la entrada que expulsarian, segun un contador aproximado de frecuencias. Un recorrido
+     * puntual de muchas claves distintas no desplaza asi a las entradas mas consultadas.
+     */
+    TINY_LFU
+}
@@ -0,0 +1,99 @@
+package org.develop.services.cache;
+
+/**
+ * Contador aproximado de frecuencias (count-min sketch) con contadores de 4 bits, usado por la politica W-TinyLFU.
+ *
+ * Cada clave se cuenta en cuatro contadores elegidos con funciones hash distintas y su frecuencia estimada es el
+ * minimo de los cuatro, asi que las colisiones solo pueden sobreestimarla. Los contadores se guardan de dieciseis en
+ * dieciseis dentro de un long. Cuando el numero de incrementos alcanza diez veces la capacidad, todos los contadores
+ * se dividen a la mitad para que las frecuencias antiguas pierdan peso frente a las recientes.
+ *
+ * No es seguro para hilos: quien lo usa debe protegerlo con su propio cerrojo.
+ */
+public class FrequencySketch {
+    private static final long[] SEEDS = {
+            0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L};
+    private static final long RESET_MASK = 0x7777777777777777L;
+    private static final int MIN_LENGTH = 16;
+    private static final int MAX_COUNT = 15;
+
+    private final long[] table;
+    private final int tableMask;
+    private final int sampleSize;
+    private int size;
+
+    /**
+     * Crea un contador dimensionado para el numero de entradas indicado.
+     *
+     * @param maximumSize El numero maximo de entradas de la cache que lo usa.
+     */
+    public FrequencySketch(int maximumSize) {
+        int length = Math.max(MIN_LENGTH, Integer.highestOneBit(Math.max(1, maximumSize - 1)) << 1);
+        this.table = new long[length];
+        this.tableMask = length - 1;
+        this.sampleSize = 10 * Math.max(MIN_LENGTH, maximumSize);
+    }
+
+    /**
+     * Obtiene la frecuencia estimada de una clave, entre 0 y 15.
+     *
+     * @param key La clave a consultar.
+     * @return La frecuencia estimada de la clave.
+     */
+    public int frequency(Object key) {
+        int hash = spread(key.hashCode());
+        int start = (hash & 3) << 2;
+        int frequency = MAX_COUNT;
+        for (int i = 0; i < SEEDS.length; i++) {
+            int count = (int) ((table[indexOf(hash, i)] >>> ((start + i) << 2)) & 0xfL);
+            frequency = Math.min(frequency, count);
+        }
+        return frequency;
+    }
+
+    /**
+     * Anota un acceso a una clave.
+     *
+     * @param key La clave accedida.
+     */
+    public void increment(Object key) {
+        int hash = spread(key.hashCode());
+        int start = (hash & 3) << 2;
+        boolean added = false;
+        for (int i = 0; i < SEEDS.length; i++) {
+            added |= incrementAt(indexOf(hash, i), start + i);
+        }
+        if (added && ++size >= sampleSize) {
+            reset();
+        }
+    }
+
+    private boolean incrementAt(int index, int counter) {
+        int offset = counter << 2;
+        long mask = 0xfL << offset;
+        if ((table[index] & mask) != mask) {
+            table[index] += 1L << offset;
+            return true;
+        }
+        return false;
+    }
+
+    private void reset() {
+        for (int i = 0; i < table.length; i++) {
+            table[i] = (table[i] >>> 1) & RESET_MASK;
+        }
+        size >>>= 1;
+    }
+
+    private int indexOf(int hash, int i) {
+        long h = (hash + SEEDS[i]) * SEEDS[i];
+        h += h >>> 32;
+        return ((int) h) & tableMask;
+    }
+
+    private static int spread(int x) {
+        x = ((x >>> 16) ^ x) * 0x45d9f3b;
+        x = ((x >>> 16) ^ x) * 0x45d9f3b;
+        return (x >>> 16) ^ x;
+    }
+}
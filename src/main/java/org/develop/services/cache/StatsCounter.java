@@ -0,0 +1,87 @@
+package org.develop.services.cache;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Contadores de las estadisticas de una cache. Usan LongAdder, que reparte los incrementos concurrentes entre celdas
+ * distintas, de modo que anotar un acierto no crea objetos ni hace que los hilos compitan por la misma variable.
+ */
+public class StatsCounter {
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder negativeHits = new LongAdder();
+    private final LongAdder loadSuccesses = new LongAdder();
+    private final LongAdder loadFailures = new LongAdder();
+    private final LongAdder totalLoadTime = new LongAdder();
+    private final LongAdder sizeEvictions = new LongAdder();
+    private final LongAdder expiryEvictions = new LongAdder();
+
+    /**
+     * Anota una lectura resuelta con la cache.
+     */
+    public void recordHit() {
+        hits.increment();
+    }
+
+    /**
+     * Anota una lectura resuelta con una entrada negativa, es decir, sabiendo por la cache que el valor no existe.
+     * Tambien cuenta como acierto.
+     */
+    public void recordNegativeHit() {
+        hits.increment();
+        negativeHits.increment();
+    }
+
+    /**
+     * Anota una lectura que no encontro el valor en la cache.
+     */
+    public void recordMiss() {
+        misses.increment();
+    }
+
+    /**
+     * Anota una carga terminada con exito, haya encontrado o no el valor.
+     *
+     * @param loadTimeNanos La duracion de la carga en nanosegundos.
+     */
+    public void recordLoadSuccess(long loadTimeNanos) {
+        loadSuccesses.increment();
+        totalLoadTime.add(loadTimeNanos);
+    }
+
+    /**
+     * Anota una carga terminada con error.
+     *
+     * @param loadTimeNanos La duracion de la carga en nanosegundos.
+     */
+    public void recordLoadFailure(long loadTimeNanos) {
+        loadFailures.increment();
+        totalLoadTime.add(loadTimeNanos);
+    }
+
+    /**
+     * Anota una entrada expulsada para no superar la capacidad de la cache.
+     */
+    public void recordSizeEviction() {
+        sizeEvictions.increment();
+    }
+
+    /**
+     * Anota una entrada expulsada por haber caducado.
+     */
+    public void recordExpiryEviction() {
+        expiryEvictions.increment();
+    }
+
+    /**
+     * Obtiene una instantanea de los contadores.
+     *
+     * @param size         El numero de entradas de la cache en este momento.
+     * @param negativeSize El numero de entradas negativas de la cache en este momento.
+     * @return Las estadisticas de la cache.
+     */
+    public CacheStats snapshot(long size, long negativeSize) {
+        return new CacheStats(hits.sum(), misses.sum(), negativeHits.sum(), loadSuccesses.sum(), loadFailures.sum(),
+                totalLoadTime.sum(), sizeEvictions.sum(), expiryEvictions.sum(), size, negativeSize);
+    }
+}
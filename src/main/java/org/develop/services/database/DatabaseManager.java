@@ -16,18 +16,27 @@ public class DatabaseManager {
     private static DatabaseManager instance;
     private final Logger logger = LoggerFactory.getLogger(DatabaseManager.class);
     private final HikariDataSource dataSource;
+    private final PoolMetrics poolMetrics = new PoolMetrics();
     private String serverUrl;
     private String dataBaseName;
     private boolean chargeInit;
     private String conURL;
     private String initScript;
+    private int maximumPoolSize;
+    private int minimumIdle;
+    private long connectionTimeout;
 
 
     private DatabaseManager(){
             configFromProperties();
             HikariConfig config = new HikariConfig();
             config.setJdbcUrl(conURL);
+            config.setMaximumPoolSize(maximumPoolSize);
+            config.setMinimumIdle(minimumIdle);
+            config.setConnectionTimeout(connectionTimeout);
+            config.setMetricsTrackerFactory((poolName, poolStats) -> poolMetrics);
             dataSource = new HikariDataSource(config);
+            poolMetrics.bind(dataSource.getHikariPoolMXBean());
         try (Connection conn = dataSource.getConnection()){
             if (chargeInit){
                 executeScript(conn,initScript,true);
@@ -53,15 +62,35 @@ public class DatabaseManager {
     }
 
     /**
-     * Obtiene una conexion a la base de datos.
+     * Obtiene una conexion a la base de datos. No se sincroniza sobre el gestor: el pool de HikariCP ya es seguro
+     * entre hilos, asi que cada hilo espera solo por una conexion libre y no por el resto de llamadores.
      *
      * @return Una conexion a la base de datos.
      * @throws SQLException Si se produce un error al establecer la conexion.
      */
-    public synchronized Connection getConnection() throws SQLException {
+    public Connection getConnection() throws SQLException {
         return  dataSource.getConnection();
     }
 
+    /**
+     * Obtiene las metricas del pool de conexiones: conexiones activas, inactivas, hilos en espera e histogramas de
+     * tiempos de adquisicion y uso.
+     *
+     * @return Las metricas del pool.
+     */
+    public PoolMetrics getPoolMetrics() {
+        return poolMetrics;
+    }
+
+
+    /**
+     * Obtiene el numero maximo de conexiones del pool.
+     *
+     * @return El tamano maximo del pool de conexiones.
+     */
+    public int getMaximumPoolSize() {
+        return dataSource.getMaximumPoolSize();
+    }
 
     private synchronized void configFromProperties(){
         try{
@@ -74,6 +103,9 @@ public class DatabaseManager {
         conURL =properties.getProperty("database.connectionUrl", serverUrl + ":"+dataBaseName + ".db");
             System.out.println(conURL);
         initScript=properties.getProperty("database.initScript","init.sql");
+        maximumPoolSize = Integer.parseInt(properties.getProperty("database.maximumPoolSize","10"));
+        minimumIdle = Integer.parseInt(properties.getProperty("database.minimumIdle", String.valueOf(maximumPoolSize)));
+        connectionTimeout = Long.parseLong(properties.getProperty("database.connectionTimeout","30000"));
 
         } catch (IOException e) {
             throw new RuntimeException(e);
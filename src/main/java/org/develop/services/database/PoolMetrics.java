@@ -0,0 +1,110 @@
+package org.develop.services.database;
+
+import com.zaxxer.hikari.HikariPoolMXBean;
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+import org.develop.services.metrics.LatencyHistogram;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Metricas del pool de conexiones de HikariCP. Hikari notifica cada prestamo de conexion a esta clase, que acumula
+ * histogramas del tiempo de adquisicion y de uso; el estado actual del pool (conexiones activas, inactivas e hilos
+ * esperando) se lee del MXBean del pool.
+ *
+ * @author Alonso Cruz, Joselyn Obando
+ */
+public class PoolMetrics implements IMetricsTracker {
+    private final LatencyHistogram acquisitionNanos = new LatencyHistogram();
+    private final LatencyHistogram usageMillis = new LatencyHistogram();
+    private final LongAdder timeouts = new LongAdder();
+    private volatile HikariPoolMXBean pool;
+
+    void bind(HikariPoolMXBean pool) {
+        this.pool = pool;
+    }
+
+    @Override
+    public void recordConnectionAcquiredNanos(long elapsedAcquiredNanos) {
+        acquisitionNanos.record(elapsedAcquiredNanos);
+    }
+
+    @Override
+    public void recordConnectionUsageMillis(long elapsedBorrowedMillis) {
+        usageMillis.record(elapsedBorrowedMillis);
+    }
+
+    @Override
+    public void recordConnectionTimeout() {
+        timeouts.increment();
+    }
+
+    /**
+     * Obtiene el numero de conexiones prestadas en este momento.
+     *
+     * @return El numero de conexiones activas.
+     */
+    public int getActiveConnections() {
+        return pool == null ? 0 : pool.getActiveConnections();
+    }
+
+    /**
+     * Obtiene el numero de conexiones abiertas que no estan prestadas.
+     *
+     * @return El numero de conexiones inactivas.
+     */
+    public int getIdleConnections() {
+        return pool == null ? 0 : pool.getIdleConnections();
+    }
+
+    /**
+     * Obtiene el numero de hilos esperando a que se libere una conexion.
+     *
+     * @return El numero de hilos en espera.
+     */
+    public int getPendingThreads() {
+        return pool == null ? 0 : pool.getThreadsAwaitingConnection();
+    }
+
+    /**
+     * Obtiene el numero total de conexiones abiertas.
+     *
+     * @return El numero total de conexiones.
+     */
+    public int getTotalConnections() {
+        return pool == null ? 0 : pool.getTotalConnections();
+    }
+
+    /**
+     * Obtiene el histograma del tiempo, en nanosegundos, que se tarda en obtener una conexion del pool.
+     *
+     * @return El histograma de tiempos de adquisicion.
+     */
+    public LatencyHistogram getAcquisitionNanos() {
+        return acquisitionNanos;
+    }
+
+    /**
+     * Obtiene el histograma del tiempo, en milisegundos, que se mantiene prestada cada conexion.
+     *
+     * @return El histograma de tiempos de uso.
+     */
+    public LatencyHistogram getUsageMillis() {
+        return usageMillis;
+    }
+
+    /**
+     * Obtiene el numero de veces que no se pudo obtener una conexion antes de agotar el tiempo de espera.
+     *
+     * @return El numero de esperas agotadas.
+     */
+    public long getTimeouts() {
+        return timeouts.sum();
+    }
+
+    @Override
+    public String toString() {
+        return "PoolMetrics{active=" + getActiveConnections() + ", idle=" + getIdleConnections()
+                + ", pending=" + getPendingThreads() + ", total=" + getTotalConnections()
+                + ", timeouts=" + getTimeouts() + ", acquisitionNanos[" + acquisitionNanos + "]}";
+    }
+}
@@ -0,0 +1,178 @@
+package org.develop.services.executor;
+
+import org.develop.services.database.DatabaseManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.Properties;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Fabrica de los executors que usan los componentes de la aplicacion para sus operaciones de E/S bloqueantes.
+ *
+ * Ofrece dos modos, elegidos con la clave executor.mode de config.properties:
+ * <ul>
+ *     <li>bounded: un pool de hilos de plataforma de tamano fijo con una cola acotada. Cuando la cola se llena la
+ *     tarea se rechaza en lugar de ejecutarse en el hilo que la envia, que puede ser el de la cache o el de quien
+ *     espera un CompletableFuture y no debe bloquearse con E/S.</li>
+ *     <li>virtual: un hilo virtual por tarea. Requiere Java 21; en versiones anteriores se usa el modo bounded.</li>
+ * </ul>
+ *
+ * Las tareas se envian con {@link #supplyAsync(Supplier, Executor)} y {@link #runAsync(Runnable, Executor)}, que
+ * convierten el rechazo en un CompletableFuture fallido con RejectedExecutionException en lugar de lanzarlo en el hilo
+ * que llama.
+ *
+ * @author Alonso Cruz, Joselyn Obando
+ */
+public final class IOExecutors {
+    private static final Logger logger = LoggerFactory.getLogger(IOExecutors.class);
+    private static final int DEFAULT_QUEUE_CAPACITY = 1000;
+
+    private static InstrumentedExecutor database;
+    private static InstrumentedExecutor files;
+    private static InstrumentedExecutor cache;
+
+    private IOExecutors() {
+    }
+
+    /**
+     * Obtiene el executor compartido para el acceso a la base de datos. En modo bounded tiene tantos hilos como
+     * conexiones el pool de Hikari, de forma que ninguna tarea se queda bloqueada esperando una conexion.
+     *
+     * @param db El gestor de la base de datos.
+     * @return El executor de base de datos.
+     */
+    public static synchronized InstrumentedExecutor database(DatabaseManager db) {
+        if (database == null) {
+            database = fromConfig("funko-db", db.getMaximumPoolSize());
+        }
+        return database;
+    }
+
+    /**
+     * Obtiene el executor compartido para la lectura y escritura de ficheros.
+     *
+     * @return El executor de ficheros.
+     */
+    public static synchronized InstrumentedExecutor files() {
+        if (files == null) {
+            files = fromConfig("funko-files", 2);
+        }
+        return files;
+    }
+
+    /**
+     * Obtiene el executor compartido para las operaciones asincronas de la cache.
+     *
+     * @return El executor de la cache.
+     */
+    public static synchronized InstrumentedExecutor cache() {
+        if (cache == null) {
+            cache = bounded("funko-cache", Math.max(2, Runtime.getRuntime().availableProcessors() / 2), DEFAULT_QUEUE_CAPACITY);
+        }
+        return cache;
+    }
+
+    /**
+     * Crea un pool de hilos de plataforma de tamano fijo y cola acotada. Si la cola se llena, la tarea se rechaza con
+     * RejectedExecutionException.
+     *
+     * @param name          El nombre del executor y prefijo de sus hilos.
+     * @param threads       El numero de hilos.
+     * @param queueCapacity La capacidad de la cola de tareas pendientes.
+     * @return El executor creado.
+     */
+    public static InstrumentedExecutor bounded(String name, int threads, int queueCapacity) {
+        ExecutorService pool = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), daemonThreads(name), new ThreadPoolExecutor.AbortPolicy());
+        return new InstrumentedExecutor(name, pool);
+    }
+
+    /**
+     * Crea un executor que lanza un hilo virtual por tarea. Si la JVM no soporta hilos virtuales se crea un pool
+     * bounded del tamano indicado.
+     *
+     * @param name            El nombre del executor.
+     * @param fallbackThreads El numero de hilos del pool alternativo.
+     * @return El executor creado.
+     */
+    public static InstrumentedExecutor virtualThreads(String name, int fallbackThreads) {
+        try {
+            var factory = java.util.concurrent.Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return new InstrumentedExecutor(name, (ExecutorService) factory.invoke(null));
+        } catch (ReflectiveOperationException e) {
+            logger.warn("Hilos virtuales no disponibles en Java " + Runtime.version().feature() + ", usando pool bounded para " + name);
+            return bounded(name, fallbackThreads, DEFAULT_QUEUE_CAPACITY);
+        }
+    }
+
+    /**
+     * Ejecuta una tarea en el executor indicado. Si el executor la rechaza, devuelve un CompletableFuture fallido con
+     * la RejectedExecutionException en lugar de lanzarla.
+     *
+     * @param task     La tarea que produce el resultado.
+     * @param executor El executor en el que se ejecuta.
+     * @param <T>      El tipo del resultado.
+     * @return Un CompletableFuture que se completa con el resultado de la tarea.
+     */
+    public static <T> CompletableFuture<T> supplyAsync(Supplier<T> task, Executor executor) {
+        try {
+            return CompletableFuture.supplyAsync(task, executor);
+        } catch (RejectedExecutionException e) {
+            logger.warn("Tarea rechazada por el executor " + executor + ": " + e.getMessage());
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * Ejecuta una tarea en el executor indicado. Si el executor la rechaza, devuelve un CompletableFuture fallido con
+     * la RejectedExecutionException en lugar de lanzarla.
+     *
+     * @param task     La tarea a ejecutar.
+     * @param executor El executor en el que se ejecuta.
+     * @return Un CompletableFuture que se completa cuando termina la tarea.
+     */
+    public static CompletableFuture<Void> runAsync(Runnable task, Executor executor) {
+        try {
+            return CompletableFuture.runAsync(task, executor);
+        } catch (RejectedExecutionException e) {
+            logger.warn("Tarea rechazada por el executor " + executor + ": " + e.getMessage());
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private static InstrumentedExecutor fromConfig(String name, int threads) {
+        Properties properties = new Properties();
+        try (var in = IOExecutors.class.getClassLoader().getResourceAsStream("config.properties")) {
+            if (in != null) {
+                properties.load(in);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+        int queueCapacity = Integer.parseInt(properties.getProperty("executor.queueCapacity", String.valueOf(DEFAULT_QUEUE_CAPACITY)));
+        if ("virtual".equalsIgnoreCase(properties.getProperty("executor.mode", "bounded"))) {
+            return virtualThreads(name, threads);
+        }
+        return bounded(name, threads, queueCapacity);
+    }
+
+    private static ThreadFactory daemonThreads(String name) {
+        AtomicInteger count = new AtomicInteger();
+        return task -> {
+            Thread thread = new Thread(task, name + "-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
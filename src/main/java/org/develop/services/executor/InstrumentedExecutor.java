@@ -0,0 +1,118 @@
+package org.develop.services.executor;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Executor que envuelve a otro ExecutorService y lleva la cuenta de las tareas en cola, en ejecucion y completadas.
+ * Se utiliza para que cada componente (repositorio, cache, copias de seguridad) ejecute sus operaciones bloqueantes
+ * en su propio pool en lugar de en el ForkJoinPool comun.
+ *
+ * @author Alonso Cruz, Joselyn Obando
+ */
+public class InstrumentedExecutor implements Executor {
+    private final Logger logger = LoggerFactory.getLogger(InstrumentedExecutor.class);
+
+    private final String name;
+    private final ExecutorService delegate;
+    private final AtomicInteger queued = new AtomicInteger();
+    private final AtomicInteger active = new AtomicInteger();
+    private final LongAdder completed = new LongAdder();
+
+    /**
+     * Crea un executor instrumentado sobre el ExecutorService indicado.
+     *
+     * @param name     El nombre del executor, usado en los logs.
+     * @param delegate El ExecutorService que ejecuta realmente las tareas.
+     */
+    public InstrumentedExecutor(String name, ExecutorService delegate) {
+        this.name = name;
+        this.delegate = delegate;
+    }
+
+    /**
+     * Envia una tarea al executor. La tarea cuenta como encolada hasta que un hilo empieza a ejecutarla.
+     *
+     * @param task La tarea a ejecutar.
+     */
+    @Override
+    public void execute(Runnable task) {
+        queued.incrementAndGet();
+        try {
+            delegate.execute(() -> {
+                queued.decrementAndGet();
+                active.incrementAndGet();
+                try {
+                    task.run();
+                } finally {
+                    active.decrementAndGet();
+                    completed.increment();
+                }
+            });
+        } catch (RuntimeException e) {
+            queued.decrementAndGet();
+            throw e;
+        }
+    }
+
+    /**
+     * Obtiene el nombre del executor.
+     *
+     * @return El nombre del executor.
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Obtiene el numero de tareas enviadas que todavia no han empezado a ejecutarse.
+     *
+     * @return El numero de tareas en cola.
+     */
+    public int getQueueDepth() {
+        return queued.get();
+    }
+
+    /**
+     * Obtiene el numero de tareas que se estan ejecutando en este momento.
+     *
+     * @return El numero de tareas activas.
+     */
+    public int getActiveTasks() {
+        return active.get();
+    }
+
+    /**
+     * Obtiene el numero total de tareas terminadas, con o sin error.
+     *
+     * @return El numero de tareas completadas.
+     */
+    public long getCompletedTasks() {
+        return completed.sum();
+    }
+
+    /**
+     * Detiene el executor esperando a que terminen las tareas pendientes durante el tiempo indicado.
+     *
+     * @param timeout El tiempo maximo de espera.
+     * @param unit    La unidad del tiempo de espera.
+     * @return true si todas las tareas terminaron a tiempo, false en caso contrario.
+     * @throws InterruptedException Si la espera es interrumpida.
+     */
+    public boolean shutdown(long timeout, TimeUnit unit) throws InterruptedException {
+        logger.debug("Deteniendo executor " + name);
+        delegate.shutdown();
+        return delegate.awaitTermination(timeout, unit);
+    }
+
+    @Override
+    public String toString() {
+        return name + "[queued=" + getQueueDepth() + ", active=" + getActiveTasks() + ", completed=" + getCompletedTasks() + "]";
+    }
+}
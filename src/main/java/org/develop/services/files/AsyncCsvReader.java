@@ -0,0 +1,181 @@
+package org.develop.services.files;
+
+import org.develop.model.Funko;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.AsynchronousFileChannel;
+import java.nio.channels.CompletionHandler;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lee ficheros CSV de Funkos con un AsynchronousFileChannel. Ningun hilo queda esperando al disco: cada bloque se
+ * procesa cuando la lectura termina y entonces se pide el siguiente.
+ *
+ * Si la configuracion limita los bytes por segundo, la siguiente lectura se programa en el executor con el retraso
+ * que indica el {@link RateLimiter}, en lugar de dormir un hilo. La primera linea es la cabecera y se ignora, igual
+ * que las lineas en blanco; las lineas que no se pueden leer se devuelven en el resultado con su numero de linea.
+ *
+ * @author Alonso Cruz, Joselyn Obando
+ */
+public class AsyncCsvReader {
+    private final ImportConfig config;
+    private final Executor executor;
+
+    /**
+     * Crea un lector.
+     *
+     * @param config   La configuracion de la lectura.
+     * @param executor El executor en el que se programan las lecturas retrasadas por el limite de ritmo.
+     */
+    public AsyncCsvReader(ImportConfig config, Executor executor) {
+        this.config = config;
+        this.executor = executor;
+    }
+
+    /**
+     * Empieza a leer un fichero CSV de Funkos y vuelve en el acto.
+     *
+     * @param path     La ruta del fichero.
+     * @param listener El listener que recibe el avance tras cada bloque.
+     * @return Un CompletableFuture que contendra el resultado de la importacion, o que fallara si el fichero no se
+     * puede leer.
+     */
+    public CompletableFuture<ImportResult> read(Path path, ImportProgressListener listener) {
+        AsynchronousFileChannel channel;
+        try {
+            channel = AsynchronousFileChannel.open(path, StandardOpenOption.READ);
+        } catch (IOException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        ReadOperation operation = new ReadOperation(channel, listener);
+        operation.readNext();
+        return operation.result;
+    }
+
+    /**
+     * Estado de la lectura de un fichero. Solo hay una lectura pendiente cada vez, asi que los bloques se procesan de
+     * uno en uno y en orden.
+     */
+    private final class ReadOperation implements CompletionHandler<Integer, Void> {
+        private final CompletableFuture<ImportResult> result = new CompletableFuture<>();
+        private final AsynchronousFileChannel channel;
+        private final ImportProgressListener listener;
+        private final RateLimiter limiter = config.rateLimiter();
+        private final ByteBuffer buffer = ByteBuffer.allocate(config.getBufferSize());
+        private final List<Funko> funkos = new ArrayList<>();
+        private final List<ImportError> errors = new ArrayList<>();
+        private byte[] line = new byte[256];
+        private int lineLength;
+        private long lineNumber;
+        private long position;
+
+        private ReadOperation(AsynchronousFileChannel channel, ImportProgressListener listener) {
+            this.channel = channel;
+            this.listener = listener;
+        }
+
+        private void readNext() {
+            buffer.clear();
+            channel.read(buffer, position, null, this);
+        }
+
+        @Override
+        public void completed(Integer read, Void attachment) {
+            try {
+                if (read < 0) {
+                    if (lineLength > 0) {
+                        endLine();
+                    }
+                    close();
+                    listener.onProgress(funkos.size() + errors.size(), position);
+                    result.complete(new ImportResult(funkos, errors, lineNumber));
+                    return;
+                }
+                position += read;
+                buffer.flip();
+                consume(buffer);
+                listener.onProgress(funkos.size() + errors.size(), position);
+                long wait = limiter == null ? 0 : limiter.reserve(read);
+                if (wait > 0) {
+                    // El envio al executor se hace tras el retraso; si lo rechaza, la lectura falla en lugar de quedarse parada
+                    CompletableFuture.delayedExecutor(wait, TimeUnit.NANOSECONDS).execute(() -> {
+                        try {
+                            executor.execute(this::readNext);
+                        } catch (RejectedExecutionException e) {
+                            failed(e, attachment);
+                        }
+                    });
+                } else {
+                    readNext();
+                }
+            } catch (RuntimeException e) {
+                failed(e, attachment);
+            }
+        }
+
+        @Override
+        public void failed(Throwable exc, Void attachment) {
+            close();
+            result.completeExceptionally(exc);
+        }
+
+        /**
+         * Separa el bloque en lineas. La ultima, si no termina en salto de linea, queda pendiente para el siguiente
+         * bloque.
+         */
+        private void consume(ByteBuffer block) {
+            byte[] bytes = block.array();
+            int start = 0;
+            int limit = block.limit();
+            for (int i = 0; i < limit; i++) {
+                if (bytes[i] == '\n') {
+                    append(bytes, start, i - start);
+                    endLine();
+                    start = i + 1;
+                }
+            }
+            append(bytes, start, limit - start);
+        }
+
+        private void append(byte[] bytes, int from, int length) {
+            if (lineLength + length > line.length) {
+                byte[] grown = new byte[Math.max(lineLength + length, line.length * 2)];
+                System.arraycopy(line, 0, grown, 0, lineLength);
+                line = grown;
+            }
+            System.arraycopy(bytes, from, line, lineLength, length);
+            lineLength += length;
+        }
+
+        private void endLine() {
+            lineNumber++;
+            int length = lineLength > 0 && line[lineLength - 1] == '\r' ? lineLength - 1 : lineLength;
+            lineLength = 0;
+            if (length == 0 || lineNumber == 1) {
+                return;
+            }
+            try {
+                funkos.add(FunkoCsvParser.parse(line, 0, length));
+            } catch (RuntimeException e) {
+                errors.add(new ImportError(lineNumber, new String(line, 0, length, StandardCharsets.UTF_8), e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName()));
+            }
+        }
+
+        private void close() {
+            try {
+                channel.close();
+            } catch (IOException ignored) {
+                // El resultado ya esta decidido; un fallo al cerrar no lo cambia
+            }
+        }
+    }
+}
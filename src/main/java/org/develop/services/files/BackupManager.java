@@ -4,6 +4,7 @@ import org.develop.model.Funko;
 
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
+import java.util.stream.Stream;
 
 /**
  * Interfaz que define las operaciones para realizar copias de seguridad de objetos de tipo T.
@@ -21,6 +22,16 @@ public interface BackupManager <T>{
      */
     CompletableFuture<Boolean> writeFileFunko(String nomFile, List<T> funks);
 
+    /**
+     * Guarda en un archivo de respaldo los objetos de un Stream a medida que se consumen, sin reunirlos antes en una
+     * lista. El Stream se cierra al terminar, haya ido bien o no.
+     *
+     * @param nomFile El nombre del archivo en el que se guardaran los objetos.
+     * @param funks   El Stream de objetos que se va a respaldar.
+     * @return Un CompletableFuture<Boolean> que indica si la operacion de escritura del archivo fue exitosa (true) o no (false).
+     */
+    CompletableFuture<Boolean> writeFileFunko(String nomFile, Stream<T> funks);
+
     /**
      * Lee una lista de objetos desde un archivo de respaldo.
      *
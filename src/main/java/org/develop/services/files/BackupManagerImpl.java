@@ -1,23 +1,31 @@
 package org.develop.services.files;
 
-import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
-import org.develop.adapters.LocalDateAdapter;
-import org.develop.adapters.LocalDateTimeAdapter;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonWriter;
+import org.develop.adapters.FunkoTypeAdapter;
 import org.develop.model.Funko;
+import org.develop.services.executor.IOExecutors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.io.BufferedReader;
-import java.io.File;
-import java.io.FileReader;
-import java.io.FileWriter;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.time.LocalDate;
-import java.time.LocalDateTime;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
 
 /**
  * Implementacion de la interfaz BackupManager para realizar operaciones de respaldo de objetos de tipo Funko.
@@ -27,77 +35,267 @@ public class BackupManagerImpl implements BackupManager<Funko>{
     private static BackupManagerImpl instance;
     private final Logger logger = LoggerFactory.getLogger(BackupManagerImpl.class);
 
-    private BackupManagerImpl() {
+    /**
+     * Tamano del buffer de escritura de las copias de seguridad.
+     */
+    private static final int WRITE_BUFFER_SIZE = 64 * 1024;
+    private static final TypeAdapter<Funko> FUNKO_ADAPTER = new FunkoTypeAdapter();
+
+    private final Executor executor;
+    private final ParallelCsvImporter importer = new ParallelCsvImporter();
+    private final ImportConfig importConfig;
+    private final AsyncCsvReader reader;
+
+    private BackupManagerImpl(Executor executor) {
+        this.executor = executor;
+        this.importConfig = ImportConfig.fromProperties();
+        this.reader = new AsyncCsvReader(importConfig, executor);
     }
 
     /**
-     * Obtiene una instancia unica de BackupManagerImpl.
+     * Obtiene una instancia unica de BackupManagerImpl que trabaja en el executor de ficheros compartido.
      *
      * @return Una instancia de BackupManagerImpl.
      */
     public static BackupManagerImpl getInstance() {
+        return getInstance(IOExecutors.files());
+    }
+
+    /**
+     * Obtiene una instancia unica de BackupManagerImpl. El executor solo se tiene en cuenta la primera vez que se
+     * crea la instancia.
+     *
+     * @param executor El executor en el que se realizan las lecturas y escrituras de ficheros.
+     * @return Una instancia de BackupManagerImpl.
+     */
+    public static BackupManagerImpl getInstance(Executor executor) {
         if (instance == null) {
-            instance= new BackupManagerImpl();
+            instance= new BackupManagerImpl(executor);
         }
         return instance;
     }
 
     /**
-     * Escribe una lista de objetos Funko en un archivo JSON como parte de la operacion de respaldo.
+     * Escribe una lista de objetos Funko en un archivo JSON indentado como parte de la operacion de respaldo.
      *
      * @param nomFile El nombre del archivo en el que se guardaran los objetos.
      * @param funks   La lista de objetos Funko que se va a respaldar.
      * @return Un CompletableFuture<Boolean> que indica si la operacion de escritura del archivo fue exitosa (true) o no (false).
      */
     @Override
-    public CompletableFuture<Boolean> writeFileFunko(String nomFile, List funks) {
-        return CompletableFuture.supplyAsync(()->{
-                    String path = Paths.get("").toAbsolutePath().toString() + File.separator + "data" + File.separator + nomFile;
+    public CompletableFuture<Boolean> writeFileFunko(String nomFile, List<Funko> funks) {
+        return writeFileFunko(nomFile, funks.stream(), true);
+    }
+
+    /**
+     * Escribe en un archivo JSON indentado, con el mismo formato que las copias hechas a partir de una lista, los
+     * Funkos de un Stream a medida que se consumen, de modo que la memoria usada no depende del numero de Funkos. El
+     * Stream se cierra al terminar.
+     *
+     * @param nomFile El nombre del archivo en el que se guardaran los objetos.
+     * @param funks   El Stream de objetos Funko que se va a respaldar.
+     * @return Un CompletableFuture<Boolean> que indica si la operacion de escritura del archivo fue exitosa (true) o no (false).
+     */
+    @Override
+    public CompletableFuture<Boolean> writeFileFunko(String nomFile, Stream<Funko> funks) {
+        return writeFileFunko(nomFile, funks, true);
+    }
+
+    /**
+     * Escribe en un archivo JSON los Funkos de un Stream a medida que se consumen. Cada Funko se serializa
+     * directamente sobre el fichero con {@link FunkoTypeAdapter}, sin construir el arbol JSON completo.
+     *
+     * @param nomFile        El nombre del archivo en el que se guardaran los objetos, dentro de la carpeta data salvo
+     *                       que sea una ruta absoluta.
+     * @param funks          El Stream de objetos Funko que se va a respaldar; se cierra al terminar.
+     * @param prettyPrinting Si el JSON se escribe indentado en lugar de compacto.
+     * @return Un CompletableFuture<Boolean> que indica si la operacion de escritura del archivo fue exitosa (true) o no (false).
+     */
+    public CompletableFuture<Boolean> writeFileFunko(String nomFile, Stream<Funko> funks, boolean prettyPrinting) {
+        return IOExecutors.supplyAsync(()->{
+                    Path path = Paths.get("").toAbsolutePath().resolve("data").resolve(nomFile);
                     logger.debug("Escribiendo JSON de funkos en: " + path);
-                    Gson gson = new GsonBuilder()
-                            .registerTypeAdapter(LocalDate.class, new LocalDateAdapter())
-                            .registerTypeAdapter(LocalDateTime.class, new LocalDateTimeAdapter())
-                            .setPrettyPrinting()
-                            .create();
                     boolean success = false;
-                    try (FileWriter writer = new FileWriter(path)) {
-                        gson.toJson(funks, writer);
+                    try (funks;
+                         FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+                         JsonWriter writer = new JsonWriter(new BufferedWriter(Channels.newWriter(channel, StandardCharsets.UTF_8), WRITE_BUFFER_SIZE))) {
+                        if (prettyPrinting) {
+                            writer.setIndent("  ");
+                        }
+                        writer.beginArray();
+                        Iterator<Funko> it = funks.iterator();
+                        while (it.hasNext()) {
+                            FUNKO_ADAPTER.write(writer, it.next());
+                        }
+                        writer.endArray();
                         success = true;
                     } catch (Exception e) {
                         logger.error("Error: "+e.getMessage(), e);
                 }
                 return success;
-            });
+            }, executor);
     }
 
 
     /**
-     * Lee una lista de objetos Funko desde un archivo JSON como parte de la operacion de restauracion.
+     * Lee una lista de objetos Funko desde un archivo CSV como parte de la operacion de restauracion. Las lineas que
+     * no se pueden leer se registran en el log con su numero de linea y no detienen la lectura.
      *
      * @param nomFile El nombre del archivo desde el cual se leeran los objetos.
      * @return Un CompletableFuture que contendra una lista de objetos de tipo Funko leidos desde el archivo de respaldo.
-     * @throws InterruptedException Si la operacion de lectura es interrumpida.
      */
     @Override
-    public CompletableFuture<List<Funko>> readFileFunko(String nomFile) throws InterruptedException {
-         String path = Paths.get("").toAbsolutePath().toString() + File.separator + "data" + File.separator + nomFile;
-         List<Funko> funkos = new ArrayList<>();
-         Thread.sleep(10000);
-          return CompletableFuture.supplyAsync(()->{
-                        try(BufferedReader reader =new BufferedReader(new FileReader(path))){
-                            logger.debug("Leyendo Funko desde : " + path);
-                        String line;
-                        reader.readLine();
-                        while ((line = reader.readLine()) != null){
-                                Funko fk = new Funko().setFunko(line);
-                                funkos.add(fk);
-                        }
-                }catch (Exception e){
-                        System.out.println(e.getMessage());
-                }
-                        return funkos;
+    public CompletableFuture<List<Funko>> readFileFunko(String nomFile) {
+        return readFileFunko(nomFile, ImportProgressListener.NONE);
+    }
+
+    /**
+     * Lee una lista de objetos Funko desde un archivo CSV con {@link AsyncCsvReader}. Vuelve en el acto: la lectura
+     * se hace con E/S asincrona y, si import.maxBytesPerSecond lo indica, a un ritmo limitado.
+     *
+     * @param nomFile  El nombre del archivo desde el cual se leeran los objetos.
+     * @param listener El listener que recibe las filas leidas y los bytes leidos tras cada bloque.
+     * @return Un CompletableFuture que contendra una lista de objetos de tipo Funko leidos desde el archivo de respaldo.
+     */
+    public CompletableFuture<List<Funko>> readFileFunko(String nomFile, ImportProgressListener listener) {
+        Path path = Paths.get("").toAbsolutePath().resolve("data").resolve(nomFile);
+        logger.debug("Leyendo Funko desde : " + path);
+        return reader.read(path, listener)
+                .thenApply(result -> {
+                    result.getErrors().forEach(error ->
+                            logger.error("Linea " + error.getLine() + " de " + nomFile + " no valida: " + error.getMessage()));
+                    return result.getFunkos();
+                })
+                .exceptionally(e -> {
+                    logger.error("Error leyendo " + nomFile + ": " + e.getMessage(), e);
+                    return new ArrayList<>();
                 });
+    }
 
+    /**
+     * Importa un archivo CSV de Funkos con {@link ParallelCsvImporter}: el archivo se lee por trozos en paralelo y
+     * las lineas que no se pueden leer se devuelven en el resultado con su numero de linea.
+     *
+     * @param nomFile El nombre del archivo desde el cual se leeran los objetos.
+     * @return Un CompletableFuture que contendra el resultado de la importacion, o que fallara si el archivo no se
+     * puede leer.
+     */
+    public CompletableFuture<ImportResult> importFileFunko(String nomFile) {
+        return IOExecutors.supplyAsync(() -> {
+            Path path = Paths.get("").toAbsolutePath().resolve("data").resolve(nomFile);
+            logger.debug("Importando Funkos desde : " + path);
+            try {
+                return importer.importFile(path);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }, executor);
     }
-}
 
+    /**
+     * Lee un archivo CSV de Funkos en el hilo que llama y entrega sus lineas, sin la cabecera, en lotes de
+     * linesPerBatch lineas. La lectura respeta import.maxBytesPerSecond y se frena cuando el sink bloquea, de modo que
+     * solo hay en memoria los lotes que el consumidor todavia no ha procesado.
+     *
+     * @param path          La ruta del archivo.
+     * @param linesPerBatch El numero de lineas de cada lote; el ultimo puede tener menos.
+     * @param sink          El destino de los lotes.
+     * @return El numero de lineas del archivo, incluida la cabecera.
+     * @throws IOException          Si el archivo no existe o no se puede leer.
+     * @throws InterruptedException Si el hilo se interrumpe mientras espera al limite de ritmo o al sink.
+     */
+    public long readLineBatches(Path path, int linesPerBatch, CsvLineBatch.Sink sink) throws IOException, InterruptedException {
+        if (linesPerBatch <= 0) {
+            throw new IllegalArgumentException("El numero de lineas por lote debe ser positivo: " + linesPerBatch);
+        }
+        logger.debug("Leyendo lotes de " + linesPerBatch + " lineas desde : " + path);
+        RateLimiter limiter = importConfig.rateLimiter();
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocate(importConfig.getBufferSize());
+            byte[] bytes = buffer.array();
+            LineBatcher batcher = new LineBatcher(linesPerBatch, importConfig.getBufferSize(), sink);
+            int read;
+            while ((read = channel.read(buffer.clear())) >= 0) {
+                int from = 0;
+                for (int i = 0; i < read; i++) {
+                    if (bytes[i] == '\n') {
+                        batcher.append(bytes, from, i - from);
+                        batcher.endLine();
+                        from = i + 1;
+                    }
+                }
+                batcher.append(bytes, from, read - from);
+                if (limiter != null) {
+                    TimeUnit.NANOSECONDS.sleep(limiter.reserve(read));
+                }
+            }
+            return batcher.finish();
+        }
+    }
+
+    /**
+     * Agrupa en lotes las lineas que se van leyendo. Una linea puede llegar en varios trozos si cruza el limite entre
+     * dos lecturas.
+     */
+    private static final class LineBatcher {
+        private final int linesPerBatch;
+        private final CsvLineBatch.Sink sink;
+        private byte[] data;
+        private int[] ends;
+        private int count;
+        private int length;
+        private long lines;
+        private long firstLine = 2;
+
+        private LineBatcher(int linesPerBatch, int initialCapacity, CsvLineBatch.Sink sink) {
+            this.linesPerBatch = linesPerBatch;
+            this.sink = sink;
+            this.data = new byte[initialCapacity];
+            this.ends = new int[linesPerBatch];
+        }
+
+        private void append(byte[] bytes, int from, int size) {
+            if (length + size > data.length) {
+                data = Arrays.copyOf(data, Math.max(length + size, data.length * 2));
+            }
+            System.arraycopy(bytes, from, data, length, size);
+            length += size;
+        }
+
+        private void endLine() throws InterruptedException {
+            int lineStart = count == 0 ? 0 : ends[count - 1];
+            if (length > lineStart && data[length - 1] == '\r') {
+                length--;
+            }
+            if (++lines == 1) {
+                // La cabecera no se entrega
+                length = 0;
+                return;
+            }
+            ends[count++] = length;
+            if (count == linesPerBatch) {
+                sink.accept(new CsvLineBatch(data, ends, count, firstLine));
+                firstLine += count;
+                data = new byte[data.length];
+                ends = new int[linesPerBatch];
+                count = 0;
+                length = 0;
+            }
+        }
+
+        /**
+         * Cierra la ultima linea si no terminaba en salto de linea y entrega el ultimo lote.
+         *
+         * @return El numero de lineas leidas, incluida la cabecera.
+         */
+        private long finish() throws InterruptedException {
+            if (length > (count == 0 ? 0 : ends[count - 1])) {
+                endLine();
+            }
+            if (count > 0) {
+                sink.accept(new CsvLineBatch(data, ends, count, firstLine));
+            }
+            return lines;
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package org.develop.services.files;
+
+/**
+ * Lote de lineas consecutivas de un fichero CSV, guardadas una detras de otra en un unico array de bytes y sin el
+ * salto de linea. Las lineas en blanco se conservan vacias para que el numero de cada linea se pueda calcular a
+ * partir de la primera.
+ *
+ * @param data      Los bytes de las lineas.
+ * @param ends      La posicion en data siguiente al ultimo byte de cada linea.
+ * @param size      El numero de lineas del lote.
+ * @param firstLine El numero de linea en el fichero de la primera linea del lote, empezando en 1 por la cabecera.
+ *
+ * @author Alonso Cruz, Joselyn Obando
+ */
+public record CsvLineBatch(byte[] data, int[] ends, int size, long firstLine) {
+
+    /**
+     * Obtiene la posicion del primer byte de una linea.
+     *
+     * @param i El indice de la linea dentro del lote.
+     * @return La posicion en data del primer byte de la linea.
+     */
+    public int start(int i) {
+        return i == 0 ? 0 : ends[i - 1];
+    }
+
+    /**
+     * Obtiene la posicion siguiente al ultimo byte de una linea.
+     *
+     * @param i El indice de la linea dentro del lote.
+     * @return La posicion en data siguiente al ultimo byte de la linea.
+     */
+    public int end(int i) {
+        return ends[i];
+    }
+
+    /**
+     * Obtiene el numero de una linea dentro del fichero.
+     *
+     * @param i El indice de la linea dentro del lote.
+     * @return El numero de la linea en el fichero.
+     */
+    public long lineNumber(int i) {
+        return firstLine + i;
+    }
+
+    /**
+     * Recibe los lotes de lineas a medida que se leen del fichero.
+     */
+    @FunctionalInterface
+    public interface Sink {
+        /**
+         * Recibe un lote. Puede bloquear el hilo lector hasta que haya sitio para el lote, lo que frena la lectura.
+         *
+         * @param batch El lote de lineas.
+         * @throws InterruptedException Si el hilo se interrumpe mientras espera.
+         */
+        void accept(CsvLineBatch batch) throws InterruptedException;
+    }
+}
@@ -0,0 +1,276 @@
+package org.develop.services.files;
+
+import org.develop.model.Funko;
+import org.develop.model.Modelo;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.Month;
+import java.time.Year;
+import java.time.format.DateTimeFormatter;
+import java.util.UUID;
+
+/**
+ * Convierte lineas CSV de Funkos (COD,NOMBRE,MODELO,PRECIO,FECHA_LANZAMIENTO) en objetos Funko recorriendo los bytes
+ * de la linea por posicion, sin partirla en un String[] ni crear subcadenas. Fuera del propio Funko solo se reservan
+ * el UUID, el nombre y la fecha.
+ *
+ * El resultado es el mismo que el de {@link Funko#setFunko(String)}: un COD de mas de 36 caracteres se recorta a 35,
+ * los campos de sobra se ignoran, las fechas con un dia mayor que el ultimo del mes se ajustan a ese ultimo dia y los
+ * precios que no son un decimal simple se leen con Double.parseDouble.
+ *
+ * @author Alonso Cruz, Joselyn Obando
+ */
+public final class FunkoCsvParser {
+    private static final int FIELDS = 5;
+    private static final int MAX_FAST_DIGITS = 15;
+    private static final double[] POWERS_OF_TEN = {1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11, 1e12, 1e13, 1e14, 1e15};
+    private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+    private static final byte[] MARVEL = ascii("MARVEL");
+    private static final byte[] DISNEY = ascii("DISNEY");
+    private static final byte[] ANIME = ascii("ANIME");
+    private static final byte[] OTROS = ascii("OTROS");
+
+    private FunkoCsvParser() {
+    }
+
+    /**
+     * Convierte una linea en un Funko nuevo.
+     *
+     * @param line La linea, sin el salto de linea final.
+     * @return El Funko leido.
+     * @throws IllegalArgumentException Si falta algun campo o alguno no tiene un valor valido.
+     * @throws java.time.DateTimeException Si la fecha de lanzamiento no es valida.
+     */
+    public static Funko parse(String line) {
+        byte[] bytes = line.getBytes(StandardCharsets.UTF_8);
+        return parse(bytes, 0, bytes.length);
+    }
+
+    /**
+     * Convierte en un Funko nuevo la linea que ocupa las posiciones [from, to) del array.
+     *
+     * @param line El array con la linea en UTF-8.
+     * @param from La posicion del primer byte de la linea.
+     * @param to   La posicion siguiente al ultimo byte de la linea, sin el salto de linea.
+     * @return El Funko leido.
+     * @throws IllegalArgumentException Si falta algun campo o alguno no tiene un valor valido.
+     * @throws java.time.DateTimeException Si la fecha de lanzamiento no es valida.
+     */
+    public static Funko parse(byte[] line, int from, int to) {
+        Funko fk = new Funko();
+        parseInto(line, from, to, fk);
+        return fk;
+    }
+
+    /**
+     * Lee la linea que ocupa las posiciones [from, to) del array y escribe sus campos en un Funko existente. Si la
+     * linea no es valida el Funko no se modifica.
+     *
+     * @param line   El array con la linea en UTF-8.
+     * @param from   La posicion del primer byte de la linea.
+     * @param to     La posicion siguiente al ultimo byte de la linea, sin el salto de linea.
+     * @param target El Funko en el que se escriben el COD, el nombre, el modelo, el precio y la fecha de lanzamiento.
+     * @throws IllegalArgumentException Si falta algun campo o alguno no tiene un valor valido.
+     * @throws java.time.DateTimeException Si la fecha de lanzamiento no es valida.
+     */
+    public static void parseInto(byte[] line, int from, int to, Funko target) {
+        int uuidEnd = nextComma(line, from, to, 1);
+        int nameEnd = nextComma(line, uuidEnd + 1, to, 2);
+        int modeloEnd = nextComma(line, nameEnd + 1, to, 3);
+        int precioEnd = nextComma(line, modeloEnd + 1, to, 4);
+        int fechaEnd = indexOfComma(line, precioEnd + 1, to);
+
+        UUID uuid = parseUuid(line, from, uuidEnd);
+        String name = new String(line, uuidEnd + 1, nameEnd - uuidEnd - 1, StandardCharsets.UTF_8);
+        Modelo modelo = parseModelo(line, nameEnd + 1, modeloEnd);
+        double precio = parsePrecio(line, modeloEnd + 1, precioEnd);
+        LocalDate fecha = parseFecha(line, precioEnd + 1, fechaEnd);
+
+        target.setUuid(uuid);
+        target.setName(name);
+        target.setModelo(modelo);
+        target.setPrecio(precio);
+        target.setFecha_lanzamiento(fecha);
+    }
+
+    /**
+     * Busca la coma que cierra un campo que no es el ultimo.
+     */
+    private static int nextComma(byte[] line, int from, int to, int fieldsRead) {
+        int comma = indexOfComma(line, from, to);
+        return comma < to ? comma : fieldMissing(fieldsRead);
+    }
+
+    private static int indexOfComma(byte[] line, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (line[i] == ',') {
+                return i;
+            }
+        }
+        return to;
+    }
+
+    private static int fieldMissing(int fieldsRead) {
+        throw new IllegalArgumentException("La linea tiene " + fieldsRead + " campos y se esperaban " + FIELDS);
+    }
+
+    /**
+     * Lee un UUID con las mismas reglas que UUID.fromString: cinco grupos hexadecimales separados por guiones.
+     */
+    static UUID parseUuid(byte[] line, int from, int to) {
+        if (to - from > 36) {
+            to = from + 35;
+        }
+        int dash1 = indexOf(line, '-', from, to);
+        int dash2 = indexOf(line, '-', dash1 + 1, to);
+        int dash3 = indexOf(line, '-', dash2 + 1, to);
+        int dash4 = indexOf(line, '-', dash3 + 1, to);
+        if (dash4 >= to || indexOf(line, '-', dash4 + 1, to) < to) {
+            throw invalid("UUID", line, from, to);
+        }
+        long mostSigBits = (hex(line, from, dash1) & 0xffffffffL) << 32
+                | (hex(line, dash1 + 1, dash2) & 0xffffL) << 16
+                | hex(line, dash2 + 1, dash3) & 0xffffL;
+        long leastSigBits = (hex(line, dash3 + 1, dash4) & 0xffffL) << 48
+                | hex(line, dash4 + 1, to) & 0xffffffffffffL;
+        return new UUID(mostSigBits, leastSigBits);
+    }
+
+    private static int indexOf(byte[] line, char c, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (line[i] == c) {
+                return i;
+            }
+        }
+        return to;
+    }
+
+    private static long hex(byte[] line, int from, int to) {
+        if (from >= to || to - from > 16) {
+            throw invalid("UUID", line, from, to);
+        }
+        long value = 0;
+        for (int i = from; i < to; i++) {
+            int c = line[i];
+            int digit;
+            if (c >= '0' && c <= '9') {
+                digit = c - '0';
+            } else if (c >= 'a' && c <= 'f') {
+                digit = c - 'a' + 10;
+            } else if (c >= 'A' && c <= 'F') {
+                digit = c - 'A' + 10;
+            } else {
+                throw invalid("UUID", line, from, to);
+            }
+            value = value << 4 | digit;
+        }
+        return value;
+    }
+
+    /**
+     * Obtiene el modelo comparando los bytes con el nombre de cada constante, elegida por la longitud y la inicial.
+     */
+    static Modelo parseModelo(byte[] line, int from, int to) {
+        int length = to - from;
+        Modelo modelo = null;
+        if (length > 0) {
+            switch (line[from]) {
+                case 'M' -> modelo = matches(line, from, length, MARVEL) ? Modelo.MARVEL : null;
+                case 'D' -> modelo = matches(line, from, length, DISNEY) ? Modelo.DISNEY : null;
+                case 'A' -> modelo = matches(line, from, length, ANIME) ? Modelo.ANIME : null;
+                case 'O' -> modelo = matches(line, from, length, OTROS) ? Modelo.OTROS : null;
+                default -> { }
+            }
+        }
+        if (modelo == null) {
+            throw invalid("modelo", line, from, to);
+        }
+        return modelo;
+    }
+
+    private static boolean matches(byte[] line, int from, int length, byte[] name) {
+        if (length != name.length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (line[from + i] != name[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Lee un precio. Los decimales simples de hasta 15 cifras se calculan como entero / 10^decimales, que con esos
+     * limites da el mismo double que Double.parseDouble; el resto de formatos se leen con Double.parseDouble.
+     */
+    static double parsePrecio(byte[] line, int from, int to) {
+        int i = from;
+        boolean negative = i < to && line[i] == '-';
+        if (negative) {
+            i++;
+        }
+        long mantissa = 0;
+        int digits = 0;
+        int decimals = -1;
+        for (; i < to; i++) {
+            int c = line[i];
+            if (c >= '0' && c <= '9') {
+                mantissa = mantissa * 10 + (c - '0');
+                digits++;
+                if (decimals >= 0) {
+                    decimals++;
+                }
+            } else if (c == '.' && decimals < 0) {
+                decimals = 0;
+            } else {
+                break;
+            }
+        }
+        if (i < to || digits == 0 || digits > MAX_FAST_DIGITS) {
+            return Double.parseDouble(new String(line, from, to - from, StandardCharsets.UTF_8));
+        }
+        double value = decimals > 0 ? mantissa / POWERS_OF_TEN[decimals] : mantissa;
+        return negative ? -value : value;
+    }
+
+    /**
+     * Lee una fecha yyyy-MM-dd. Las fechas de diez caracteres se leen por posicion; el resto, o las que tienen un mes
+     * o un dia fuera de rango, se leen con el DateTimeFormatter para obtener la misma excepcion que setFunko.
+     */
+    static LocalDate parseFecha(byte[] line, int from, int to) {
+        if (to - from == 10 && line[from + 4] == '-' && line[from + 7] == '-') {
+            int year = digits(line, from, from + 4);
+            int month = digits(line, from + 5, from + 7);
+            int day = digits(line, from + 8, from + 10);
+            if (year > 0 && month >= 1 && month <= 12 && day >= 1 && day <= 31) {
+                return LocalDate.of(year, month, Math.min(day, Month.of(month).length(Year.isLeap(year))));
+            }
+        }
+        return LocalDate.parse(new String(line, from, to - from, StandardCharsets.UTF_8), FORMATTER);
+    }
+
+    /**
+     * Lee un numero decimal sin signo, o devuelve -1 si algun caracter no es una cifra.
+     */
+    private static int digits(byte[] line, int from, int to) {
+        int value = 0;
+        for (int i = from; i < to; i++) {
+            int c = line[i] - '0';
+            if (c < 0 || c > 9) {
+                return -1;
+            }
+            value = value * 10 + c;
+        }
+        return value;
+    }
+
+    private static IllegalArgumentException invalid(String field, byte[] line, int from, int to) {
+        return new IllegalArgumentException("Valor de " + field + " no valido: " + new String(line, from, Math.max(0, to - from), StandardCharsets.UTF_8));
+    }
+
+    private static byte[] ascii(String value) {
+        return value.getBytes(StandardCharsets.US_ASCII);
+    }
+}
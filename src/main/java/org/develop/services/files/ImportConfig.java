@@ -0,0 +1,99 @@
+package org.develop.services.files;
+
+import lombok.Builder;
+import lombok.Value;
+
+import java.io.IOException;
+import java.util.Properties;
+import java.util.function.LongSupplier;
+
+/**
+ * Configuracion de la importacion de ficheros CSV: tamano de cada lectura, limite opcional de bytes por segundo y, para
+ * la importacion por etapas, el tamano de los lotes, los hilos de cada etapa y la capacidad de las colas entre ellas.
+ */
+@Value
+@Builder
+public class ImportConfig {
+    private static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+    private static final int DEFAULT_BATCH_SIZE = 500;
+    private static final int DEFAULT_WRITER_THREADS = 2;
+    private static final int DEFAULT_QUEUE_CAPACITY = 8;
+
+    /**
+     * Numero de bytes que se piden en cada lectura del fichero.
+     */
+    @Builder.Default
+    int bufferSize = DEFAULT_BUFFER_SIZE;
+
+    /**
+     * Numero maximo de bytes leidos por segundo. Con 0 la lectura no se limita.
+     */
+    @Builder.Default
+    long maxBytesPerSecond = 0;
+
+    /**
+     * Numero de lineas de cada lote de la importacion por etapas; cada lote se inserta con una sola sentencia por
+     * lotes y un commit.
+     */
+    @Builder.Default
+    int batchSize = DEFAULT_BATCH_SIZE;
+
+    /**
+     * Numero de hilos que convierten las lineas en Funkos.
+     */
+    @Builder.Default
+    int parserThreads = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * Numero de hilos que insertan los lotes en la base de datos.
+     */
+    @Builder.Default
+    int writerThreads = DEFAULT_WRITER_THREADS;
+
+    /**
+     * Numero maximo de lotes que esperan en cada cola entre etapas. Cuando una cola esta llena la etapa anterior se
+     * detiene hasta que haya sitio.
+     */
+    @Builder.Default
+    int queueCapacity = DEFAULT_QUEUE_CAPACITY;
+
+    /**
+     * Fuente de tiempo en nanosegundos, sustituible en las pruebas.
+     */
+    @Builder.Default
+    LongSupplier ticker = System::nanoTime;
+
+    /**
+     * Lee la configuracion de la importacion de las claves import.* del fichero config.properties. Las claves que no
+     * aparecen toman el valor por defecto.
+     *
+     * @return La configuracion de la importacion.
+     */
+    public static ImportConfig fromProperties() {
+        Properties properties = new Properties();
+        try (var in = ImportConfig.class.getClassLoader().getResourceAsStream("config.properties")) {
+            if (in != null) {
+                properties.load(in);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+        return ImportConfig.builder()
+                .bufferSize(Integer.parseInt(properties.getProperty("import.bufferSize", String.valueOf(DEFAULT_BUFFER_SIZE))))
+                .maxBytesPerSecond(Long.parseLong(properties.getProperty("import.maxBytesPerSecond", "0")))
+                .batchSize(Integer.parseInt(properties.getProperty("import.batchSize", String.valueOf(DEFAULT_BATCH_SIZE))))
+                .parserThreads(Integer.parseInt(properties.getProperty("import.parserThreads", String.valueOf(Runtime.getRuntime().availableProcessors()))))
+                .writerThreads(Integer.parseInt(properties.getProperty("import.writerThreads", String.valueOf(DEFAULT_WRITER_THREADS))))
+                .queueCapacity(Integer.parseInt(properties.getProperty("import.queueCapacity", String.valueOf(DEFAULT_QUEUE_CAPACITY))))
+                .build();
+    }
+
+    /**
+     * Crea el limitador de ritmo que corresponde a esta configuracion.
+     *
+     * @return El limitador de bytes por segundo, o null si la lectura no se limita.
+     */
+    public RateLimiter rateLimiter() {
+        return maxBytesPerSecond > 0 ? new RateLimiter(maxBytesPerSecond, ticker) : null;
+    }
+}
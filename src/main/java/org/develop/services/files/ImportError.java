@@ -0,0 +1,18 @@
+package org.develop.services.files;
+
+import lombok.Data;
+
+/**
+ * Clase que representa una linea de un fichero CSV que no se ha podido convertir en un Funko.
+ *
+ * @author Alonso Cruz, Joselyn Obando
+ */
+@Data
+public class ImportError {
+    /**
+     * Numero de la linea dentro del fichero, empezando en 1 por la cabecera.
+     */
+    private final long line;
+    private final String content;
+    private final String message;
+}
@@ -0,0 +1,22 @@
+package org.develop.services.files;
+
+/**
+ * Recibe el avance de una importacion de Funkos desde un fichero.
+ *
+ * @author Alonso Cruz, Joselyn Obando
+ */
+@FunctionalInterface
+public interface ImportProgressListener {
+    /**
+     * Listener que ignora el avance.
+     */
+    ImportProgressListener NONE = (rowsParsed, bytesRead) -> { };
+
+    /**
+     * Se llama cada vez que se procesa un bloque del fichero, desde el hilo que lo procesa.
+     *
+     * @param rowsParsed El numero de filas de datos leidas hasta ahora, incluidas las erroneas.
+     * @param bytesRead  El numero de bytes del fichero leidos hasta ahora.
+     */
+    void onProgress(long rowsParsed, long bytesRead);
+}
@@ -0,0 +1,40 @@
+package org.develop.services.files;
+
+import lombok.Data;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Clase que representa el informe final de una importacion por etapas: filas leidas, filas guardadas, fallos y
+ * tiempo empleado.
+ *
+ * @author Alonso Cruz, Joselyn Obando
+ */
+@Data
+public class ImportReport {
+    /**
+     * Numero de filas de datos leidas, sin la cabecera ni las lineas en blanco.
+     */
+    private final long rows;
+    private final long imported;
+    /**
+     * Numero de filas que no se han guardado, por no poder leerse o porque fallo la insercion de su lote.
+     */
+    private final long failures;
+    /**
+     * Las primeras lineas que no se han podido leer; el total de fallos esta en failures.
+     */
+    private final List<ImportError> errors;
+    private final Duration elapsed;
+
+    /**
+     * Calcula el ritmo medio de la importacion.
+     *
+     * @return Las filas leidas por segundo.
+     */
+    public double getRowsPerSecond() {
+        long nanos = elapsed.toNanos();
+        return nanos > 0 ? rows * 1_000_000_000d / nanos : 0;
+    }
+}
@@ -0,0 +1,31 @@
+package org.develop.services.files;
+
+import lombok.Data;
+import org.develop.model.Funko;
+
+import java.util.List;
+
+/**
+ * Clase que representa el resultado de importar un fichero CSV de Funkos: los Funkos leidos, en el mismo orden que
+ * en el fichero, y las lineas que no se han podido leer.
+ *
+ * @author Alonso Cruz, Joselyn Obando
+ */
+@Data
+public class ImportResult {
+    private final List<Funko> funkos;
+    private final List<ImportError> errors;
+    /**
+     * Numero total de lineas del fichero, incluida la cabecera.
+     */
+    private final long lines;
+
+    /**
+     * Indica si alguna linea del fichero no se ha podido leer.
+     *
+     * @return true si hay lineas con errores, false en caso contrario.
+     */
+    public boolean hasErrors() {
+        return !errors.isEmpty();
+    }
+}
@@ -0,0 +1,206 @@
+package org.develop.services.files;
+
+import org.develop.model.Funko;
+
+import java.io.IOException;
+import java.io.Serial;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Importa ficheros CSV de Funkos en paralelo. El fichero se divide en trozos de aproximadamente el mismo tamano que
+ * terminan siempre en un salto de linea; cada trozo se proyecta en memoria y se lee en una tarea del ForkJoinPool, y
+ * al final los resultados se unen en el orden del fichero.
+ *
+ * La primera linea del fichero es la cabecera y se ignora, igual que las lineas en blanco. Las lineas que no se
+ * pueden leer no detienen la importacion: se devuelven en el resultado con su numero de linea. Cada linea se convierte
+ * con {@link FunkoCsvParser} directamente desde los bytes del fichero.
+ *
+ * @author Alonso Cruz, Joselyn Obando
+ */
+public class ParallelCsvImporter {
+    /**
+     * Tamano por defecto de cada trozo del fichero.
+     */
+    public static final int DEFAULT_CHUNK_SIZE = 4 * 1024 * 1024;
+    private static final int PROBE_SIZE = 256;
+
+    private final ForkJoinPool pool;
+    private final int chunkSize;
+
+    /**
+     * Crea un importador que trabaja en el ForkJoinPool comun con el tamano de trozo por defecto.
+     */
+    public ParallelCsvImporter() {
+        this(ForkJoinPool.commonPool(), DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * Crea un importador.
+     *
+     * @param pool      El ForkJoinPool en el que se leen los trozos del fichero.
+     * @param chunkSize El tamano aproximado en bytes de cada trozo.
+     */
+    public ParallelCsvImporter(ForkJoinPool pool, int chunkSize) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("El tamano de trozo debe ser positivo: " + chunkSize);
+        }
+        this.pool = pool;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Importa un fichero CSV de Funkos.
+     *
+     * @param path La ruta del fichero.
+     * @return El resultado de la importacion con los Funkos leidos y las lineas erroneas.
+     * @throws IOException Si el fichero no existe o no se puede leer.
+     */
+    public ImportResult importFile(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            List<ChunkTask> chunks = split(channel);
+            return pool.invoke(new ImportTask(chunks));
+        }
+    }
+
+    /**
+     * Divide el fichero en trozos que empiezan justo despues de un salto de linea.
+     */
+    private List<ChunkTask> split(FileChannel channel) throws IOException {
+        long size = channel.size();
+        List<ChunkTask> chunks = new ArrayList<>();
+        long start = 0;
+        while (start < size) {
+            long end = start + chunkSize >= size ? size : nextLineStart(channel, start + chunkSize, size);
+            chunks.add(new ChunkTask(channel, start, end, chunks.isEmpty()));
+            start = end;
+        }
+        return chunks;
+    }
+
+    /**
+     * Busca la posicion siguiente al primer salto de linea desde pos, o el final del fichero si no hay ninguno.
+     */
+    private static long nextLineStart(FileChannel channel, long pos, long size) throws IOException {
+        ByteBuffer probe = ByteBuffer.allocate(PROBE_SIZE);
+        while (pos < size) {
+            probe.clear();
+            int read = channel.read(probe, pos);
+            for (int i = 0; i < read; i++) {
+                if (probe.get(i) == '\n') {
+                    return pos + i + 1;
+                }
+            }
+            pos += read;
+        }
+        return size;
+    }
+
+    /**
+     * Lanza la lectura de todos los trozos y une sus resultados, pasando los numeros de linea de cada trozo a
+     * numeros de linea del fichero.
+     */
+    private static final class ImportTask extends RecursiveTask<ImportResult> {
+        @Serial
+        private static final long serialVersionUID = 1L;
+
+        private final List<ChunkTask> chunks;
+
+        private ImportTask(List<ChunkTask> chunks) {
+            this.chunks = chunks;
+        }
+
+        @Override
+        protected ImportResult compute() {
+            invokeAll(chunks);
+            int total = 0;
+            for (ChunkTask chunk : chunks) {
+                total += chunk.join().funkos.size();
+            }
+            List<Funko> funkos = new ArrayList<>(total);
+            List<ImportError> errors = new ArrayList<>();
+            long lines = 0;
+            for (ChunkTask chunk : chunks) {
+                ChunkResult result = chunk.join();
+                funkos.addAll(result.funkos);
+                for (ImportError error : result.errors) {
+                    errors.add(new ImportError(lines + error.getLine(), error.getContent(), error.getMessage()));
+                }
+                lines += result.lines;
+            }
+            return new ImportResult(funkos, errors, lines);
+        }
+    }
+
+    private record ChunkResult(List<Funko> funkos, List<ImportError> errors, long lines) {
+    }
+
+    /**
+     * Lee un trozo del fichero. Los numeros de linea de sus errores son relativos al inicio del trozo.
+     */
+    private static final class ChunkTask extends RecursiveTask<ChunkResult> {
+        @Serial
+        private static final long serialVersionUID = 1L;
+
+        private final FileChannel channel;
+        private final long start;
+        private final long end;
+        private final boolean first;
+
+        private ChunkTask(FileChannel channel, long start, long end, boolean first) {
+            this.channel = channel;
+            this.start = start;
+            this.end = end;
+            this.first = first;
+        }
+
+        @Override
+        protected ChunkResult compute() {
+            MappedByteBuffer buffer;
+            try {
+                buffer = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+            } catch (IOException e) {
+                throw new IllegalStateException("No se puede leer el fichero entre " + start + " y " + end, e);
+            }
+            List<Funko> funkos = new ArrayList<>();
+            List<ImportError> errors = new ArrayList<>();
+            byte[] bytes = new byte[PROBE_SIZE];
+            int limit = buffer.limit();
+            long line = 0;
+            int lineStart = 0;
+            while (lineStart < limit) {
+                int lineEnd = lineStart;
+                while (lineEnd < limit && buffer.get(lineEnd) != '\n') {
+                    lineEnd++;
+                }
+                int next = lineEnd + 1;
+                if (lineEnd > lineStart && buffer.get(lineEnd - 1) == '\r') {
+                    lineEnd--;
+                }
+                line++;
+                int length = lineEnd - lineStart;
+                if (length > 0 && !(first && line == 1)) {
+                    if (length > bytes.length) {
+                        bytes = new byte[Math.max(length, bytes.length * 2)];
+                    }
+                    buffer.get(lineStart, bytes, 0, length);
+                    try {
+                        funkos.add(FunkoCsvParser.parse(bytes, 0, length));
+                    } catch (RuntimeException e) {
+                        errors.add(new ImportError(line, new String(bytes, 0, length, StandardCharsets.UTF_8), e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName()));
+                    }
+                }
+                lineStart = next;
+            }
+            return new ChunkResult(funkos, errors, line);
+        }
+    }
+}
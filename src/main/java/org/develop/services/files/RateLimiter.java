@@ -0,0 +1,56 @@
+package org.develop.services.files;
+
+import java.util.function.LongSupplier;
+
+/**
+ * Limitador de ritmo que reparte permisos a un ritmo fijo por segundo. No bloquea: {@link #reserve(long)} reserva los
+ * permisos y devuelve cuanto hay que esperar antes de usar los siguientes, para que el llamador programe la siguiente
+ * operacion en lugar de dormir un hilo.
+ *
+ * Los permisos se cobran despues de usarlos: la primera reserva no espera y cada una retrasa a la siguiente el tiempo
+ * que corresponde a los permisos que ha consumido.
+ *
+ * @author Alonso Cruz, Joselyn Obando
+ */
+public class RateLimiter {
+    private final double nanosPerPermit;
+    private final LongSupplier ticker;
+    private long nextFree;
+
+    /**
+     * Crea un limitador que mide el tiempo con System.nanoTime.
+     *
+     * @param permitsPerSecond El numero de permisos por segundo.
+     */
+    public RateLimiter(double permitsPerSecond) {
+        this(permitsPerSecond, System::nanoTime);
+    }
+
+    /**
+     * Crea un limitador.
+     *
+     * @param permitsPerSecond El numero de permisos por segundo.
+     * @param ticker           Fuente de tiempo en nanosegundos, sustituible en las pruebas.
+     */
+    public RateLimiter(double permitsPerSecond, LongSupplier ticker) {
+        if (!(permitsPerSecond > 0)) {
+            throw new IllegalArgumentException("El ritmo debe ser positivo: " + permitsPerSecond);
+        }
+        this.nanosPerPermit = 1_000_000_000d / permitsPerSecond;
+        this.ticker = ticker;
+        this.nextFree = ticker.getAsLong();
+    }
+
+    /**
+     * Reserva permisos.
+     *
+     * @param permits El numero de permisos consumidos.
+     * @return Los nanosegundos que hay que esperar antes de usar estos permisos; 0 si se pueden usar ya.
+     */
+    public synchronized long reserve(long permits) {
+        long now = ticker.getAsLong();
+        long wait = Math.max(0, nextFree - now);
+        nextFree = (wait > 0 ? nextFree : now) + (long) (permits * nanosPerPermit);
+        return wait;
+    }
+}
@@ -2,50 +2,135 @@ package org.develop.services.funkos;
 
 import lombok.Getter;
 import org.develop.model.Funko;
+import org.develop.services.cache.CacheConfig;
+import org.develop.services.cache.CacheStats;
+import org.develop.services.cache.EvictionPolicy;
+import org.develop.services.cache.FrequencySketch;
+import org.develop.services.cache.StatsCounter;
+import org.develop.services.executor.IOExecutors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.time.LocalDateTime;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Queue;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
 
 /**
  * Implementacion de una cache para objetos Funko con capacidad limitada y limpieza automatica de elementos antiguos.
- * Utiliza un mapa interno para almacenar los objetos Funko.
+ *
+ * Los objetos se reparten por clave entre varios segmentos, cada uno con su propio mapa y su propio cerrojo, de
+ * forma que hilos que trabajan con claves de segmentos distintos no se bloquean entre si. La capacidad total se
+ * reparte entre los segmentos, asi que el tamano de la cache nunca supera el maximo. Cada segmento guarda al menos 64
+ * entradas, por lo que las caches pequenas tienen uno solo. La politica de expulsion (LRU o W-TinyLFU, segun la
+ * configuracion) se aplica dentro del segmento donde se inserta.
+ *
+ * Las entradas caducan a un tiempo fijo desde que se guardan (expire-after-write) y/o desde su ultima lectura
+ * (expire-after-access). Como el plazo es el mismo para todas, cada segmento mantiene sus entradas en dos listas
+ * enlazadas ordenadas por instante de escritura y de acceso, independientes de las colas de la politica de expulsion:
+ * las primeras de cada lista son siempre las siguientes en caducar, asi que liberar las caducadas cuesta O(1) por
+ * entrada sin recorrer la cache. Ademas la caducidad se
+ * comprueba en cada lectura, por lo que nunca se devuelve una entrada caducada entre dos pasadas de limpieza.
+ *
+ * Las cargas que no encuentran el Funko se recuerdan como entradas negativas, con su propia capacidad y caducidad
+ * (normalmente mucho mas corta), para que pedir una y otra vez un ID inexistente no llegue cada vez a la base de datos.
+ *
+ * Opcionalmente puede tener un segundo nivel fuera del heap ({@link OffHeapFunkoCache}) para catalogos grandes. Los
+ * niveles son exclusivos: las entradas expulsadas por tamano pasan al segundo nivel conservando su instante de
+ * escritura, y un fallo en este nivel que encuentra el Funko en el segundo lo devuelve a este. El segundo nivel solo
+ * aplica la caducidad desde la escritura.
  */
 public class FunkoCacheImpl implements FunkoCache{
+    private static final int MAX_SEGMENTS = 16;
+    private static final int MIN_SEGMENT_CAPACITY = 64;
+
     private final Logger logger = LoggerFactory.getLogger(FunkoCacheImpl.class);
     @Getter
     private final int maxSize;
-    @Getter
-    private final Map<Integer,Funko> cache;
+    private final Segment[] segments;
     @Getter
     private final ScheduledExecutorService cleaner;
+    private final Executor executor;
+    private final LongSupplier ticker;
+    private final long expireAfterWriteNanos;
+    private final long expireAfterAccessNanos;
+    private final Map<Integer, CompletableFuture<Optional<Funko>>> loading = new ConcurrentHashMap<>();
+    private final StatsCounter statsCounter = new StatsCounter();
+    private final NegativeCache negatives;
+    @Getter
+    private final OffHeapFunkoCache secondLevel;
 
     /**
-     * Crea una nueva instancia de FunkoCacheImpl con un tamano maximo especificado.
+     * Crea una nueva instancia de FunkoCacheImpl con un tamano maximo especificado y la caducidad por defecto, que
+     * trabaja en el executor de cache compartido.
      *
      * @param maxSize El tamano maximo de la cache.
      */
     public FunkoCacheImpl(int maxSize){
+        this(maxSize, IOExecutors.cache());
+    }
+
+    /**
+     * Crea una nueva instancia de FunkoCacheImpl con un tamano maximo especificado y la caducidad por defecto.
+     *
+     * @param maxSize  El tamano maximo de la cache.
+     * @param executor El executor en el que se completan las operaciones asincronas de la cache.
+     */
+    public FunkoCacheImpl(int maxSize, Executor executor){
+        this(CacheConfig.builder().maximumSize(maxSize).build(), executor);
+    }
+
+    /**
+     * Crea una nueva instancia de FunkoCacheImpl con la configuracion indicada.
+     *
+     * @param config   La capacidad y las politicas de caducidad de la cache.
+     * @param executor El executor en el que se completan las operaciones asincronas de la cache.
+     */
+    public FunkoCacheImpl(CacheConfig config, Executor executor){
+        int maxSize = config.getMaximumSize();
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("El tamano de la cache debe ser mayor que 0");
+        }
         this.maxSize = maxSize;
-        this.cache = new LinkedHashMap<>(maxSize,0.75f,true){
-            @Override
-            protected boolean removeEldestEntry(Map.Entry<Integer, Funko> eldest) {
-                return size() > maxSize;
-            }
-        };
+        this.executor = executor;
+        this.ticker = config.getTicker();
+        this.expireAfterWriteNanos = toNanos(config.getExpireAfterWrite());
+        this.expireAfterAccessNanos = toNanos(config.getExpireAfterAccess());
+        // Numero de segmentos potencia de dos con al menos MIN_SEGMENT_CAPACITY entradas cada uno: en segmentos mas
+        // pequenos la ventana y la zona protegida de W-TinyLFU se quedan en una o ninguna entrada y la politica
+        // degenera en un LRU por segmento. Las caches pequenas usan un unico segmento.
+        int count = Math.min(MAX_SEGMENTS, Integer.highestOneBit(Math.max(1, maxSize / MIN_SEGMENT_CAPACITY)));
+        this.segments = new Segment[count];
+        for (int i = 0; i < count; i++) {
+            segments[i] = new Segment(maxSize / count + (i < maxSize % count ? 1 : 0), config.getEvictionPolicy());
+        }
+        this.secondLevel = config.getOffHeapMaximumSize() > 0
+                ? new OffHeapFunkoCache(config.getOffHeapMaximumSize(), config.getExpireAfterWrite(), ticker, executor)
+                : null;
+        this.negatives = new NegativeCache(config.getNegativeMaximumSize(), toNanos(config.getNegativeExpireAfterWrite()));
+        long interval = config.getCleanupInterval().toMillis();
         this.cleaner = Executors.newSingleThreadScheduledExecutor();
-        this.cleaner.scheduleAtFixedRate(this::clear,2,2, TimeUnit.MINUTES);
+        this.cleaner.scheduleAtFixedRate(this::cleanUp, interval, interval, TimeUnit.MILLISECONDS);
     }
 
     /**
-     * Anade un objeto Funko a la cache.
+     * Anade un objeto Funko a la cache. Si la clave estaba registrada como inexistente, deja de estarlo en el acto,
+     * antes incluso de que se complete la operacion, y una carga de la misma clave que este en curso ya no guardara
+     * su resultado, que podria ser anterior a este valor.
      *
      * @param key   La clave asociada al objeto Funko.
      * @param value El objeto Funko a ser almacenado en la cache.
@@ -53,10 +138,11 @@ public class FunkoCacheImpl implements FunkoCache{
      */
     @Override
     public CompletableFuture<Void> put(Integer key, Funko value) {
-       return CompletableFuture.runAsync(()->{
+       segmentFor(key).invalidateLoad(key);
+       return IOExecutors.runAsync(()->{
            logger.debug("Añadiendo Funko al Cache");
-           cache.put(key,value);
-       });
+           segmentFor(key).put(key, value, ticker.getAsLong());
+       }, executor);
     }
 
 
@@ -68,46 +154,184 @@ public class FunkoCacheImpl implements FunkoCache{
      */
     @Override
     public CompletableFuture<Optional<Funko>> get(Integer key) {
-        return CompletableFuture.supplyAsync(()->{
+        return IOExecutors.supplyAsync(()->{
            logger.debug("Obteniendo Funko de la Cache");
-           if (cache.get(key) != null){
-            return Optional.of(cache.get(key));
-           }
-           return Optional.empty();
-       });
+           return Optional.ofNullable(getIfPresent(key));
+       }, executor);
     }
 
     /**
-     * Borra un objeto Funko de la cache utilizando su clave.
+     * Obtiene un objeto Funko de la cache en el hilo que llama, sin pasar por el executor.
+     *
+     * @param key La clave del objeto Funko a obtener.
+     * @return El objeto Funko si se encuentra en la cache, o null si no se encuentra.
+     */
+    @Override
+    public Funko getIfPresent(Integer key) {
+        long now = ticker.getAsLong();
+        Funko value = segmentFor(key).get(key, now);
+        if (value == null) {
+            value = promote(key, now);
+        }
+        if (value != null) {
+            statsCounter.recordHit();
+        } else {
+            statsCounter.recordMiss();
+        }
+        return value;
+    }
+
+    /**
+     * Obtiene un objeto Funko de la cache o, si no esta, lo carga con la funcion indicada y lo almacena en la cache.
+     * Mientras una carga esta en curso, el resto de peticiones de la misma clave esperan a esa misma carga en lugar
+     * de lanzar la suya, de modo que una rafaga de fallos sobre un mismo Funko produce una unica consulta. Si la
+     * carga no encuentra el Funko, la clave se registra como inexistente y las peticiones siguientes se responden
+     * sin cargar hasta que esa entrada negativa caduque o se guarde un Funko con esa clave. Si se guarda o se borra
+     * la clave mientras la carga esta en curso, su resultado se entrega a quienes lo esperan pero no se guarda.
+     *
+     * @param key    La clave del objeto Funko a obtener.
+     * @param loader La funcion que carga el objeto Funko cuando no esta en la cache.
+     * @return Un CompletableFuture que contendra un Optional con el objeto Funko, o un Optional vacio si no existe.
+     */
+    @Override
+    public CompletableFuture<Optional<Funko>> get(Integer key, Function<? super Integer, CompletableFuture<Optional<Funko>>> loader) {
+        long now = ticker.getAsLong();
+        Funko cached = segmentFor(key).get(key, now);
+        if (cached == null) {
+            cached = promote(key, now);
+        }
+        if (cached != null) {
+            statsCounter.recordHit();
+            return CompletableFuture.completedFuture(Optional.of(cached));
+        }
+        if (negatives.contains(key, now)) {
+            statsCounter.recordNegativeHit();
+            return CompletableFuture.completedFuture(Optional.empty());
+        }
+        statsCounter.recordMiss();
+        CompletableFuture<Optional<Funko>> promise = new CompletableFuture<>();
+        CompletableFuture<Optional<Funko>> inFlight = loading.putIfAbsent(key, promise);
+        if (inFlight != null) {
+            return inFlight.copy();
+        }
+        // Otra carga pudo terminar entre la primera comprobacion y el registro de esta
+        cached = segmentFor(key).get(key, ticker.getAsLong());
+        if (cached != null) {
+            loading.remove(key, promise);
+            promise.complete(Optional.of(cached));
+            return promise.copy();
+        }
+        logger.debug("Cargando Funko en la Cache");
+        long start = System.nanoTime();
+        CompletableFuture<Optional<Funko>> load;
+        try {
+            load = loader.apply(key);
+        } catch (RuntimeException e) {
+            load = CompletableFuture.failedFuture(e);
+        }
+        load.whenComplete((value, error) -> {
+            if (error == null) {
+                statsCounter.recordLoadSuccess(System.nanoTime() - start);
+            } else {
+                statsCounter.recordLoadFailure(System.nanoTime() - start);
+            }
+            segmentFor(key).publish(key, error == null ? value : null, promise, ticker.getAsLong());
+            if (error != null) {
+                promise.completeExceptionally(error);
+            } else {
+                promise.complete(value);
+            }
+        });
+        return promise.copy();
+    }
+
+    /**
+     * Borra un objeto Funko de la cache utilizando su clave. Una carga de la misma clave que este en curso ya no
+     * guardara su resultado.
      *
      * @param key La clave del objeto Funko a borrar.
      * @return Un CompletableFuture que se completa cuando la operacion de borrado ha terminado.
      */
     @Override
     public CompletableFuture<Void> remove(Integer key) {
-        return CompletableFuture.runAsync(()->{
+        segmentFor(key).invalidateLoad(key);
+        return IOExecutors.runAsync(()->{
            logger.debug("Borrando Funko de la Cache");
-           cache.remove(key);
-       });
+           segmentFor(key).remove(key);
+           negatives.remove(key);
+       }, executor);
     }
 
     /**
-     * Limpia la cache de objetos Funko eliminando los elementos caducados automaticamente.
+     * Borra varios objetos Funko de la cache con una sola tarea. Las cargas de esas claves que esten en curso ya no
+     * guardaran su resultado.
+     *
+     * @param keys Las claves de los objetos Funko a borrar.
+     * @return Un CompletableFuture que se completa cuando la operacion de borrado ha terminado.
+     */
+    @Override
+    public CompletableFuture<Void> removeAll(Collection<Integer> keys) {
+        keys.forEach(key -> segmentFor(key).invalidateLoad(key));
+        return IOExecutors.runAsync(()->{
+           logger.debug("Borrando " + keys.size() + " Funkos de la Cache");
+           for (Integer key : keys) {
+               segmentFor(key).remove(key);
+               negatives.remove(key);
+           }
+       }, executor);
+    }
+
+    /**
+     * Elimina todos los objetos Funko de la cache.
      *
      * @return Un CompletableFuture que se completa cuando la operacion de limpieza ha terminado.
      */
     @Override
     public CompletableFuture<Void> clear() {
-        return CompletableFuture.runAsync(()->{
+        loading.clear();
+        return IOExecutors.runAsync(()->{
            logger.debug("Limpiando la cache");
-           cache.entrySet().removeIf(entry -> {
-            boolean shouldRemove = entry.getValue().getUpdated_at().plusMinutes(1).isBefore(LocalDateTime.now());
-            if (shouldRemove) {
-                logger.debug("Autoeliminando por caducidad Funko de cache con id: " + entry.getKey());
-            }
-            return shouldRemove;
-        });
-       });
+           // Con todos los segmentos bloqueados ninguno puede expulsar al segundo nivel ni subir de el un Funko
+           // mientras se vacian ambos niveles
+           for (Segment segment : segments) {
+               segment.lock.lock();
+           }
+           try {
+               for (Segment segment : segments) {
+                   segment.clear();
+               }
+               if (secondLevel != null) {
+                   secondLevel.clearNow();
+               }
+           } finally {
+               for (Segment segment : segments) {
+                   segment.lock.unlock();
+               }
+           }
+           negatives.clear();
+       }, executor);
+    }
+
+    /**
+     * Libera los objetos Funko caducados. Solo recorre las entradas que han caducado, por lo que su coste no depende
+     * del tamano de la cache. La tarea de limpieza lo ejecuta periodicamente.
+     */
+    public void cleanUp() {
+        long now = ticker.getAsLong();
+        for (Segment segment : segments) {
+            segment.expire(now);
+        }
+        negatives.expire(now);
+    }
+
+    /**
+     * Obtiene una instantanea de las estadisticas de la cache.
+     *
+     * @return Las estadisticas acumuladas desde que se creo la cache.
+     */
+    @Override
+    public CacheStats stats() {
+        return statsCounter.snapshot(size(), negatives.size());
     }
 
     /**
@@ -117,7 +341,476 @@ public class FunkoCacheImpl implements FunkoCache{
      */
     @Override
     public CompletableFuture<Void> shutdown() {
-        return CompletableFuture.runAsync(cleaner::shutdown);
+        return IOExecutors.runAsync(cleaner::shutdown, executor);
+    }
+
+    /**
+     * Obtiene una copia de los objetos Funko vigentes almacenados en la cache en este momento.
+     *
+     * @return Un mapa inmutable con el contenido actual de la cache.
+     */
+    public Map<Integer,Funko> getCache() {
+        Map<Integer,Funko> snapshot = new LinkedHashMap<>();
+        long now = ticker.getAsLong();
+        for (Segment segment : segments) {
+            segment.copyTo(snapshot, now);
+        }
+        return Collections.unmodifiableMap(snapshot);
+    }
+
+    /**
+     * Obtiene el numero de objetos Funko almacenados en la cache, incluidos los caducados que aun no se han liberado.
+     *
+     * @return El numero de elementos de la cache.
+     */
+    public int size() {
+        int size = 0;
+        for (Segment segment : segments) {
+            size += segment.size();
+        }
+        return size;
+    }
+
+    /**
+     * Sube a este nivel el Funko guardado en el segundo nivel, si lo hay. Si mientras tanto se ha guardado otro valor
+     * con la misma clave, prevalece ese.
+     */
+    private Funko promote(Integer key, long now) {
+        return secondLevel == null ? null : segmentFor(key).promote(key, now);
+    }
+
+    private Segment segmentFor(Integer key) {
+        int h = key.hashCode();
+        return segments[(h ^ (h >>> 16)) & (segments.length - 1)];
     }
 
+    private static long toNanos(Duration duration) {
+        return duration == null ? Long.MAX_VALUE : duration.toNanos();
+    }
+
+    /**
+     * Claves que se sabe que no existen. Todas caducan al mismo tiempo desde que se anaden, asi que la cola en orden
+     * de insercion es tambien la cola por caducidad y sirve a la vez para expulsar las caducadas y, si se supera la
+     * capacidad, las mas antiguas. Las entradas de la cola cuya clave se elimino o se volvio a anadir se descartan al
+     * llegar a la cabeza.
+     */
+    private final class NegativeCache {
+        private final int maxSize;
+        private final long ttlNanos;
+        private final Map<Integer, Long> deadlines = new ConcurrentHashMap<>();
+        private final Queue<NegativeEntry> order = new ConcurrentLinkedQueue<>();
+
+        NegativeCache(int maxSize, long ttlNanos) {
+            this.maxSize = maxSize;
+            this.ttlNanos = ttlNanos;
+        }
+
+        boolean contains(Integer key, long now) {
+            Long deadline = deadlines.get(key);
+            if (deadline == null) {
+                return false;
+            }
+            if (now - deadline < 0) {
+                return true;
+            }
+            deadlines.remove(key, deadline);
+            return false;
+        }
+
+        void add(Integer key, long now) {
+            if (maxSize <= 0) {
+                return;
+            }
+            long deadline = now + ttlNanos;
+            deadlines.put(key, deadline);
+            order.add(new NegativeEntry(key, deadline));
+            NegativeEntry head;
+            while ((head = order.peek()) != null && (now - head.deadline() >= 0 || deadlines.size() > maxSize)) {
+                if (order.remove(head)) {
+                    deadlines.remove(head.key(), head.deadline());
+                }
+            }
+        }
+
+        void expire(long now) {
+            NegativeEntry head;
+            while ((head = order.peek()) != null && now - head.deadline() >= 0) {
+                if (order.remove(head)) {
+                    deadlines.remove(head.key(), head.deadline());
+                }
+            }
+        }
+
+        void remove(Integer key) {
+            deadlines.remove(key);
+        }
+
+        void clear() {
+            deadlines.clear();
+            order.clear();
+        }
+
+        int size() {
+            return deadlines.size();
+        }
+    }
+
+    private record NegativeEntry(Integer key, long deadline) {
+    }
+
+    /**
+     * Entrada de la cache, enlazada a la vez en una de las colas de la politica de expulsion y en las listas por orden
+     * de escritura y de acceso de su segmento.
+     */
+    private static final class Node {
+        final Integer key;
+        Funko value;
+        long writeTime;
+        long accessTime;
+        byte queue;
+        Node prevAccess, nextAccess;
+        Node prevWrite, nextWrite;
+        Node prevAccessOrder, nextAccessOrder;
+
+        Node(Integer key) {
+            this.key = key;
+            this.prevAccess = this.nextAccess = this;
+            this.prevWrite = this.nextWrite = this;
+            this.prevAccessOrder = this.nextAccessOrder = this;
+        }
+    }
+
+    /**
+     * Porcion de la cache protegida por su propio cerrojo. Las colas de la politica y las listas de escritura y de
+     * acceso son circulares con un nodo centinela: el siguiente al centinela es la entrada mas antigua y el anterior la
+     * mas reciente. Como incluso las lecturas reordenan las colas y la lista de acceso, todas las operaciones se hacen
+     * con el cerrojo tomado.
+     *
+     * Las colas de la politica no sirven para la caducidad por acceso: W-TinyLFU pasa entradas de la ventana y de la
+     * zona protegida al final de la cola a prueba con su instante de acceso original, que puede ser anterior al de
+     * entradas que ya estaban en ella. Por eso la caducidad usa su propia lista, ordenada siempre por ultimo acceso.
+     *
+     * Con LRU todas las entradas viven en la cola de ventana. Con W-TinyLFU la ventana ocupa el 1% de la capacidad y
+     * el resto es un LRU segmentado: las entradas que salen de la ventana entran a prueba y, si se vuelven a pedir,
+     * pasan a la zona protegida (80% de la zona principal). Cuando el segmento se llena, la entrada que sale de la
+     * ventana solo se queda si el contador de frecuencias la estima mas pedida que la primera entrada a prueba.
+     */
+    private final class Segment {
+        private static final byte WINDOW = 0;
+        private static final byte PROBATION = 1;
+        private static final byte PROTECTED = 2;
+
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Map<Integer,Node> map = new HashMap<>();
+        private final Node[] queues = {new Node(null), new Node(null), new Node(null)};
+        private final int[] queueSizes = new int[3];
+        private final Node writeHead = new Node(null);
+        private final Node accessOrderHead = new Node(null);
+        private final int capacity;
+        private final int windowMax;
+        private final int protectedMax;
+        private final FrequencySketch sketch;
+
+        Segment(int capacity, EvictionPolicy policy) {
+            this.capacity = capacity;
+            if (policy == EvictionPolicy.TINY_LFU) {
+                this.windowMax = Math.max(1, capacity / 100);
+                this.protectedMax = (capacity - windowMax) * 80 / 100;
+                this.sketch = new FrequencySketch(capacity);
+            } else {
+                this.windowMax = capacity;
+                this.protectedMax = 0;
+                this.sketch = null;
+            }
+        }
+
+        void put(Integer key, Funko value, long now) {
+            lock.lock();
+            try {
+                expire(now);
+                if (sketch != null) {
+                    sketch.increment(key);
+                }
+                // Una copia anterior en el segundo nivel quedaria obsoleta
+                if (secondLevel != null) {
+                    secondLevel.discard(key);
+                }
+                Node node = map.get(key);
+                if (node == null) {
+                    node = new Node(key);
+                    map.put(key, node);
+                    link(node, WINDOW);
+                } else {
+                    unlinkWrite(node);
+                    unlinkAccessOrder(node);
+                    onAccess(node);
+                }
+                node.value = value;
+                node.writeTime = now;
+                node.accessTime = now;
+                linkWrite(node);
+                linkAccessOrder(node);
+                evictEntries(now);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * Saca un Funko del segundo nivel y lo guarda en este segmento con su instante de escritura original, salvo
+         * que la clave ya tenga un valor aqui. Sacarlo y guardarlo con el cerrojo tomado impide que un remove, que
+         * borra de los dos niveles con el mismo cerrojo, se cuele entre ambos pasos y el Funko borrado vuelva.
+         *
+         * @return El valor que queda en el segmento para la clave, o null si no estaba en ningun nivel.
+         */
+        Funko promote(Integer key, long now) {
+            lock.lock();
+            try {
+                expire(now);
+                Node node = map.get(key);
+                if (node != null) {
+                    return node.value;
+                }
+                OffHeapFunkoCache.Stored stored = secondLevel.take(key, now);
+                if (stored == null) {
+                    return null;
+                }
+                Funko value = stored.value();
+                node = new Node(key);
+                map.put(key, node);
+                link(node, WINDOW);
+                node.value = value;
+                node.writeTime = stored.writeTime();
+                node.accessTime = now;
+                linkWrite(node);
+                linkAccessOrder(node);
+                evictEntries(now);
+                return value;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * Guarda el resultado de una carga, o la registra como inexistente si esta vacio, solo si la carga sigue siendo
+         * la vigente para la clave. Comprobarlo y guardar con el cerrojo tomado impide que un put o un remove que la
+         * invalida se cuele entre ambos pasos. Una carga fallida (value null) solo se olvida: no guardarla como
+         * inexistente evita que un fallo pasajero de la BD oculte un Funko que si existe.
+         */
+        void publish(Integer key, Optional<Funko> value, CompletableFuture<Optional<Funko>> promise, long now) {
+            lock.lock();
+            try {
+                if (!loading.remove(key, promise) || value == null) {
+                    return;
+                }
+                if (value.isPresent()) {
+                    put(key, value.get(), now);
+                } else {
+                    negatives.add(key, now);
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * Olvida la carga en curso y la entrada negativa de la clave porque su valor acaba de cambiar.
+         */
+        void invalidateLoad(Integer key) {
+            lock.lock();
+            try {
+                loading.remove(key);
+                negatives.remove(key);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        Funko get(Integer key, long now) {
+            lock.lock();
+            try {
+                if (sketch != null) {
+                    sketch.increment(key);
+                }
+                Node node = map.get(key);
+                if (node == null) {
+                    return null;
+                }
+                if (isExpired(node, now)) {
+                    evict(node);
+                    statsCounter.recordExpiryEviction();
+                    return null;
+                }
+                node.accessTime = now;
+                unlinkAccessOrder(node);
+                linkAccessOrder(node);
+                onAccess(node);
+                return node.value;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void remove(Integer key) {
+            lock.lock();
+            try {
+                Node node = map.get(key);
+                if (node != null) {
+                    evict(node);
+                }
+                if (secondLevel != null) {
+                    secondLevel.discard(key);
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void clear() {
+            lock.lock();
+            try {
+                map.clear();
+                for (int q = 0; q < queues.length; q++) {
+                    queues[q].prevAccess = queues[q].nextAccess = queues[q];
+                    queueSizes[q] = 0;
+                }
+                writeHead.prevWrite = writeHead.nextWrite = writeHead;
+                accessOrderHead.prevAccessOrder = accessOrderHead.nextAccessOrder = accessOrderHead;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * Libera las entradas caducadas. Al tener todas el mismo plazo, las listas de escritura y de acceso estan
+         * ordenadas por caducidad y basta con retirar desde la cabeza de cada una hasta encontrar la primera vigente.
+         */
+        void expire(long now) {
+            lock.lock();
+            try {
+                while (writeHead.nextWrite != writeHead && now - writeHead.nextWrite.writeTime >= expireAfterWriteNanos) {
+                    logger.debug("Autoeliminando por caducidad Funko de cache con id: " + writeHead.nextWrite.key);
+                    evict(writeHead.nextWrite);
+                    statsCounter.recordExpiryEviction();
+                }
+                while (accessOrderHead.nextAccessOrder != accessOrderHead
+                        && now - accessOrderHead.nextAccessOrder.accessTime >= expireAfterAccessNanos) {
+                    logger.debug("Autoeliminando por caducidad Funko de cache con id: " + accessOrderHead.nextAccessOrder.key);
+                    evict(accessOrderHead.nextAccessOrder);
+                    statsCounter.recordExpiryEviction();
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void copyTo(Map<Integer,Funko> target, long now) {
+            lock.lock();
+            try {
+                for (Node node = writeHead.nextWrite; node != writeHead; node = node.nextWrite) {
+                    if (!isExpired(node, now)) {
+                        target.put(node.key, node.value);
+                    }
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        int size() {
+            lock.lock();
+            try {
+                return map.size();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private boolean isExpired(Node node, long now) {
+            return now - node.writeTime >= expireAfterWriteNanos || now - node.accessTime >= expireAfterAccessNanos;
+        }
+
+        private void onAccess(Node node) {
+            unlink(node);
+            if (node.queue == PROBATION && protectedMax > 0) {
+                link(node, PROTECTED);
+                if (queueSizes[PROTECTED] > protectedMax) {
+                    Node demoted = queues[PROTECTED].nextAccess;
+                    unlink(demoted);
+                    link(demoted, PROBATION);
+                }
+            } else {
+                link(node, node.queue);
+            }
+        }
+
+        private void evictEntries(long now) {
+            Node candidate = null;
+            if (queueSizes[WINDOW] > windowMax) {
+                candidate = queues[WINDOW].nextAccess;
+                unlink(candidate);
+                link(candidate, PROBATION);
+            }
+            if (map.size() <= capacity) {
+                return;
+            }
+            Node victim = queueSizes[PROBATION] > 0 ? queues[PROBATION].nextAccess : queues[PROTECTED].nextAccess;
+            if (candidate != null && candidate != victim
+                    && sketch.frequency(candidate.key) <= sketch.frequency(victim.key)) {
+                victim = candidate;
+            }
+            evict(victim);
+            statsCounter.recordSizeEviction();
+            if (secondLevel != null && !isExpired(victim, now)) {
+                secondLevel.store(victim.key, victim.value, victim.writeTime);
+            }
+        }
+
+        private void evict(Node node) {
+            map.remove(node.key);
+            unlink(node);
+            unlinkWrite(node);
+            unlinkAccessOrder(node);
+        }
+
+        private void link(Node node, byte queue) {
+            Node head = queues[queue];
+            node.queue = queue;
+            node.prevAccess = head.prevAccess;
+            node.nextAccess = head;
+            head.prevAccess.nextAccess = node;
+            head.prevAccess = node;
+            queueSizes[queue]++;
+        }
+
+        private void unlink(Node node) {
+            node.prevAccess.nextAccess = node.nextAccess;
+            node.nextAccess.prevAccess = node.prevAccess;
+            queueSizes[node.queue]--;
+        }
+
+        private void linkWrite(Node node) {
+            node.prevWrite = writeHead.prevWrite;
+            node.nextWrite = writeHead;
+            writeHead.prevWrite.nextWrite = node;
+            writeHead.prevWrite = node;
+        }
+
+        private void unlinkWrite(Node node) {
+            node.prevWrite.nextWrite = node.nextWrite;
+            node.nextWrite.prevWrite = node.prevWrite;
+        }
+
+        private void linkAccessOrder(Node node) {
+            node.prevAccessOrder = accessOrderHead.prevAccessOrder;
+            node.nextAccessOrder = accessOrderHead;
+            accessOrderHead.prevAccessOrder.nextAccessOrder = node;
+            accessOrderHead.prevAccessOrder = node;
+        }
+
+        private void unlinkAccessOrder(Node node) {
+            node.prevAccessOrder.nextAccessOrder = node.nextAccessOrder;
+            node.nextAccessOrder.prevAccessOrder = node.prevAccessOrder;
+        }
+    }
 }
@@ -0,0 +1,262 @@
+package org.develop.services.funkos;
+
+import org.develop.model.Funko;
+import org.develop.repositories.FunkoRepository;
+import org.develop.services.files.BackupManagerImpl;
+import org.develop.services.files.CsvLineBatch;
+import org.develop.services.files.FunkoCsvParser;
+import org.develop.services.files.ImportConfig;
+import org.develop.services.files.ImportError;
+import org.develop.services.files.ImportReport;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Importacion de un fichero CSV de Funkos en tres etapas unidas por colas acotadas:
+ * <ul>
+ *     <li>lector: un hilo que lee el fichero con {@link BackupManagerImpl#readLineBatches} en lotes de
+ *     {@link ImportConfig#getBatchSize()} lineas.</li>
+ *     <li>conversores: {@link ImportConfig#getParserThreads()} hilos que convierten cada lote en Funkos con
+ *     {@link FunkoCsvParser}.</li>
+ *     <li>escritores: {@link ImportConfig#getWriterThreads()} hilos que guardan cada lote con
+ *     {@link FunkoRepository#saveAll(java.util.Collection, int)}, en una sola sentencia por lotes y un commit.</li>
+ * </ul>
+ * Cuando una cola se llena la etapa anterior espera, asi que en memoria hay como mucho queueCapacity lotes en cada
+ * cola mas el que tiene cada hilo, sea cual sea el tamano del fichero. Con varios hilos por etapa los lotes pueden
+ * guardarse en otro orden que el del fichero.
+ *
+ * Cada importacion crea sus propios hilos, que terminan con ella.
+ *
+ * @author Alonso Cruz, Joselyn Obando
+ */
+public class FunkoImportPipeline {
+    /**
+     * Numero maximo de lineas erroneas que se guardan en el informe; el resto solo se cuentan.
+     */
+    public static final int MAX_REPORTED_ERRORS = 1000;
+    private static final CsvLineBatch END_OF_LINES = new CsvLineBatch(new byte[0], new int[0], 0, 0);
+    private static final List<Funko> END_OF_FUNKOS = new ArrayList<>(0);
+    private static final AtomicInteger RUNS = new AtomicInteger();
+
+    private final Logger logger = LoggerFactory.getLogger(FunkoImportPipeline.class);
+    private final BackupManagerImpl backupManager;
+    private final FunkoRepository repository;
+    private final ImportConfig config;
+    private final Consumer<List<Funko>> onSaved;
+
+    /**
+     * Crea una importacion por etapas.
+     *
+     * @param backupManager El gestor de ficheros con el que se lee el CSV.
+     * @param repository    El repositorio en el que se guardan los Funkos.
+     * @param config        La configuracion de la importacion.
+     */
+    public FunkoImportPipeline(BackupManagerImpl backupManager, FunkoRepository repository, ImportConfig config) {
+        this(backupManager, repository, config, saved -> { });
+    }
+
+    /**
+     * Crea una importacion por etapas que avisa de cada lote guardado, por ejemplo para invalidar sus IDs en una cache.
+     *
+     * @param backupManager El gestor de ficheros con el que se lee el CSV.
+     * @param repository    El repositorio en el que se guardan los Funkos.
+     * @param config        La configuracion de la importacion.
+     * @param onSaved       Se llama desde el hilo escritor con cada lote ya confirmado en la BD, antes de que termine la
+     *                      importacion. Si falla, el error se registra y el lote sigue contando como importado.
+     */
+    public FunkoImportPipeline(BackupManagerImpl backupManager, FunkoRepository repository, ImportConfig config,
+                               Consumer<List<Funko>> onSaved) {
+        if (config.getParserThreads() <= 0 || config.getWriterThreads() <= 0 || config.getQueueCapacity() <= 0) {
+            throw new IllegalArgumentException("Los hilos por etapa y la capacidad de las colas deben ser positivos");
+        }
+        this.backupManager = backupManager;
+        this.repository = repository;
+        this.config = config;
+        this.onSaved = onSaved;
+    }
+
+    /**
+     * Arranca la importacion de un fichero y vuelve en el acto.
+     *
+     * @param path La ruta del fichero CSV.
+     * @return Un CompletableFuture que contendra el informe de la importacion cuando terminen todas las etapas, o que
+     * fallara si el fichero no se puede leer; las filas leidas hasta el error quedan guardadas.
+     */
+    public CompletableFuture<ImportReport> run(Path path) {
+        return new Run(path, RUNS.incrementAndGet()).start();
+    }
+
+    /**
+     * Estado de una importacion.
+     */
+    private final class Run {
+        private final CompletableFuture<ImportReport> result = new CompletableFuture<>();
+        private final BlockingQueue<CsvLineBatch> lines = new ArrayBlockingQueue<>(config.getQueueCapacity());
+        private final BlockingQueue<List<Funko>> funkos = new ArrayBlockingQueue<>(config.getQueueCapacity());
+        private final AtomicInteger parsersLeft = new AtomicInteger(config.getParserThreads());
+        private final AtomicInteger writersLeft = new AtomicInteger(config.getWriterThreads());
+        private final LongAdder rows = new LongAdder();
+        private final LongAdder imported = new LongAdder();
+        private final LongAdder failures = new LongAdder();
+        private final Queue<ImportError> errors = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger reportedErrors = new AtomicInteger();
+        private final AtomicReference<Throwable> readFailure = new AtomicReference<>();
+        private final Path path;
+        private final int id;
+        private long start;
+
+        private Run(Path path, int id) {
+            this.path = path;
+            this.id = id;
+        }
+
+        private CompletableFuture<ImportReport> start() {
+            logger.debug("Importando por etapas " + path + " con " + config.getParserThreads() + " conversores y "
+                    + config.getWriterThreads() + " escritores");
+            start = System.nanoTime();
+            thread("reader", this::read).start();
+            for (int i = 0; i < config.getParserThreads(); i++) {
+                thread("parser-" + (i + 1), this::parse).start();
+            }
+            for (int i = 0; i < config.getWriterThreads(); i++) {
+                thread("writer-" + (i + 1), this::write).start();
+            }
+            return result;
+        }
+
+        private Thread thread(String stage, Runnable task) {
+            return new Thread(task, "funko-import-" + id + "-" + stage);
+        }
+
+        private void read() {
+            try {
+                backupManager.readLineBatches(path, config.getBatchSize(), lines::put);
+            } catch (Exception e) {
+                readFailure.set(e);
+            } finally {
+                for (int i = 0; i < config.getParserThreads(); i++) {
+                    putUninterruptibly(lines, END_OF_LINES);
+                }
+            }
+        }
+
+        private void parse() {
+            try {
+                CsvLineBatch batch;
+                while ((batch = lines.take()) != END_OF_LINES) {
+                    List<Funko> parsed = new ArrayList<>(batch.size());
+                    byte[] data = batch.data();
+                    for (int i = 0; i < batch.size(); i++) {
+                        int from = batch.start(i);
+                        int to = batch.end(i);
+                        if (from == to) {
+                            continue;
+                        }
+                        rows.increment();
+                        try {
+                            parsed.add(FunkoCsvParser.parse(data, from, to));
+                        } catch (RuntimeException e) {
+                            failures.increment();
+                            report(new ImportError(batch.lineNumber(i), new String(data, from, to - from, StandardCharsets.UTF_8),
+                                    e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName()));
+                        }
+                    }
+                    if (!parsed.isEmpty()) {
+                        funkos.put(parsed);
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                if (parsersLeft.decrementAndGet() == 0) {
+                    for (int i = 0; i < config.getWriterThreads(); i++) {
+                        putUninterruptibly(funkos, END_OF_FUNKOS);
+                    }
+                }
+            }
+        }
+
+        private void write() {
+            try {
+                List<Funko> batch;
+                while ((batch = funkos.take()) != END_OF_FUNKOS) {
+                    List<Funko> saved;
+                    try {
+                        saved = repository.saveAll(batch, batch.size()).join();
+                    } catch (RuntimeException e) {
+                        // El lote se deshace entero, asi que todas sus filas cuentan como fallidas
+                        failures.add(batch.size());
+                        logger.error("Error guardando un lote de " + batch.size() + " Funkos: " + e.getMessage(), e);
+                        continue;
+                    }
+                    imported.add(saved.size());
+                    try {
+                        onSaved.accept(saved);
+                    } catch (RuntimeException e) {
+                        logger.error("Error notificando un lote de " + saved.size() + " Funkos guardados: " + e.getMessage(), e);
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                if (writersLeft.decrementAndGet() == 0) {
+                    finish();
+                }
+            }
+        }
+
+        private void report(ImportError error) {
+            if (reportedErrors.incrementAndGet() <= MAX_REPORTED_ERRORS) {
+                errors.add(error);
+            }
+        }
+
+        private void finish() {
+            Throwable failure = readFailure.get();
+            if (failure != null) {
+                result.completeExceptionally(failure);
+                return;
+            }
+            List<ImportError> sorted = new ArrayList<>(errors);
+            sorted.sort((a, b) -> Long.compare(a.getLine(), b.getLine()));
+            ImportReport report = new ImportReport(rows.sum(), imported.sum(), failures.sum(), sorted,
+                    Duration.ofNanos(System.nanoTime() - start));
+            logger.debug("Importacion de " + path + " terminada: " + report.getImported() + " de " + report.getRows()
+                    + " filas guardadas a " + Math.round(report.getRowsPerSecond()) + " filas/s");
+            result.complete(report);
+        }
+    }
+
+    /**
+     * Encola un marcador de fin aunque el hilo este interrumpido, para que las etapas siguientes terminen siempre.
+     */
+    private static <T> void putUninterruptibly(BlockingQueue<T> queue, T marker) {
+        boolean interrupted = false;
+        while (true) {
+            try {
+                queue.put(marker);
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -3,12 +3,22 @@ package org.develop.services.funkos;
 import org.develop.exceptions.FunkoNotFoundException;
 import org.develop.exceptions.FunkoNotSaveException;
 import org.develop.model.Funko;
+import org.develop.model.FunkoSort;
+import org.develop.model.FunkoSummary;
+import org.develop.model.NameMatch;
+import org.develop.model.Page;
+import org.develop.model.PageCursor;
+import org.develop.services.files.ImportProgressListener;
+import org.develop.services.files.ImportReport;
 
+import java.nio.file.Path;
 import java.sql.SQLException;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
+import java.util.stream.Stream;
 
 /**
  * Interfaz que define operaciones relacionadas con objetos Funko, como buscar, guardar, actualizar, borrar y realizar copias de seguridad.
@@ -25,6 +35,39 @@ public interface FunkoService {
      */
     CompletableFuture<List<Funko>> findAll() throws SQLException, ExecutionException, InterruptedException;
 
+    /**
+     * Obtiene una pagina de objetos Funko ordenados por el criterio indicado.
+     *
+     * @param after El cursor devuelto por la pagina anterior, o null para obtener la primera pagina.
+     * @param limit El numero maximo de objetos Funko de la pagina.
+     * @param sort  El criterio de ordenacion.
+     * @return Un CompletableFuture que contendra la pagina de objetos Funko y el cursor de la pagina siguiente.
+     */
+    CompletableFuture<Page<Funko>> findPage(PageCursor after, int limit, FunkoSort sort);
+
+    /**
+     * Recorre todos los objetos Funko de la fuente de datos sin cargarlos todos en memoria.
+     * El Stream devuelto debe cerrarse (por ejemplo con try-with-resources) si no se consume por completo.
+     *
+     * @return Un CompletableFuture que contendra un Stream perezoso de objetos Funko.
+     */
+    CompletableFuture<Stream<Funko>> streamAll();
+
+    /**
+     * Obtiene el ID, nombre, modelo y precio de todos los objetos Funko, sin cargar el resto de sus datos.
+     *
+     * @return Un CompletableFuture que contendra una lista con el resumen de todos los objetos Funko.
+     */
+    CompletableFuture<List<FunkoSummary>> findAllSummaries();
+
+    /**
+     * Recorre el ID, nombre, modelo y precio de todos los objetos Funko sin cargarlos todos en memoria.
+     * El Stream devuelto debe cerrarse (por ejemplo con try-with-resources) si no se consume por completo.
+     *
+     * @return Un CompletableFuture que contendra un Stream perezoso con el resumen de todos los objetos Funko.
+     */
+    CompletableFuture<Stream<FunkoSummary>> streamSummaries();
+
     /**
      * Busca y devuelve todos los objetos Funko con un nombre que contiene la cadena especificada.
      *
@@ -36,6 +79,16 @@ public interface FunkoService {
      */
     CompletableFuture<List<Funko>> findAllByNombre(String nombre) throws SQLException, ExecutionException, InterruptedException;
 
+    /**
+     * Busca y devuelve todos los objetos Funko cuyo nombre encaja con la busqueda segun el modo indicado.
+     *
+     * @param nombre     La cadena a buscar.
+     * @param match      Si el nombre debe contener la cadena o empezar por ella.
+     * @param ignoreCase true para no distinguir mayusculas de minusculas.
+     * @return Un CompletableFuture que contendra una lista de objetos Funko que coincidan con la busqueda.
+     */
+    CompletableFuture<List<Funko>> findAllByNombre(String nombre, NameMatch match, boolean ignoreCase);
+
     /**
      * Busca un objeto Funko por su identificador unico.
      *
@@ -60,6 +113,14 @@ public interface FunkoService {
      */
     CompletableFuture<Funko> save(Funko funko) throws SQLException, FunkoNotSaveException, ExecutionException, InterruptedException;
 
+    /**
+     * Guarda una coleccion de objetos Funko en la fuente de datos mediante inserciones por lotes.
+     *
+     * @param funkos Los objetos Funko a guardar.
+     * @return Un CompletableFuture que contendra la lista de objetos Funko guardados.
+     */
+    CompletableFuture<List<Funko>> saveAll(Collection<Funko> funkos);
+
     /**
      * Actualiza un objeto Funko en la fuente de datos.
      *
@@ -113,4 +174,31 @@ public interface FunkoService {
      * @throws InterruptedException Si la operacion asincronica es interrumpida.
      */
     CompletableFuture<List<Funko>> imported(String file) throws InterruptedException;
+
+    /**
+     * Importa objetos Funko desde un archivo de copia de seguridad informando del avance de la lectura.
+     *
+     * @param file     El nombre del archivo desde donde se importaran los objetos Funko.
+     * @param listener El listener que recibe el numero de filas y de bytes leidos.
+     * @return Un CompletableFuture que contendra una lista de objetos Funko importados.
+     */
+    CompletableFuture<List<Funko>> imported(String file, ImportProgressListener listener);
+
+    /**
+     * Importa un archivo CSV de Funkos y los guarda en la base de datos por lotes, leyendo, convirtiendo y guardando a
+     * la vez y sin cargar el archivo completo en memoria.
+     *
+     * @param path La ruta del archivo CSV.
+     * @return Un CompletableFuture que contendra el informe con las filas leidas, las guardadas, los fallos y el ritmo
+     * de la importacion.
+     */
+    CompletableFuture<ImportReport> importStream(Path path);
+
+    /**
+     * Detiene el servicio y escribe en la fuente de datos los cambios que tuviera pendientes.
+     *
+     * @return Un CompletableFuture que se completara cuando se hayan escrito todos los cambios pendientes, o con error
+     * si no se han podido escribir.
+     */
+    CompletableFuture<Void> shutdown();
 }
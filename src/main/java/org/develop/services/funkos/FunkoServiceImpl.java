@@ -3,31 +3,47 @@ package org.develop.services.funkos;
 import org.develop.exceptions.FunkoNotFoundException;
 import org.develop.exceptions.FunkoNotSaveException;
 import org.develop.model.Funko;
+import org.develop.model.FunkoSort;
+import org.develop.model.FunkoSummary;
+import org.develop.model.NameMatch;
+import org.develop.model.Page;
+import org.develop.model.PageCursor;
 import org.develop.repositories.FunkoRepository;
+import org.develop.services.cache.CacheConfig;
+import org.develop.services.cache.CacheStatsJmx;
+import org.develop.services.executor.IOExecutors;
 import org.develop.services.files.BackupManager;
 import org.develop.services.files.BackupManagerImpl;
+import org.develop.services.files.ImportConfig;
+import org.develop.services.files.ImportProgressListener;
+import org.develop.services.files.ImportReport;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.nio.file.Path;
 import java.sql.SQLException;
+import java.time.Duration;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Stream;
 
 /**
  * Implementacion de la interfaz FunkoService que realiza operaciones relacionadas con objetos Funko.
  */
 public class FunkoServiceImpl implements FunkoService{
-    private static final int CACHE_SIZE =10;
-
     private final Logger logger = LoggerFactory.getLogger(FunkoServiceImpl.class);
     private static FunkoServiceImpl instance;
     private final FunkoCache cache;
     private final FunkoRepository funkoRepository;
     private final BackupManagerImpl backupManager;
+    private final ImportConfig importConfig;
+    private final AtomicReference<FunkoWriteBehind> writeBehind = new AtomicReference<>();
 
     /**
      * Constructor privado para asegurar el patron Singleton.
@@ -38,7 +54,9 @@ public class FunkoServiceImpl implements FunkoService{
     private FunkoServiceImpl(BackupManagerImpl backupManager, FunkoRepository funkoRepository){
         this.funkoRepository =funkoRepository;
         this.backupManager = backupManager;
-        this.cache = new FunkoCacheImpl(CACHE_SIZE);
+        this.importConfig = ImportConfig.fromProperties();
+        this.cache = new FunkoCacheImpl(CacheConfig.fromProperties(), IOExecutors.cache());
+        CacheStatsJmx.register("funkos", cache);
     }
 
     /**
@@ -56,6 +74,28 @@ public class FunkoServiceImpl implements FunkoService{
     }
 
 
+    /**
+     * Activa la escritura diferida de las actualizaciones: update guarda el Funko en la cache en el acto y la
+     * escritura en la base de datos se agrupa por lotes, quedandose solo con la ultima version de cada Funko. Si ya
+     * estaba activada, la nueva configuracion sustituye a la anterior de forma atomica y despues se vuelca lo que
+     * quedaba pendiente en la anterior, sin que ninguna actualizacion llegue a una escritura diferida ya detenida.
+     * Si ese volcado falla se lanza una CompletionException; lo pendiente de la anterior no se pierde y se reintenta
+     * al apagar la JVM.
+     *
+     * @param batchSize     El numero de Funkos pendientes que provoca un volcado.
+     * @param flushInterval El tiempo maximo que una actualizacion puede esperar a ser escrita.
+     * @return La escritura diferida activada, con sus metricas.
+     */
+    public synchronized FunkoWriteBehind enableWriteBehind(int batchSize, Duration flushInterval) {
+        FunkoWriteBehind created = new FunkoWriteBehind(funkoRepository, cache, batchSize, flushInterval);
+        FunkoWriteBehind previous = writeBehind.getAndSet(created);
+        created.register("funkos");
+        if (previous != null) {
+            previous.shutdown().join();
+        }
+        return created;
+    }
+
     /**
      * Obtiene todos los objetos Funko almacenados en el repositorio.
      *
@@ -68,6 +108,53 @@ public class FunkoServiceImpl implements FunkoService{
         return funkoRepository.findAll();
     }
 
+    /**
+     * Obtiene una pagina de objetos Funko del repositorio mediante paginacion por cursor.
+     *
+     * @param after Cursor devuelto por la pagina anterior, o null para la primera pagina.
+     * @param limit Numero maximo de objetos Funko de la pagina.
+     * @param sort  Criterio de ordenacion.
+     * @return Pagina de objetos Funko con el cursor de la pagina siguiente.
+     */
+    @Override
+    public CompletableFuture<Page<Funko>> findPage(PageCursor after, int limit, FunkoSort sort) {
+        logger.debug("Obteniendo pagina de funkos despues de: " + after);
+        return funkoRepository.findPage(after, limit, sort);
+    }
+
+    /**
+     * Recorre todos los objetos Funko del repositorio mediante un cursor, sin materializar la lista completa.
+     *
+     * @return Stream perezoso de objetos Funko que debe cerrarse si no se consume por completo.
+     */
+    @Override
+    public CompletableFuture<Stream<Funko>> streamAll() {
+        logger.debug("Recorriendo todos los funkos");
+        return funkoRepository.streamAll();
+    }
+
+    /**
+     * Obtiene el resumen (ID, nombre, modelo y precio) de todos los objetos Funko del repositorio.
+     *
+     * @return Lista con el resumen de todos los objetos Funko.
+     */
+    @Override
+    public CompletableFuture<List<FunkoSummary>> findAllSummaries() {
+        logger.debug("Obteniendo el resumen de todos los funkos");
+        return funkoRepository.findAllSummaries();
+    }
+
+    /**
+     * Recorre el resumen (ID, nombre, modelo y precio) de todos los objetos Funko del repositorio mediante un cursor.
+     *
+     * @return Stream perezoso con el resumen de los objetos Funko que debe cerrarse si no se consume por completo.
+     */
+    @Override
+    public CompletableFuture<Stream<FunkoSummary>> streamSummaries() {
+        logger.debug("Recorriendo el resumen de todos los funkos");
+        return funkoRepository.streamSummaries();
+    }
+
     /**
      * Obtiene objetos Funko que coinciden con un nombre especifico.
      *
@@ -80,10 +167,25 @@ public class FunkoServiceImpl implements FunkoService{
         return funkoRepository.findByNombre(nombre);
     }
 
+    /**
+     * Obtiene objetos Funko cuyo nombre encaja con la busqueda segun el modo indicado.
+     *
+     * @param nombre     Cadena a buscar.
+     * @param match      Si el nombre debe contener la cadena o empezar por ella.
+     * @param ignoreCase true para no distinguir mayusculas de minusculas.
+     * @return Lista de objetos Funko que coinciden con la busqueda.
+     */
+    @Override
+    public CompletableFuture<List<Funko>> findAllByNombre(String nombre, NameMatch match, boolean ignoreCase) {
+        logger.debug("Obteniendo los funkos que coincidan con: " + nombre);
+        return funkoRepository.findByNombre(nombre, match, ignoreCase);
+    }
+
 
     /**
      * Busca un objeto Funko por su ID. Primero intenta obtenerlo de la cache y, si no lo encuentra,
-     * lo obtiene del repositorio y lo almacena en la cache para futuras consultas.
+     * lo obtiene del repositorio y lo almacena en la cache para futuras consultas. Las busquedas concurrentes
+     * de un mismo ID que no esta en la cache comparten una unica consulta al repositorio.
      *
      * @param id ID del objeto Funko a buscar.
      * @return Objeto Funko si se encuentra, o un objeto Optional vacio si no.
@@ -95,17 +197,24 @@ public class FunkoServiceImpl implements FunkoService{
     @Override
     public CompletableFuture<Optional<Funko>> findById(int id) throws FunkoNotFoundException, ExecutionException, InterruptedException, SQLException {
         logger.debug("Obteniendo el funko con Id: " + id);
-        var fk = cache.get(id);
-        if (fk != null && fk.get().isPresent()  ) {
-            return fk;
-        } else {
-            return funkoRepository.findById(id);
+        FunkoWriteBehind pending = writeBehind.get();
+        // Una actualizacion aun sin escribir pudo salir ya de la cache y la BD todavia tiene la version anterior
+        Funko dirty = pending == null ? null : pending.getPending(id);
+        if (dirty != null) {
+            return CompletableFuture.completedFuture(Optional.of(dirty));
         }
-
+        return cache.get(id, key -> {
+            try {
+                return funkoRepository.findById(key);
+            } catch (SQLException e) {
+                return CompletableFuture.failedFuture(e);
+            }
+        });
     }
 
     /**
-     * Guarda un nuevo objeto Funko en el repositorio y lo almacena en la cache.
+     * Guarda un nuevo objeto Funko en el repositorio y lo almacena en la cache. El CompletableFuture se completa
+     * cuando el Funko esta guardado en la BD y en la cache, sin bloquear en ningun momento el hilo que llama.
      *
      * @param funko Objeto Funko a guardar.
      * @return Objeto Funko guardado.
@@ -117,13 +226,30 @@ public class FunkoServiceImpl implements FunkoService{
     @Override
     public CompletableFuture<Funko> save(Funko funko) throws FunkoNotSaveException, SQLException, ExecutionException, InterruptedException {
         logger.debug("Guardando Funko en la base de datos: " + funko);
-        var funk = funkoRepository.save(funko);
-           cache.put(funk.get().getId(), funk.get());
-        return funk;
+        return funkoRepository.save(funko)
+                .thenCompose(saved -> cache.put(saved.getId(), saved).thenApply(v -> saved));
     }
 
     /**
-     * Actualiza un objeto Funko en el repositorio y actualiza la cache.
+     * Guarda una coleccion de Funkos en el repositorio mediante inserciones por lotes. Los Funkos no se guardan en la
+     * cache, para que una importacion masiva no expulse las entradas que se estan leyendo; solo se invalidan sus IDs,
+     * por si habia una busqueda fallida o una carga en curso de alguno de ellos.
+     *
+     * @param funkos Objetos Funko a guardar.
+     * @return Lista de objetos Funko guardados.
+     */
+    @Override
+    public CompletableFuture<List<Funko>> saveAll(Collection<Funko> funkos) {
+        logger.debug("Guardando " + funkos.size() + " Funkos en la base de datos");
+        return funkoRepository.saveAll(funkos).thenCompose(saved -> cache
+                .removeAll(saved.stream().map(Funko::getId).toList())
+                .thenApply(v -> saved));
+    }
+
+    /**
+     * Actualiza un objeto Funko en el repositorio y actualiza la cache. Con la escritura diferida activada, el Funko
+     * se guarda en la cache y el CompletableFuture se completa en el acto; la base de datos se actualiza en el
+     * siguiente volcado y, si el Funko ya no existe, se descarta sin avisar al llamador.
      *
      * @param funko Objeto Funko a actualizar.
      * @return Objeto Funko actualizado.
@@ -133,9 +259,14 @@ public class FunkoServiceImpl implements FunkoService{
     @Override
     public CompletableFuture<Funko> update(Funko funko) throws FunkoNotFoundException, SQLException {
         logger.debug("Actualizando Funko....");
-        var funk = funkoRepository.update(funko);
-        cache.put(funko.getId(),funko);
-        return funk;
+        FunkoWriteBehind pending = writeBehind.get();
+        if (pending != null) {
+            cache.put(funko.getId(), funko);
+            pending.add(funko);
+            return CompletableFuture.completedFuture(funko);
+        }
+        return funkoRepository.update(funko)
+                .thenCompose(updated -> cache.put(updated.getId(), updated).thenApply(v -> updated));
     }
 
     /**
@@ -151,11 +282,13 @@ public class FunkoServiceImpl implements FunkoService{
     @Override
     public CompletableFuture<Boolean> deleteById(int id) throws FunkoNotFoundException, SQLException, ExecutionException, InterruptedException {
         logger.debug("Eliminando Funko con id: " + id);
-        var res = funkoRepository.deleteById(id);
-        if (res.get()) {
-            cache.remove(id);
+        FunkoWriteBehind pending = writeBehind.get();
+        if (pending != null) {
+            pending.discard(id);
         }
-        return res;
+        return funkoRepository.deleteById(id).thenCompose(deleted -> deleted
+                ? cache.remove(id).thenApply(v -> true)
+                : CompletableFuture.completedFuture(false));
     }
 
     /**
@@ -165,19 +298,21 @@ public class FunkoServiceImpl implements FunkoService{
      */
     @Override
     public CompletableFuture<Void> deleteAll(){
-       return CompletableFuture.runAsync(()->{
-            try {
-                logger.debug("Eliminando todos los elementos de la Base de Datos....");
-                funkoRepository.deleteAll().join();
-                cache.clear();
-            } catch (SQLException e) {
-                throw new RuntimeException(e);
-            }
-        });
+        logger.debug("Eliminando todos los elementos de la Base de Datos....");
+        FunkoWriteBehind pending = writeBehind.get();
+        if (pending != null) {
+            pending.discardAll();
+        }
+        try {
+            return funkoRepository.deleteAll().thenCompose(v -> cache.clear());
+        } catch (SQLException e) {
+            return CompletableFuture.failedFuture(e);
+        }
     }
 
     /**
-     * Realiza una copia de seguridad de la base de datos almacenando los Funkos en un archivo.
+     * Realiza una copia de seguridad de la base de datos almacenando los Funkos en un archivo. Los Funkos se leen con
+     * un cursor y se escriben segun llegan, sin cargar la tabla completa en memoria.
      *
      * @param file Nombre del archivo de copia de seguridad.
      * @return Un valor booleano que indica si la copia de seguridad se realizo con exito.
@@ -188,9 +323,28 @@ public class FunkoServiceImpl implements FunkoService{
         @Override
     public CompletableFuture<Boolean> backup(String file) throws SQLException, ExecutionException, InterruptedException {
         logger.debug("Iniciando Backup de la Base de Datos......");
-        var suc = backupManager.writeFileFunko(file,findAll().get());
-        logger.debug("Backup Realizado Correctamente!");
-        return suc;
+        return streamAll().thenCompose(funkos -> backupManager.writeFileFunko(file, funkos))
+                .whenComplete((suc, error) -> {
+                    if (error == null) {
+                        logger.debug("Backup Realizado Correctamente!");
+                    }
+                });
+    }
+
+    /**
+     * Detiene el servicio: vuelca a la base de datos las actualizaciones pendientes de la escritura diferida y detiene
+     * la limpieza periodica de la cache. Si el volcado falla, la cache sigue activa, lo pendiente se conserva y se
+     * puede volver a llamar a este metodo para reintentarlo.
+     *
+     * @return Un CompletableFuture que se completa cuando se ha escrito todo lo pendiente, o con error si el volcado
+     * ha fallado.
+     */
+    @Override
+    public CompletableFuture<Void> shutdown() {
+        logger.debug("Deteniendo el servicio de Funkos");
+        FunkoWriteBehind pending = writeBehind.get();
+        CompletableFuture<Void> flushed = pending == null ? CompletableFuture.completedFuture(null) : pending.shutdown();
+        return flushed.thenCompose(v -> cache.shutdown());
     }
 
     /**
@@ -204,4 +358,32 @@ public class FunkoServiceImpl implements FunkoService{
     public CompletableFuture<List<Funko>> imported(String file) throws InterruptedException {
         return backupManager.readFileFunko(file);
     }
+
+    /**
+     * Importa objetos Funko desde un archivo CSV informando del avance de la lectura.
+     *
+     * @param file     Nombre del archivo de importacion.
+     * @param listener Listener que recibe las filas y los bytes leidos.
+     * @return Lista de objetos Funko importados.
+     */
+    @Override
+    public CompletableFuture<List<Funko>> imported(String file, ImportProgressListener listener) {
+        return backupManager.readFileFunko(file, listener);
+    }
+
+    /**
+     * Importa un archivo CSV de Funkos con {@link FunkoImportPipeline}: un hilo lee el archivo por lotes, varios lo
+     * convierten en Funkos y varios los guardan en la base de datos, con colas acotadas entre etapas. Igual que en
+     * saveAll, los Funkos importados no se anaden a la cache: solo se invalidan sus IDs, lote a lote, para que una
+     * busqueda fallida anterior a la importacion no los siga dando por inexistentes.
+     *
+     * @param path Ruta del archivo CSV.
+     * @return Informe de la importacion.
+     */
+    @Override
+    public CompletableFuture<ImportReport> importStream(Path path) {
+        logger.debug("Importando por etapas el archivo: " + path);
+        return new FunkoImportPipeline(backupManager, funkoRepository, importConfig,
+                saved -> cache.removeAll(saved.stream().map(Funko::getId).toList()).join()).run(path);
+    }
 }
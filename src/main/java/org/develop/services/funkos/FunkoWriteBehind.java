@@ -0,0 +1,263 @@
+package org.develop.services.funkos;
+
+import org.develop.model.Funko;
+import org.develop.repositories.FunkoRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Escritura diferida (write-behind) de las actualizaciones de Funkos.
+ *
+ * Las actualizaciones se guardan en un buffer de Funkos pendientes con una sola entrada por ID: si un Funko se
+ * actualiza varias veces antes de escribirse, solo llega a la base de datos la ultima version. El buffer se vuelca con
+ * FunkoRepository.updateAll cuando alcanza el tamano de lote o cuando pasa el intervalo de volcado, lo que ocurra
+ * antes. Los volcados se encadenan uno detras de otro, asi que dos versiones de un mismo Funko nunca se escriben
+ * desordenadas.
+ *
+ * Un Funko sale del buffer solo cuando su version se ha escrito: mientras dura el volcado sigue visible en
+ * {@link #getPending(int)}, y si un volcado falla sus Funkos siguen pendientes y se reintentan en el siguiente. Los
+ * Funkos que ya no existen en la base de datos se descartan y se eliminan de la cache.
+ */
+public class FunkoWriteBehind implements FunkoWriteBehindMXBean {
+    private final Logger logger = LoggerFactory.getLogger(FunkoWriteBehind.class);
+    private final FunkoRepository funkoRepository;
+    private final FunkoCache cache;
+    private final int batchSize;
+    private final Map<Integer, Pending> dirty = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService flusher;
+    private final Thread shutdownHook;
+    private final AtomicBoolean flushQueued = new AtomicBoolean();
+    private CompletableFuture<Void> lastFlush = CompletableFuture.completedFuture(null);
+    private final AtomicLong lastFlushLagNanos = new AtomicLong();
+    private final AtomicLong maxFlushLagNanos = new AtomicLong();
+    private final LongAdder flushCount = new LongAdder();
+    private final LongAdder flushedCount = new LongAdder();
+    private final LongAdder coalescedCount = new LongAdder();
+    private final LongAdder failedFlushCount = new LongAdder();
+
+    /**
+     * Crea la escritura diferida y programa el volcado periodico. Tambien registra un hook de apagado de la JVM que
+     * vuelca lo pendiente si la aplicacion termina sin llamar a {@link #shutdown()}.
+     *
+     * @param funkoRepository El repositorio en el que se escriben las actualizaciones.
+     * @param cache           La cache de la que se eliminan los Funkos que ya no existen.
+     * @param batchSize       El numero de Funkos pendientes que provoca un volcado.
+     * @param flushInterval   El tiempo maximo entre dos volcados.
+     */
+    FunkoWriteBehind(FunkoRepository funkoRepository, FunkoCache cache, int batchSize, Duration flushInterval) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("El tamano de lote debe ser mayor que 0");
+        }
+        this.funkoRepository = funkoRepository;
+        this.cache = cache;
+        this.batchSize = batchSize;
+        long interval = flushInterval.toMillis();
+        this.flusher = Executors.newSingleThreadScheduledExecutor();
+        this.flusher.scheduleWithFixedDelay(this::flush, interval, interval, TimeUnit.MILLISECONDS);
+        // El error de un volcado fallido ya queda registrado en el log
+        this.shutdownHook = new Thread(() -> flush().exceptionally(e -> null).join());
+        Runtime.getRuntime().addShutdownHook(shutdownHook);
+    }
+
+    /**
+     * Anade una actualizacion al buffer, sustituyendo la pendiente del mismo Funko si la hay, y lanza un volcado si el
+     * buffer alcanza el tamano de lote.
+     *
+     * @param funko El Funko actualizado.
+     */
+    public void add(Funko funko) {
+        long now = System.nanoTime();
+        dirty.compute(funko.getId(), (id, old) -> {
+            if (old == null) {
+                return new Pending(funko, now);
+            }
+            coalescedCount.increment();
+            return new Pending(funko, old.since());
+        });
+        // Los Funkos siguen en el buffer hasta que termina su volcado, asi que basta con un volcado en cola
+        if (dirty.size() >= batchSize && flushQueued.compareAndSet(false, true)) {
+            flush();
+        }
+    }
+
+    /**
+     * Obtiene la actualizacion pendiente de un Funko.
+     *
+     * @param id El ID del Funko.
+     * @return El Funko pendiente de escribir, o null si no hay ninguna actualizacion pendiente.
+     */
+    public Funko getPending(int id) {
+        Pending pending = dirty.get(id);
+        return pending == null ? null : pending.funko();
+    }
+
+    /**
+     * Descarta la actualizacion pendiente de un Funko, por ejemplo porque se ha borrado.
+     *
+     * @param id El ID del Funko.
+     */
+    public void discard(int id) {
+        dirty.remove(id);
+    }
+
+    /**
+     * Descarta todas las actualizaciones pendientes.
+     */
+    public void discardAll() {
+        dirty.clear();
+    }
+
+    /**
+     * Vuelca a la base de datos las actualizaciones pendientes. El volcado empieza cuando termina el anterior, haya
+     * fallado o no.
+     *
+     * @return Un CompletableFuture que se completa cuando el volcado ha terminado, o con error si ha fallado. En ese
+     * caso las actualizaciones siguen pendientes y se reintentan en el siguiente volcado.
+     */
+    public synchronized CompletableFuture<Void> flush() {
+        lastFlush = lastFlush.exceptionally(e -> null).thenCompose(v -> flushPending());
+        return lastFlush;
+    }
+
+    /**
+     * Detiene el volcado periodico y vuelca las actualizaciones pendientes. El hook de apagado de la JVM solo se quita
+     * si el volcado termina bien: si falla, lo pendiente se conserva, el CompletableFuture se completa con el error y
+     * se puede volver a llamar a este metodo para reintentarlo (o lo reintentara el hook al apagarse la JVM).
+     *
+     * @return Un CompletableFuture que se completa cuando se ha escrito todo lo pendiente, o con error si el volcado
+     * ha fallado.
+     */
+    public CompletableFuture<Void> shutdown() {
+        flusher.shutdown();
+        return flush().thenRun(() -> {
+            try {
+                Runtime.getRuntime().removeShutdownHook(shutdownHook);
+            } catch (IllegalStateException e) {
+                // La JVM ya se esta apagando y el hook hara el volcado
+            }
+        });
+    }
+
+    private CompletableFuture<Void> flushPending() {
+        flushQueued.set(false);
+        List<Pending> batch = new ArrayList<>(dirty.values());
+        if (batch.isEmpty()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        logger.debug("Volcando " + batch.size() + " actualizaciones de Funkos a la base de datos");
+        long oldest = batch.stream().mapToLong(Pending::since).min().orElseThrow();
+        CompletableFuture<List<Funko>> update;
+        try {
+            update = funkoRepository.updateAll(batch.stream().map(Pending::funko).toList());
+        } catch (RuntimeException e) {
+            update = CompletableFuture.failedFuture(e);
+        }
+        return update.handle((updated, error) -> {
+            if (error != null) {
+                logger.error("Error al volcar las actualizaciones de Funkos, se reintentaran: " + error.getMessage(), error);
+                failedFlushCount.increment();
+                throw error instanceof CompletionException ce ? ce : new CompletionException(error);
+            }
+            // Si el Funko se actualizo durante el volcado, la version nueva se queda para el siguiente. Se compara por
+            // identidad porque una version nueva puede ser igual a la escrita si se actualizo el mismo objeto
+            batch.forEach(pending -> dirty.computeIfPresent(pending.funko().getId(), (id, current) -> current == pending ? null : current));
+            long lag = System.nanoTime() - oldest;
+            lastFlushLagNanos.set(lag);
+            maxFlushLagNanos.accumulateAndGet(lag, Math::max);
+            flushCount.increment();
+            flushedCount.add(updated.size());
+            if (updated.size() < batch.size()) {
+                Set<Integer> found = new HashSet<>();
+                updated.forEach(fk -> found.add(fk.getId()));
+                batch.stream().map(pending -> pending.funko().getId()).filter(id -> !found.contains(id)).forEach(cache::remove);
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Registra las metricas en el servidor JMX de la plataforma con el nombre
+     * org.develop:type=WriteBehind,name=&lt;name&gt;, sustituyendo las que hubiera con ese nombre.
+     *
+     * @param name El nombre con el que se publican las metricas.
+     */
+    void register(String name) {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName objectName = new ObjectName("org.develop:type=WriteBehind,name=" + ObjectName.quote(name));
+            if (server.isRegistered(objectName)) {
+                server.unregisterMBean(objectName);
+            }
+            server.registerMBean(this, objectName);
+        } catch (JMException e) {
+            logger.warn("No se pudieron publicar por JMX las metricas de escritura diferida " + name, e);
+        }
+    }
+
+    @Override
+    public int getPendingCount() {
+        return dirty.size();
+    }
+
+    @Override
+    public long getFlushLagMillis() {
+        long now = System.nanoTime();
+        return dirty.values().stream().mapToLong(pending -> TimeUnit.NANOSECONDS.toMillis(now - pending.since())).max().orElse(0);
+    }
+
+    @Override
+    public long getLastFlushLagMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(lastFlushLagNanos.get());
+    }
+
+    @Override
+    public long getMaxFlushLagMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(maxFlushLagNanos.get());
+    }
+
+    @Override
+    public long getFlushCount() {
+        return flushCount.sum();
+    }
+
+    @Override
+    public long getFlushedCount() {
+        return flushedCount.sum();
+    }
+
+    @Override
+    public long getCoalescedCount() {
+        return coalescedCount.sum();
+    }
+
+    @Override
+    public long getFailedFlushCount() {
+        return failedFlushCount.sum();
+    }
+
+    /**
+     * Actualizacion pendiente junto al instante de la primera actualizacion del Funko que aun no se ha escrito.
+     */
+    private record Pending(Funko funko, long since) {
+    }
+}
@@ -0,0 +1,46 @@
+package org.develop.services.funkos;
+
+/**
+ * Metricas de la escritura diferida de actualizaciones de Funkos publicadas por JMX.
+ */
+public interface FunkoWriteBehindMXBean {
+    /**
+     * @return El numero de Funkos con actualizaciones pendientes de escribir en la base de datos.
+     */
+    int getPendingCount();
+
+    /**
+     * @return Milisegundos que lleva sin escribirse la actualizacion pendiente mas antigua, o 0 si no hay ninguna.
+     */
+    long getFlushLagMillis();
+
+    /**
+     * @return Milisegundos que esperaron en el ultimo volcado las actualizaciones mas antiguas hasta llegar a la BD.
+     */
+    long getLastFlushLagMillis();
+
+    /**
+     * @return La mayor espera en milisegundos de una actualizacion hasta llegar a la BD.
+     */
+    long getMaxFlushLagMillis();
+
+    /**
+     * @return El numero de volcados a la base de datos que han terminado bien.
+     */
+    long getFlushCount();
+
+    /**
+     * @return El numero de Funkos escritos en la base de datos.
+     */
+    long getFlushedCount();
+
+    /**
+     * @return El numero de actualizaciones que sustituyeron a otra pendiente del mismo Funko y no llegaron a escribirse.
+     */
+    long getCoalescedCount();
+
+    /**
+     * @return El numero de volcados que fallaron y se reintentaran.
+     */
+    long getFailedFlushCount();
+}
@@ -0,0 +1,592 @@
+package org.develop.services.funkos;
+
+import lombok.Getter;
+import org.develop.model.Funko;
+import org.develop.model.Modelo;
+import org.develop.services.cache.CacheStats;
+import org.develop.services.cache.StatsCounter;
+import org.develop.services.executor.IOExecutors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Collection;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+/**
+ * Cache de objetos Funko fuera del heap de Java, pensada como segundo nivel de FunkoCacheImpl para poder guardar el
+ * catalogo completo sin que el recolector de basura tenga que recorrer millones de objetos.
+ *
+ * Cada Funko se serializa en una ranura de tamano fijo ({@link #SLOT_SIZE} bytes) dentro de ByteBuffers directos
+ * reservados por bloques a medida que hacen falta. El indice que relaciona cada ID con su ranura es una tabla hash de
+ * direccionamiento abierto (sondeo lineal con borrado por desplazamiento hacia atras), tambien en memoria directa. En
+ * el heap solo quedan unos pocos objetos, sea cual sea el numero de entradas.
+ *
+ * Cuando no quedan ranuras libres se expulsa una entrada con el algoritmo CLOCK: cada lectura marca la ranura como
+ * usada y la manecilla recorre las ranuras quitando la marca hasta encontrar una sin ella. Los nombres de mas de
+ * {@link #MAX_NAME_BYTES} bytes en UTF-8 no caben en una ranura y esos Funkos no se guardan.
+ *
+ * Cada lectura crea un Funko nuevo a partir de los bytes, asi que los cambios sobre el objeto devuelto no afectan a la
+ * cache.
+ */
+public class OffHeapFunkoCache implements FunkoCache {
+    /**
+     * Bytes que ocupa cada Funko fuera del heap.
+     */
+    public static final int SLOT_SIZE = 128;
+    /**
+     * Longitud maxima en bytes UTF-8 del nombre de un Funko para que quepa en una ranura.
+     */
+    public static final int MAX_NAME_BYTES = 52;
+
+    private static final int SLOTS_PER_CHUNK = 1 << 16;
+    private static final int EMPTY = -1;
+    private static final Modelo[] MODELOS = Modelo.values();
+
+    // Disposicion de una ranura
+    private static final int ID = 0;
+    private static final int FLAGS = 4;
+    private static final int MODELO = 5;
+    private static final int NAME_LENGTH = 6;
+    private static final int MY_ID = 8;
+    private static final int UUID_MSB = 16;
+    private static final int UUID_LSB = 24;
+    private static final int PRECIO = 32;
+    private static final int WRITE_TIME = 40;
+    private static final int CREATED_SECONDS = 48;
+    private static final int CREATED_NANOS = 56;
+    private static final int UPDATED_SECONDS = 60;
+    private static final int UPDATED_NANOS = 68;
+    private static final int FECHA_LANZAMIENTO = 72;
+    private static final int NAME = 76;
+
+    private static final int USED = 1;
+    private static final int REFERENCED = 1 << 1;
+    private static final int HAS_UUID = 1 << 2;
+    private static final int HAS_FECHA = 1 << 3;
+    private static final int HAS_CREATED = 1 << 4;
+    private static final int HAS_UPDATED = 1 << 5;
+
+    private final Logger logger = LoggerFactory.getLogger(OffHeapFunkoCache.class);
+    @Getter
+    private final int maxSize;
+    private final ByteBuffer[] chunks;
+    private final ByteBuffer index;
+    private final int indexMask;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Executor executor;
+    private final LongSupplier ticker;
+    private final long expireAfterWriteNanos;
+    private final StatsCounter statsCounter = new StatsCounter();
+    private final Map<Integer, Object> loads = new ConcurrentHashMap<>();
+    private int size;
+    private int nextUnused;
+    private int freeHead = EMPTY;
+    private int clockHand;
+
+    /**
+     * Crea una cache fuera del heap sin caducidad que trabaja en el executor de cache compartido.
+     *
+     * @param maxSize El numero maximo de Funkos.
+     */
+    public OffHeapFunkoCache(int maxSize) {
+        this(maxSize, null, System::nanoTime, IOExecutors.cache());
+    }
+
+    /**
+     * Crea una cache fuera del heap.
+     *
+     * @param maxSize          El numero maximo de Funkos.
+     * @param expireAfterWrite Tiempo que un Funko puede permanecer en la cache desde que se guardo, o null para no caducar.
+     * @param ticker           Fuente de tiempo en nanosegundos.
+     * @param executor         El executor en el que se completan las operaciones asincronas de la cache.
+     */
+    public OffHeapFunkoCache(int maxSize, Duration expireAfterWrite, LongSupplier ticker, Executor executor) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("El tamano de la cache debe ser mayor que 0");
+        }
+        this.maxSize = maxSize;
+        this.expireAfterWriteNanos = expireAfterWrite == null ? Long.MAX_VALUE : expireAfterWrite.toNanos();
+        this.ticker = ticker;
+        this.executor = executor;
+        this.chunks = new ByteBuffer[(maxSize + SLOTS_PER_CHUNK - 1) / SLOTS_PER_CHUNK];
+        // Ocupacion maxima del 50% para que el sondeo lineal recorra pocas posiciones
+        int capacity = Integer.highestOneBit(Math.max(2, maxSize) - 1) << 2;
+        this.indexMask = capacity - 1;
+        this.index = ByteBuffer.allocateDirect(capacity * Long.BYTES);
+        for (int i = 0; i < capacity; i++) {
+            setIndexSlot(i, EMPTY);
+        }
+    }
+
+    /**
+     * Anade un objeto Funko a la cache.
+     *
+     * @param key   La clave asociada al objeto Funko.
+     * @param value El objeto Funko a ser almacenado en la cache.
+     * @return Un CompletableFuture que se completa cuando la operacion de anadir ha terminado.
+     */
+    @Override
+    public CompletableFuture<Void> put(Integer key, Funko value) {
+        loads.remove(key);
+        return IOExecutors.runAsync(() -> {
+            logger.debug("Añadiendo Funko a la cache fuera del heap");
+            store(key, value, ticker.getAsLong());
+        }, executor);
+    }
+
+    /**
+     * Obtiene un objeto Funko de la cache utilizando su clave.
+     *
+     * @param key La clave del objeto Funko a obtener.
+     * @return Un CompletableFuture que contendra un Optional con el objeto Funko si se encuentra en la cache, o un Optional vacio si no se encuentra.
+     */
+    @Override
+    public CompletableFuture<Optional<Funko>> get(Integer key) {
+        return IOExecutors.supplyAsync(() -> Optional.ofNullable(getIfPresent(key)), executor);
+    }
+
+    /**
+     * Obtiene un objeto Funko de la cache en el hilo que llama, sin pasar por el executor.
+     *
+     * @param key La clave del objeto Funko a obtener.
+     * @return Una copia del objeto Funko si se encuentra en la cache y no ha caducado, o null en otro caso.
+     */
+    @Override
+    public Funko getIfPresent(Integer key) {
+        long now = ticker.getAsLong();
+        lock.readLock().lock();
+        try {
+            int pos = find(key);
+            if (pos != EMPTY) {
+                int slot = indexSlot(pos);
+                ByteBuffer chunk = chunk(slot);
+                int base = base(slot);
+                if (now - chunk.getLong(base + WRITE_TIME) < expireAfterWriteNanos) {
+                    // Varios lectores pueden marcar la misma ranura a la vez: todos escriben el mismo valor
+                    chunk.put(base + FLAGS, (byte) (chunk.get(base + FLAGS) | REFERENCED));
+                    statsCounter.recordHit();
+                    return read(chunk, base);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        statsCounter.recordMiss();
+        return null;
+    }
+
+    /**
+     * Obtiene un objeto Funko de la cache o, si no esta, lo carga con la funcion indicada y lo almacena en la cache.
+     * Si mientras tanto se guarda o se borra la clave, o empieza otra carga de la misma clave, el resultado se
+     * devuelve pero no se guarda, porque podria ser anterior al valor actual.
+     *
+     * @param key    La clave del objeto Funko a obtener.
+     * @param loader La funcion que carga el objeto Funko cuando no esta en la cache.
+     * @return Un CompletableFuture que contendra un Optional con el objeto Funko, o un Optional vacio si no existe.
+     */
+    @Override
+    public CompletableFuture<Optional<Funko>> get(Integer key, Function<? super Integer, CompletableFuture<Optional<Funko>>> loader) {
+        Funko cached = getIfPresent(key);
+        if (cached != null) {
+            return CompletableFuture.completedFuture(Optional.of(cached));
+        }
+        Object token = new Object();
+        loads.put(key, token);
+        long start = System.nanoTime();
+        return loader.apply(key).whenComplete((value, error) -> {
+            if (error != null) {
+                loads.remove(key, token);
+                statsCounter.recordLoadFailure(System.nanoTime() - start);
+                return;
+            }
+            statsCounter.recordLoadSuccess(System.nanoTime() - start);
+            // Se comprueba con el cerrojo de escritura tomado para que un put o un remove no se cuele antes de guardar
+            lock.writeLock().lock();
+            try {
+                if (loads.remove(key, token)) {
+                    value.ifPresent(fk -> store(key, fk, ticker.getAsLong()));
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    /**
+     * Borra un objeto Funko de la cache utilizando su clave.
+     *
+     * @param key La clave del objeto Funko a borrar.
+     * @return Un CompletableFuture que se completa cuando la operacion de borrado ha terminado.
+     */
+    @Override
+    public CompletableFuture<Void> remove(Integer key) {
+        loads.remove(key);
+        return IOExecutors.runAsync(() -> discard(key), executor);
+    }
+
+    /**
+     * Borra varios objetos Funko de la cache con una sola tarea.
+     *
+     * @param keys Las claves de los objetos Funko a borrar.
+     * @return Un CompletableFuture que se completa cuando la operacion de borrado ha terminado.
+     */
+    @Override
+    public CompletableFuture<Void> removeAll(Collection<Integer> keys) {
+        keys.forEach(loads::remove);
+        return IOExecutors.runAsync(() -> keys.forEach(this::discard), executor);
+    }
+
+    /**
+     * Elimina todos los objetos Funko de la cache. La memoria directa reservada se conserva para reutilizarla.
+     *
+     * @return Un CompletableFuture que se completa cuando la operacion de limpieza ha terminado.
+     */
+    @Override
+    public CompletableFuture<Void> clear() {
+        loads.clear();
+        return IOExecutors.runAsync(this::clearNow, executor);
+    }
+
+    /**
+     * Obtiene una instantanea de las estadisticas de la cache.
+     *
+     * @return Las estadisticas acumuladas desde que se creo la cache.
+     */
+    @Override
+    public CacheStats stats() {
+        return statsCounter.snapshot(size(), 0);
+    }
+
+    /**
+     * La cache no tiene tareas propias que detener.
+     *
+     * @return Un CompletableFuture ya completado.
+     */
+    @Override
+    public CompletableFuture<Void> shutdown() {
+        return CompletableFuture.completedFuture(null);
+    }
+
+    /**
+     * Obtiene el numero de objetos Funko almacenados en la cache, incluidos los caducados que aun no se han liberado.
+     *
+     * @return El numero de elementos de la cache.
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Obtiene la memoria directa reservada por la cache: las ranuras de los bloques ya creados mas el indice.
+     *
+     * @return El tamano reservado en bytes.
+     */
+    public long getReservedBytes() {
+        lock.readLock().lock();
+        try {
+            long bytes = index.capacity();
+            for (ByteBuffer chunk : chunks) {
+                if (chunk != null) {
+                    bytes += chunk.capacity();
+                }
+            }
+            return bytes;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Guarda un Funko con el instante de escritura indicado, sustituyendo el que hubiera con la misma clave.
+     *
+     * @return false si el Funko no cabe en una ranura y no se ha guardado.
+     */
+    boolean store(Integer key, Funko value, long writeTime) {
+        byte[] name = value.getName() == null ? null : value.getName().getBytes(StandardCharsets.UTF_8);
+        if (name != null && name.length > MAX_NAME_BYTES) {
+            discard(key);
+            return false;
+        }
+        lock.writeLock().lock();
+        try {
+            int pos = find(key);
+            int slot;
+            if (pos != EMPTY) {
+                slot = indexSlot(pos);
+            } else {
+                slot = allocate();
+                insert(key, slot);
+                size++;
+            }
+            write(chunk(slot), base(slot), key, value, name, writeTime);
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Saca un Funko de la cache, si esta y no ha caducado, junto con su instante de escritura.
+     */
+    Stored take(Integer key, long now) {
+        lock.writeLock().lock();
+        try {
+            int pos = find(key);
+            if (pos == EMPTY) {
+                statsCounter.recordMiss();
+                return null;
+            }
+            int slot = indexSlot(pos);
+            ByteBuffer chunk = chunk(slot);
+            int base = base(slot);
+            long writeTime = chunk.getLong(base + WRITE_TIME);
+            Funko value = now - writeTime < expireAfterWriteNanos ? read(chunk, base) : null;
+            if (value == null) {
+                statsCounter.recordExpiryEviction();
+                statsCounter.recordMiss();
+            } else {
+                statsCounter.recordHit();
+            }
+            release(pos, slot);
+            return value == null ? null : new Stored(value, writeTime);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Elimina un Funko de la cache si esta.
+     */
+    void discard(Integer key) {
+        lock.writeLock().lock();
+        try {
+            int pos = find(key);
+            if (pos != EMPTY) {
+                release(pos, indexSlot(pos));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void clearNow() {
+        lock.writeLock().lock();
+        try {
+            for (int i = 0; i <= indexMask; i++) {
+                setIndexSlot(i, EMPTY);
+            }
+            for (int slot = 0; slot < nextUnused; slot++) {
+                chunk(slot).put(base(slot) + FLAGS, (byte) 0);
+            }
+            size = 0;
+            nextUnused = 0;
+            freeHead = EMPTY;
+            clockHand = 0;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Funko sacado de la cache junto con el instante en que se guardo.
+     */
+    record Stored(Funko value, long writeTime) {
+    }
+
+    private int allocate() {
+        if (freeHead != EMPTY) {
+            int slot = freeHead;
+            freeHead = chunk(slot).getInt(base(slot) + ID);
+            return slot;
+        }
+        if (nextUnused < maxSize) {
+            int slot = nextUnused++;
+            int c = slot / SLOTS_PER_CHUNK;
+            if (chunks[c] == null) {
+                int slots = Math.min(SLOTS_PER_CHUNK, maxSize - c * SLOTS_PER_CHUNK);
+                chunks[c] = ByteBuffer.allocateDirect(slots * SLOT_SIZE);
+            }
+            return slot;
+        }
+        return evict();
+    }
+
+    /**
+     * Algoritmo CLOCK: da una segunda oportunidad a las ranuras leidas desde la ultima pasada de la manecilla.
+     */
+    private int evict() {
+        while (true) {
+            int slot = clockHand;
+            clockHand = clockHand + 1 == maxSize ? 0 : clockHand + 1;
+            ByteBuffer chunk = chunk(slot);
+            int base = base(slot);
+            byte flags = chunk.get(base + FLAGS);
+            if ((flags & REFERENCED) != 0) {
+                chunk.put(base + FLAGS, (byte) (flags & ~REFERENCED));
+                continue;
+            }
+            int key = chunk.getInt(base + ID);
+            deleteAt(find(key));
+            size--;
+            statsCounter.recordSizeEviction();
+            return slot;
+        }
+    }
+
+    private void release(int pos, int slot) {
+        deleteAt(pos);
+        ByteBuffer chunk = chunk(slot);
+        int base = base(slot);
+        chunk.put(base + FLAGS, (byte) 0);
+        chunk.putInt(base + ID, freeHead);
+        freeHead = slot;
+        size--;
+    }
+
+    private void write(ByteBuffer chunk, int base, int key, Funko value, byte[] name, long writeTime) {
+        int flags = USED;
+        chunk.putInt(base + ID, key);
+        chunk.put(base + MODELO, (byte) (value.getModelo() == null ? -1 : value.getModelo().ordinal()));
+        chunk.put(base + NAME_LENGTH, (byte) (name == null ? -1 : name.length));
+        chunk.putLong(base + MY_ID, value.getMyId());
+        if (value.getUuid() != null) {
+            flags |= HAS_UUID;
+            chunk.putLong(base + UUID_MSB, value.getUuid().getMostSignificantBits());
+            chunk.putLong(base + UUID_LSB, value.getUuid().getLeastSignificantBits());
+        }
+        chunk.putDouble(base + PRECIO, value.getPrecio());
+        chunk.putLong(base + WRITE_TIME, writeTime);
+        if (value.getCreated_at() != null) {
+            flags |= HAS_CREATED;
+            chunk.putLong(base + CREATED_SECONDS, value.getCreated_at().toEpochSecond(ZoneOffset.UTC));
+            chunk.putInt(base + CREATED_NANOS, value.getCreated_at().getNano());
+        }
+        if (value.getUpdated_at() != null) {
+            flags |= HAS_UPDATED;
+            chunk.putLong(base + UPDATED_SECONDS, value.getUpdated_at().toEpochSecond(ZoneOffset.UTC));
+            chunk.putInt(base + UPDATED_NANOS, value.getUpdated_at().getNano());
+        }
+        if (value.getFecha_lanzamiento() != null) {
+            flags |= HAS_FECHA;
+            chunk.putInt(base + FECHA_LANZAMIENTO, (int) value.getFecha_lanzamiento().toEpochDay());
+        }
+        if (name != null) {
+            chunk.put(base + NAME, name);
+        }
+        chunk.put(base + FLAGS, (byte) flags);
+    }
+
+    private Funko read(ByteBuffer chunk, int base) {
+        byte flags = chunk.get(base + FLAGS);
+        Funko fk = new Funko();
+        fk.setId(chunk.getInt(base + ID));
+        fk.setMyId(chunk.getLong(base + MY_ID));
+        if ((flags & HAS_UUID) != 0) {
+            fk.setUuid(new UUID(chunk.getLong(base + UUID_MSB), chunk.getLong(base + UUID_LSB)));
+        }
+        int nameLength = chunk.get(base + NAME_LENGTH);
+        if (nameLength >= 0) {
+            byte[] name = new byte[nameLength];
+            chunk.get(base + NAME, name);
+            fk.setName(new String(name, StandardCharsets.UTF_8));
+        }
+        byte modelo = chunk.get(base + MODELO);
+        fk.setModelo(modelo < 0 ? null : MODELOS[modelo]);
+        fk.setPrecio(chunk.getDouble(base + PRECIO));
+        fk.setFecha_lanzamiento((flags & HAS_FECHA) == 0 ? null
+                : LocalDate.ofEpochDay(chunk.getInt(base + FECHA_LANZAMIENTO)));
+        fk.setCreated_at((flags & HAS_CREATED) == 0 ? null : LocalDateTime.ofEpochSecond(
+                chunk.getLong(base + CREATED_SECONDS), chunk.getInt(base + CREATED_NANOS), ZoneOffset.UTC));
+        fk.setUpdated_at((flags & HAS_UPDATED) == 0 ? null : LocalDateTime.ofEpochSecond(
+                chunk.getLong(base + UPDATED_SECONDS), chunk.getInt(base + UPDATED_NANOS), ZoneOffset.UTC));
+        return fk;
+    }
+
+    private ByteBuffer chunk(int slot) {
+        return chunks[slot / SLOTS_PER_CHUNK];
+    }
+
+    private static int base(int slot) {
+        return (slot % SLOTS_PER_CHUNK) * SLOT_SIZE;
+    }
+
+    // Indice: cada posicion ocupa 8 bytes, la clave y la ranura; una ranura EMPTY indica posicion libre
+
+    private int find(int key) {
+        for (int pos = home(key); ; pos = (pos + 1) & indexMask) {
+            int slot = indexSlot(pos);
+            if (slot == EMPTY) {
+                return EMPTY;
+            }
+            if (index.getInt(pos * Long.BYTES) == key) {
+                return pos;
+            }
+        }
+    }
+
+    private void insert(int key, int slot) {
+        int pos = home(key);
+        while (indexSlot(pos) != EMPTY) {
+            pos = (pos + 1) & indexMask;
+        }
+        index.putInt(pos * Long.BYTES, key);
+        setIndexSlot(pos, slot);
+    }
+
+    /**
+     * Borra una posicion del indice desplazando hacia atras las siguientes de la misma secuencia de sondeo, de forma
+     * que no hacen falta marcas de borrado y las busquedas nunca se alargan.
+     */
+    private void deleteAt(int hole) {
+        int pos = hole;
+        while (true) {
+            pos = (pos + 1) & indexMask;
+            int slot = indexSlot(pos);
+            if (slot == EMPTY) {
+                break;
+            }
+            int key = index.getInt(pos * Long.BYTES);
+            int home = home(key);
+            boolean stays = hole <= pos ? hole < home && home <= pos : hole < home || home <= pos;
+            if (!stays) {
+                index.putInt(hole * Long.BYTES, key);
+                setIndexSlot(hole, slot);
+                hole = pos;
+            }
+        }
+        setIndexSlot(hole, EMPTY);
+    }
+
+    private int indexSlot(int pos) {
+        return index.getInt(pos * Long.BYTES + Integer.BYTES);
+    }
+
+    private void setIndexSlot(int pos, int slot) {
+        index.putInt(pos * Long.BYTES + Integer.BYTES, slot);
+    }
+
+    private int home(int key) {
+        int h = key * 0x9E3779B9;
+        return (h ^ (h >>> 16)) & indexMask;
+    }
+}
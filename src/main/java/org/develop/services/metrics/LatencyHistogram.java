@@ -0,0 +1,105 @@
+package org.develop.services.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histograma de latencias con cubetas de potencias de dos, pensado para registrarse desde muchos hilos a la vez sin
+ * bloqueos ni reservas de memoria: cada cubeta es un LongAdder.
+ *
+ * La cubeta i cuenta los valores en el intervalo [2^(i-1), 2^i), por lo que los percentiles que devuelve son una
+ * cota superior con un error de como mucho el doble del valor real.
+ *
+ * @author Alonso Cruz, Joselyn Obando
+ */
+public class LatencyHistogram {
+    private static final int BUCKETS = 64;
+
+    private final LongAdder[] buckets = new LongAdder[BUCKETS];
+    private final LongAdder count = new LongAdder();
+    private final LongAdder total = new LongAdder();
+
+    /**
+     * Crea un histograma vacio.
+     */
+    public LatencyHistogram() {
+        for (int i = 0; i < BUCKETS; i++) {
+            buckets[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * Registra un valor. Los valores negativos se registran como 0.
+     *
+     * @param value El valor a registrar, en la unidad que elija quien use el histograma.
+     */
+    public void record(long value) {
+        long v = Math.max(0, value);
+        buckets[BUCKETS - Long.numberOfLeadingZeros(v)].increment();
+        count.increment();
+        total.add(v);
+    }
+
+    /**
+     * Obtiene el numero de valores registrados.
+     *
+     * @return El numero de valores registrados.
+     */
+    public long getCount() {
+        return count.sum();
+    }
+
+    /**
+     * Obtiene la media de los valores registrados.
+     *
+     * @return La media, o 0 si no hay valores.
+     */
+    public double getMean() {
+        long n = count.sum();
+        return n == 0 ? 0 : (double) total.sum() / n;
+    }
+
+    /**
+     * Obtiene una cota superior del percentil indicado.
+     *
+     * @param percentile El percentil, entre 0 y 100.
+     * @return El limite superior de la cubeta que contiene el percentil, o 0 si no hay valores.
+     */
+    public long getPercentile(double percentile) {
+        long[] counts = getBucketCounts();
+        long n = 0;
+        for (long c : counts) {
+            n += c;
+        }
+        if (n == 0) {
+            return 0;
+        }
+        long target = (long) Math.ceil(n * percentile / 100.0);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts[i];
+            if (seen >= Math.max(1, target)) {
+                return i == 0 ? 0 : (1L << i) - 1;
+            }
+        }
+        return Long.MAX_VALUE;
+    }
+
+    /**
+     * Obtiene una copia de los contadores de cada cubeta. La cubeta i cuenta los valores en [2^(i-1), 2^i).
+     *
+     * @return Los contadores de las cubetas.
+     */
+    public long[] getBucketCounts() {
+        long[] counts = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = buckets[i].sum();
+        }
+        return counts;
+    }
+
+    @Override
+    public String toString() {
+        return "count=" + getCount() + ", mean=" + String.format("%.1f", getMean())
+                + ", p50<=" + getPercentile(50) + ", p99<=" + getPercentile(99);
+    }
+}
@@ -0,0 +1,95 @@
+package org.develop.backupManager;
+
+import org.develop.model.Funko;
+import org.develop.services.files.AsyncCsvReader;
+import org.develop.services.files.ImportConfig;
+import org.develop.services.files.ImportResult;
+import org.develop.services.files.ParallelCsvImporter;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AsyncCsvReaderTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void readsSameFunkosAsParallelImporter() throws Exception {
+        Path csv = Paths.get("data", "funkos.csv");
+        var expected = new ParallelCsvImporter().importFile(csv);
+        List<long[]> progress = new CopyOnWriteArrayList<>();
+        // Bloques de 50 bytes: las lineas quedan repartidas entre varias lecturas
+        var reader = new AsyncCsvReader(ImportConfig.builder().bufferSize(50).build(), ForkJoinPool.commonPool());
+
+        ImportResult result = reader.read(csv, (rows, bytes) -> progress.add(new long[]{rows, bytes})).get(5, TimeUnit.SECONDS);
+
+        long[] last = progress.get(progress.size() - 1);
+        assertAll(
+                ()-> assertEquals(expected.getFunkos().stream().map(Funko::getUuid).toList(), result.getFunkos().stream().map(Funko::getUuid).toList()),
+                ()-> assertEquals(expected.getLines(), result.getLines()),
+                ()-> assertEquals(90, last[0]),
+                ()-> assertEquals(Files.size(csv), last[1]),
+                ()-> assertTrue(progress.size() > 100)
+        );
+    }
+
+    @Test
+    void badLinesReportedWithLineNumbers() throws Exception {
+        Path csv = Files.writeString(dir.resolve("bad.csv"), "COD,NOMBRE,MODELO,PRECIO,FECHA_LANZAMIENTO\r\n"
+                + "3b6c6f58-79b9-434b-82ab-01a2d6e4434a,Spiderman Delight,MARVEL,15.99,2022-05-01\r\n"
+                + "a1b2c3d4-1234-5678-90ab-cdef12345678,Naruto,SHONEN,9.99,2023-01-01\r\n"
+                + "b9c8d7e6-5432-1098-76fe-dcba98765432,Elsa,DISNEY,19.99,2021-03-05");
+        var reader = new AsyncCsvReader(ImportConfig.builder().bufferSize(8).build(), ForkJoinPool.commonPool());
+
+        ImportResult result = reader.read(csv, (rows, bytes) -> { }).get(5, TimeUnit.SECONDS);
+
+        assertAll(
+                ()-> assertEquals(List.of("Spiderman Delight", "Elsa"), result.getFunkos().stream().map(Funko::getName).toList()),
+                ()-> assertEquals(1, result.getErrors().size()),
+                ()-> assertEquals(3, result.getErrors().get(0).getLine())
+        );
+    }
+
+    @Test
+    void throttledReadReturnsImmediately() throws Exception {
+        Path csv = Paths.get("data", "funkos.csv");
+        long size = Files.size(csv);
+        // Con bloques de 1 KiB a size/2 bytes por segundo la lectura completa dura algo menos de dos segundos
+        var config = ImportConfig.builder().bufferSize(1024).maxBytesPerSecond(size / 2).build();
+        var reader = new AsyncCsvReader(config, ForkJoinPool.commonPool());
+
+        long start = System.nanoTime();
+        var future = reader.read(csv, (rows, bytes) -> { });
+        long returned = System.nanoTime() - start;
+        var result = future.get(10, TimeUnit.SECONDS);
+        long total = System.nanoTime() - start;
+
+        assertAll(
+                ()-> assertTrue(returned < TimeUnit.MILLISECONDS.toNanos(500), "read debe volver sin esperar"),
+                ()-> assertTrue(total >= TimeUnit.MILLISECONDS.toNanos(1500), "la lectura debe respetar el limite"),
+                ()-> assertEquals(90, result.getFunkos().size())
+        );
+    }
+
+    @Test
+    void missingFileFails() {
+        var reader = new AsyncCsvReader(ImportConfig.builder().build(), ForkJoinPool.commonPool());
+
+        var future = reader.read(dir.resolve("missing.csv"), (rows, bytes) -> { });
+
+        var e = assertThrows(CompletionException.class, future::join);
+        assertInstanceOf(NoSuchFileException.class, e.getCause());
+    }
+}
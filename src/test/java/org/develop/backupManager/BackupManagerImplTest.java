@@ -1,18 +1,29 @@
 package org.develop.backupManager;
 
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.stream.JsonReader;
+import org.develop.adapters.LocalDateAdapter;
+import org.develop.adapters.LocalDateTimeAdapter;
+import org.develop.adapters.FunkoTypeAdapter;
 import org.develop.model.Funko;
 import org.develop.model.Modelo;
 import org.develop.services.files.BackupManager;
 import org.develop.services.files.BackupManagerImpl;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
-import java.io.File;
-import java.nio.file.Paths;
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.UUID;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -20,6 +31,8 @@ class BackupManagerImplTest {
 
     private BackupManagerImpl backupManager;
     private Funko funko1,funko2;
+    @TempDir
+    Path tempDir;
 
     @BeforeEach
     void setup() throws Exception{
@@ -41,19 +54,59 @@ class BackupManagerImplTest {
         funko2.setFecha_lanzamiento(LocalDate.of(2026,4,10));
     }
     @Test
-    void writeFileFunko() throws ExecutionException, InterruptedException {
+    void writeFileFunko() throws Exception {
         var listFunks = List.of(funko1,funko2);
-        File file = new File(Paths.get("").toAbsolutePath().toString() + File.separator + "data" + File.separator + "testFunkos.json");
+        Path file = tempDir.resolve("testFunkos.json");
 
-        boolean res = backupManager.writeFileFunko(file.getName(),listFunks).get();
+        boolean res = backupManager.writeFileFunko(file.toString(),listFunks).get();
 
         assertAll(
                 ()-> assertTrue(res),
-                ()-> assertTrue(file.exists())
+                ()-> assertTrue(Files.exists(file)),
+                ()-> assertEquals(baselineGson().toJson(listFunks), Files.readString(file))
         );
 
     }
 
+    /**
+     * Gson con la misma configuracion con la que se escribian las copias de seguridad antes de usar FunkoTypeAdapter.
+     */
+    private static Gson baselineGson() {
+        return new GsonBuilder()
+                .registerTypeAdapter(LocalDate.class, new LocalDateAdapter())
+                .registerTypeAdapter(LocalDateTime.class, new LocalDateTimeAdapter())
+                .setPrettyPrinting()
+                .create();
+    }
+
+    @Test
+    void writeFileFunkoStream() throws Exception {
+        var closed = new AtomicBoolean();
+        var stream = Stream.of(funko1, funko2).onClose(() -> closed.set(true));
+        Path file = tempDir.resolve("testFunkosStream.json");
+
+        boolean res = backupManager.writeFileFunko(file.toString(), stream, false).get();
+
+        var json = Files.readString(file);
+        var adapter = new FunkoTypeAdapter();
+        var reader = new JsonReader(new StringReader(json));
+        reader.beginArray();
+        var first = adapter.read(reader);
+        var second = adapter.read(reader);
+        reader.endArray();
+
+        assertAll(
+                ()-> assertTrue(res),
+                ()-> assertTrue(closed.get()),
+                ()-> assertFalse(json.contains("\n")),
+                ()-> assertEquals(funko1.getUuid(), first.getUuid()),
+                ()-> assertEquals(funko1.getName(), first.getName()),
+                ()-> assertEquals(funko2.getModelo(), second.getModelo()),
+                ()-> assertEquals(funko2.getPrecio(), second.getPrecio()),
+                ()-> assertEquals(funko2.getFecha_lanzamiento(), second.getFecha_lanzamiento())
+        );
+    }
+
     @Test
     void readFileFunko() throws InterruptedException, ExecutionException {
 
@@ -0,0 +1,93 @@
+package org.develop.backupManager;
+
+import org.develop.model.Funko;
+import org.develop.model.Modelo;
+import org.develop.services.files.FunkoCsvParser;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FunkoCsvParserTest {
+
+    @Test
+    void sameResultAsSetFunko() throws IOException {
+        List<String> lines = Files.readAllLines(Paths.get("data", "funkos.csv"));
+        List<String> tricky = List.of(
+                "3B6C6F58-79B9-434B-82AB-01A2D6E4434A,Ñoño Édition,OTROS,0015.990,2024-02-29",
+                "3b6c6f58-79b9-434b-82ab-01a2d6e4434a,Precio entero,ANIME,15,2023-02-30",
+                "3b6c6f58-79b9-434b-82ab-01a2d6e4434a,Exponente,MARVEL,1e3,2023-04-31",
+                "3b6c6f58-79b9-434b-82ab-01a2d6e4434a,Negativo,DISNEY,-2.50,0999-12-31",
+                "3b6c6f58-79b9-434b-82ab-01a2d6e4434a,Sin entero,DISNEY,.5,2023-01-01,campo,de,sobra",
+                "1-2-3-4-5,UUID corto,MARVEL,12345678901234567.5,2023-01-01");
+
+        for (String line : concat(lines.subList(1, lines.size()), tricky)) {
+            Funko expected = new Funko().setFunko(line);
+            Funko actual = FunkoCsvParser.parse(line);
+            assertAll(line,
+                    ()-> assertEquals(expected.getUuid(), actual.getUuid()),
+                    ()-> assertEquals(expected.getName(), actual.getName()),
+                    ()-> assertEquals(expected.getModelo(), actual.getModelo()),
+                    ()-> assertEquals(expected.getPrecio(), actual.getPrecio()),
+                    ()-> assertEquals(expected.getFecha_lanzamiento(), actual.getFecha_lanzamiento())
+            );
+        }
+    }
+
+    @Test
+    void longUuidTruncatedLikeSetFunko() {
+        Funko fk = FunkoCsvParser.parse("f8f7ae42-5b01-4d3b-82ab-2d1a2d6e4434a,Stitch Hula,DISNEY,25.99,2023-01-01");
+
+        assertEquals(UUID.fromString("f8f7ae42-5b01-4d3b-82ab-2d1a2d6e443"), fk.getUuid());
+    }
+
+    @Test
+    void parsesSliceOfBuffer() {
+        byte[] bytes = "xx,a1b2c3d4-1234-5678-90ab-cdef12345678,Naruto,ANIME,9.99,2023-01-01\nyy".getBytes(StandardCharsets.UTF_8);
+
+        Funko fk = FunkoCsvParser.parse(bytes, 3, bytes.length - 3);
+
+        assertAll(
+                ()-> assertEquals("Naruto", fk.getName()),
+                ()-> assertEquals(Modelo.ANIME, fk.getModelo()),
+                ()-> assertEquals(9.99, fk.getPrecio()),
+                ()-> assertEquals(LocalDate.of(2023, 1, 1), fk.getFecha_lanzamiento())
+        );
+    }
+
+    @Test
+    void invalidLines() {
+        String ok = "a1b2c3d4-1234-5678-90ab-cdef12345678,Naruto,ANIME,9.99,2023-01-01";
+        Funko target = new Funko();
+        byte[] badModelo = "a1b2c3d4-1234-5678-90ab-cdef12345678,Naruto,anime,9.99,2023-01-01".getBytes(StandardCharsets.UTF_8);
+
+        assertAll(
+                ()-> assertThrows(IllegalArgumentException.class, () -> FunkoCsvParser.parse("a1b2c3d4-1234-5678-90ab-cdef12345678,Naruto,ANIME,9.99")),
+                ()-> assertThrows(IllegalArgumentException.class, () -> FunkoCsvParser.parse(ok.replace("a1b2c3d4", "z1b2c3d4"))),
+                ()-> assertThrows(IllegalArgumentException.class, () -> FunkoCsvParser.parse(ok.replace("-90ab", ""))),
+                ()-> assertThrows(IllegalArgumentException.class, () -> FunkoCsvParser.parse(ok.replace("ANIME", "ANIMES"))),
+                ()-> assertThrows(NumberFormatException.class, () -> FunkoCsvParser.parse(ok.replace("9.99", "9;99"))),
+                ()-> assertThrows(NumberFormatException.class, () -> FunkoCsvParser.parse(ok.replace("9.99", "."))),
+                ()-> assertThrows(DateTimeException.class, () -> FunkoCsvParser.parse(ok.replace("2023-01-01", "2023-13-01"))),
+                ()-> assertThrows(DateTimeException.class, () -> FunkoCsvParser.parse(ok.replace("2023-01-01", "2023-01-32"))),
+                ()-> assertThrows(DateTimeException.class, () -> FunkoCsvParser.parse(ok.replace("2023-01-01", "01/01/2023"))),
+                ()-> {
+                    assertThrows(IllegalArgumentException.class, () -> FunkoCsvParser.parseInto(badModelo, 0, badModelo.length, target));
+                    assertNull(target.getName());
+                }
+        );
+    }
+
+    private static List<String> concat(List<String> a, List<String> b) {
+        return Stream.concat(a.stream(), b.stream()).toList();
+    }
+}
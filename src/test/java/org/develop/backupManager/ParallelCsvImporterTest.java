@@ -0,0 +1,74 @@
+package org.develop.backupManager;
+
+import org.develop.model.Funko;
+import org.develop.services.files.ImportResult;
+import org.develop.services.files.ParallelCsvImporter;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ParallelCsvImporterTest {
+    private static final String HEADER = "COD,NOMBRE,MODELO,PRECIO,FECHA_LANZAMIENTO";
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void sameResultAsSequentialRead() throws IOException {
+        Path csv = Paths.get("data", "funkos.csv");
+        List<String> lines = Files.readAllLines(csv);
+        var expected = lines.subList(1, lines.size()).stream().map(line -> new Funko().setFunko(line)).toList();
+
+        // Trozos de 100 bytes: cada uno tiene una o dos lineas y los limites caen en mitad de las lineas
+        ImportResult result = new ParallelCsvImporter(new ForkJoinPool(4), 100).importFile(csv);
+
+        assertAll(
+                ()-> assertFalse(result.hasErrors()),
+                ()-> assertEquals(lines.size(), result.getLines()),
+                ()-> assertEquals(expected.stream().map(Funko::getUuid).toList(), result.getFunkos().stream().map(Funko::getUuid).toList()),
+                ()-> assertEquals(expected.get(89).getName(), result.getFunkos().get(89).getName())
+        );
+    }
+
+    @Test
+    void badLinesReportedWithLineNumbers() throws IOException {
+        Path csv = dir.resolve("bad.csv");
+        Files.writeString(csv, HEADER + "\r\n"
+                + "3b6c6f58-79b9-434b-82ab-01a2d6e4434a,Spiderman Delight,MARVEL,15.99,2022-05-01\r\n"
+                + "\r\n"
+                + "not-a-uuid,Stitch Hula,DISNEY,25.99,2023-01-01\r\n"
+                + "a1b2c3d4-1234-5678-90ab-cdef12345678,Naruto,ANIME,abc,2023-01-01\r\n"
+                + "b9c8d7e6-5432-1098-76fe-dcba98765432,Elsa,DISNEY,19.99,2021-03-05");
+
+        ImportResult result = new ParallelCsvImporter(new ForkJoinPool(2), 16).importFile(csv);
+
+        assertAll(
+                ()-> assertEquals(6, result.getLines()),
+                ()-> assertEquals(List.of("Spiderman Delight", "Elsa"), result.getFunkos().stream().map(Funko::getName).toList()),
+                ()-> assertEquals(List.of(4L, 5L), result.getErrors().stream().map(e -> e.getLine()).toList()),
+                ()-> assertEquals("not-a-uuid,Stitch Hula,DISNEY,25.99,2023-01-01", result.getErrors().get(0).getContent()),
+                ()-> assertNotNull(result.getErrors().get(1).getMessage())
+        );
+    }
+
+    @Test
+    void emptyAndHeaderOnlyFiles() throws IOException {
+        Path empty = Files.writeString(dir.resolve("empty.csv"), "");
+        Path header = Files.writeString(dir.resolve("header.csv"), HEADER + "\n");
+        var importer = new ParallelCsvImporter();
+
+        assertAll(
+                ()-> assertTrue(importer.importFile(empty).getFunkos().isEmpty()),
+                ()-> assertTrue(importer.importFile(header).getFunkos().isEmpty()),
+                ()-> assertThrows(IOException.class, () -> importer.importFile(dir.resolve("missing.csv")))
+        );
+    }
+}
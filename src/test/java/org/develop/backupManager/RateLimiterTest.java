@@ -0,0 +1,33 @@
+package org.develop.backupManager;
+
+import org.develop.services.files.RateLimiter;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RateLimiterTest {
+
+    @Test
+    void reservationsAreSpacedByRate() {
+        AtomicLong now = new AtomicLong(1_000);
+        // 1000 permisos por segundo: cada permiso cuesta un milisegundo
+        var limiter = new RateLimiter(1000, now::get);
+
+        assertAll(
+                ()-> assertEquals(0, limiter.reserve(500)),
+                ()-> assertEquals(500_000_000L, limiter.reserve(10)),
+                ()-> {
+                    now.addAndGet(1_000_000_000L);
+                    assertEquals(0, limiter.reserve(1));
+                },
+                ()-> assertEquals(1_000_000L, limiter.reserve(1))
+        );
+    }
+
+    @Test
+    void invalidRate() {
+        assertThrows(IllegalArgumentException.class, () -> new RateLimiter(0));
+    }
+}
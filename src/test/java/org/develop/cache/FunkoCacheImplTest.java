@@ -2,17 +2,35 @@ package org.develop.cache;
 
 import org.develop.model.Funko;
 import org.develop.model.Modelo;
+import org.develop.services.cache.CacheConfig;
+import org.develop.services.cache.CacheStatsJmx;
+import org.develop.services.cache.EvictionPolicy;
 import org.develop.services.funkos.FunkoCacheImpl;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
 import java.sql.SQLException;
+import java.time.Duration;
 import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.IntStream;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -72,11 +90,136 @@ class FunkoCacheImplTest {
         );
     }
 
+    @Test
+    void getIfPresentTest() {
+        funkoCache.put(funko1.getId(),funko1).join();
+
+        assertAll(
+                ()-> assertSame(funko1, funkoCache.getIfPresent(funko1.getId())),
+                ()-> assertNull(funkoCache.getIfPresent(funko2.getId()))
+        );
+    }
+
+    @Test
+    void getWithLoaderTest() throws InterruptedException {
+        var loads = new AtomicInteger();
+        var pending = new CompletableFuture<Optional<Funko>>();
+        var pool = Executors.newFixedThreadPool(8);
+        var results = new ConcurrentLinkedQueue<CompletableFuture<Optional<Funko>>>();
+
+        for (int i = 0; i < 100; i++) {
+            pool.execute(() -> results.add(funkoCache.get(funko1.getId(), key -> {
+                loads.incrementAndGet();
+                return pending;
+            })));
+        }
+        pool.shutdown();
+        pool.awaitTermination(10, TimeUnit.SECONDS);
+        pending.complete(Optional.of(funko1));
+
+        assertAll(
+                ()-> assertEquals(1, loads.get()),
+                ()-> assertEquals(100, results.size()),
+                ()-> assertTrue(results.stream().allMatch(r -> r.join().orElseThrow() == funko1)),
+                ()-> assertSame(funko1, funkoCache.getIfPresent(funko1.getId()))
+        );
+    }
+
+    @Test
+    void getWithLoaderNotFoundTest() {
+        var res = funkoCache.get(funko2.getId(), key -> CompletableFuture.completedFuture(Optional.empty())).join();
+
+        assertAll(
+                ()-> assertTrue(res.isEmpty()),
+                ()-> assertNull(funkoCache.getIfPresent(funko2.getId()))
+        );
+    }
+
+    @Test
+    void getWithLoaderRacingWriteTest() {
+        var stale = new CompletableFuture<Optional<Funko>>();
+        var loadResult = funkoCache.get(funko1.getId(), key -> stale);
+        Funko updated = new Funko();
+        updated.setId(funko1.getId());
+        updated.setName("updated");
+        funkoCache.put(funko1.getId(), updated).join();
+        stale.complete(Optional.of(funko1));
+
+        var deleted = new CompletableFuture<Optional<Funko>>();
+        funkoCache.get(funko2.getId(), key -> deleted);
+        funkoCache.remove(funko2.getId()).join();
+        deleted.complete(Optional.of(funko2));
+
+        assertAll(
+                ()-> assertSame(funko1, loadResult.join().orElseThrow()),
+                ()-> assertSame(updated, funkoCache.getIfPresent(funko1.getId())),
+                ()-> assertNull(funkoCache.getIfPresent(funko2.getId()))
+        );
+    }
+
+    @Test
+    void failedLoadIsNotNegativeCachedTest() {
+        var loads = new AtomicInteger();
+        var negCache = new FunkoCacheImpl(CacheConfig.builder().maximumSize(10).negativeMaximumSize(10).build(), Runnable::run);
+        Function<Integer, CompletableFuture<Optional<Funko>>> loader = key -> loads.incrementAndGet() == 1
+                ? CompletableFuture.failedFuture(new SQLException("Timeout al obtener una conexion"))
+                : CompletableFuture.completedFuture(Optional.of(funko1));
+
+        var failed = negCache.get(funko1.getId(), loader);
+        var retried = negCache.get(funko1.getId(), loader).join();
+
+        assertAll(
+                ()-> assertThrows(CompletionException.class, failed::join),
+                ()-> assertSame(funko1, retried.orElseThrow()),
+                ()-> assertEquals(2, loads.get()),
+                ()-> assertEquals(0, negCache.stats().getNegativeSize())
+        );
+        negCache.shutdown().join();
+    }
+
+    @Test
+    void negativeCacheTest() {
+        var now = new AtomicLong();
+        var loads = new AtomicInteger();
+        var config = CacheConfig.builder().maximumSize(10).negativeMaximumSize(2)
+                .negativeExpireAfterWrite(Duration.ofSeconds(10)).ticker(now::get).build();
+        var negCache = new FunkoCacheImpl(config, Runnable::run);
+        Function<Integer, CompletableFuture<Optional<Funko>>> notFound = key -> {
+            loads.incrementAndGet();
+            return CompletableFuture.completedFuture(Optional.empty());
+        };
+
+        negCache.get(1, notFound).join();
+        negCache.get(1, notFound).join();
+        int loadsBeforeExpiry = loads.get();
+        now.addAndGet(Duration.ofSeconds(10).toNanos());
+        negCache.get(1, notFound).join();
+        int loadsAfterExpiry = loads.get();
+
+        negCache.put(funko2.getId(), funko2);
+        var afterPut = negCache.get(funko2.getId(), notFound).join();
+
+        negCache.get(3, notFound).join();
+        negCache.get(4, notFound).join();
+        negCache.get(5, notFound).join();
+        negCache.get(1, notFound).join();
+
+        assertAll(
+                ()-> assertEquals(1, loadsBeforeExpiry),
+                ()-> assertEquals(2, loadsAfterExpiry),
+                ()-> assertSame(funko2, afterPut.orElseThrow()),
+                ()-> assertEquals(6, loads.get()),
+                ()-> assertEquals(2, negCache.stats().getNegativeSize()),
+                ()-> assertEquals(1, negCache.stats().getNegativeHitCount())
+        );
+        negCache.shutdown().join();
+    }
+
     @Test
     void removeTest() {
         funkoCache.put(funko1.getId(),funko1).join();
         funkoCache.put(funko2.getId(),funko2).join();
-        funkoCache.remove(funko1.getId());
+        funkoCache.remove(funko1.getId()).join();
 
         assertAll(
                 ()-> assertFalse(funkoCache.getCache().isEmpty()),
@@ -84,12 +227,30 @@ class FunkoCacheImplTest {
         );
     }
 
+    @Test
+    void removeAllTest() {
+        var negCache = new FunkoCacheImpl(CacheConfig.builder().maximumSize(10).negativeMaximumSize(10).build(), Runnable::run);
+        Function<Integer, CompletableFuture<Optional<Funko>>> notFound = key -> CompletableFuture.completedFuture(Optional.empty());
+        negCache.put(funko1.getId(),funko1).join();
+        negCache.get(funko2.getId(), notFound).join();
+
+        negCache.removeAll(List.of(funko1.getId(), funko2.getId())).join();
+        var afterRemove = negCache.get(funko2.getId(), key -> CompletableFuture.completedFuture(Optional.of(funko2))).join();
+
+        assertAll(
+                ()-> assertNull(negCache.getIfPresent(funko1.getId())),
+                ()-> assertSame(funko2, afterRemove.orElseThrow()),
+                ()-> assertEquals(0, negCache.stats().getNegativeSize())
+        );
+        negCache.shutdown().join();
+    }
+
     @Test
     void clearTest() {
-        funkoCache.put(funko1.getId(),funko1);
-        funkoCache.put(funko2.getId(),funko2);
+        funkoCache.put(funko1.getId(),funko1).join();
+        funkoCache.put(funko2.getId(),funko2).join();
 
-        funkoCache.clear();
+        funkoCache.clear().join();
         assertAll(
                 ()-> assertTrue(funkoCache.getCache().isEmpty())
         );
@@ -106,9 +267,289 @@ class FunkoCacheImplTest {
         );
     }
 
+    @Test
+    void expireAfterWriteTest() {
+        var now = new AtomicLong();
+        var config = CacheConfig.builder().maximumSize(10)
+                .expireAfterWrite(Duration.ofSeconds(60)).ticker(now::get).build();
+        var ttlCache = new FunkoCacheImpl(config, Runnable::run);
+        ttlCache.put(funko1.getId(),funko1).join();
+
+        now.addAndGet(Duration.ofSeconds(30).toNanos());
+        var beforeExpiry = ttlCache.getIfPresent(funko1.getId());
+        ttlCache.put(funko2.getId(),funko2).join();
+        now.addAndGet(Duration.ofSeconds(30).toNanos());
+
+        assertAll(
+                ()-> assertSame(funko1, beforeExpiry),
+                ()-> assertNull(ttlCache.getIfPresent(funko1.getId())),
+                ()-> assertSame(funko2, ttlCache.getIfPresent(funko2.getId())),
+                ()-> assertEquals(1, ttlCache.size())
+        );
+        ttlCache.shutdown().join();
+    }
+
+    @Test
+    void expireAfterAccessTest() {
+        var now = new AtomicLong();
+        var config = CacheConfig.builder().maximumSize(10).expireAfterWrite(null)
+                .expireAfterAccess(Duration.ofSeconds(60)).ticker(now::get).build();
+        var ttlCache = new FunkoCacheImpl(config, Runnable::run);
+        ttlCache.put(funko1.getId(),funko1).join();
+        ttlCache.put(funko2.getId(),funko2).join();
+
+        for (int i = 0; i < 3; i++) {
+            now.addAndGet(Duration.ofSeconds(40).toNanos());
+            ttlCache.getIfPresent(funko1.getId());
+        }
+
+        assertAll(
+                ()-> assertSame(funko1, ttlCache.getIfPresent(funko1.getId())),
+                ()-> assertNull(ttlCache.getIfPresent(funko2.getId()))
+        );
+        ttlCache.shutdown().join();
+    }
+
+    @Test
+    void cleanUpTest() {
+        var now = new AtomicLong();
+        var config = CacheConfig.builder().maximumSize(100)
+                .expireAfterWrite(Duration.ofSeconds(60)).ticker(now::get).build();
+        var ttlCache = new FunkoCacheImpl(config, Runnable::run);
+        for (int i = 0; i < 50; i++) {
+            Funko fk = new Funko();
+            fk.setId(i);
+            ttlCache.put(i, fk).join();
+        }
+        now.addAndGet(Duration.ofSeconds(61).toNanos());
+        ttlCache.put(funko1.getId(),funko1).join();
+        ttlCache.cleanUp();
+
+        assertAll(
+                ()-> assertEquals(1, ttlCache.size()),
+                ()-> assertEquals(1, ttlCache.getCache().size())
+        );
+        ttlCache.shutdown().join();
+    }
+
+    @Test
+    void cleanUpAfterAccessWithTinyLfuTest() {
+        var now = new AtomicLong();
+        var config = CacheConfig.builder().maximumSize(10).evictionPolicy(EvictionPolicy.TINY_LFU)
+                .expireAfterWrite(null).expireAfterAccess(Duration.ofSeconds(60)).ticker(now::get).build();
+        var ttlCache = new FunkoCacheImpl(config, Runnable::run);
+        IntStream.range(0, 8).forEach(i -> ttlCache.put(i, new Funko()).join());
+        IntStream.range(0, 7).forEach(ttlCache::getIfPresent);
+        now.addAndGet(Duration.ofSeconds(30).toNanos());
+        ttlCache.put(8, new Funko()).join();
+        ttlCache.put(9, new Funko()).join();
+        // 7 pasa a la zona protegida y 0, leido por ultima vez hace 30 segundos, baja al final de la cola a prueba
+        ttlCache.getIfPresent(7);
+        now.addAndGet(Duration.ofSeconds(40).toNanos());
+        ttlCache.cleanUp();
+
+        assertAll(
+                ()-> assertEquals(3, ttlCache.size()),
+                ()-> assertEquals(7, ttlCache.stats().getExpiryEvictionCount())
+        );
+        ttlCache.shutdown().join();
+    }
+
+    @Test
+    void tinyLfuKeepsHotEntriesTest() {
+        double lru = hotHitRatio(EvictionPolicy.LRU);
+        double tinyLfu = hotHitRatio(EvictionPolicy.TINY_LFU);
+
+        assertAll(
+                ()-> assertTrue(tinyLfu > 0.9, "TinyLFU: " + tinyLfu),
+                ()-> assertTrue(lru < 0.1, "LRU: " + lru)
+        );
+    }
+
+    private double hotHitRatio(EvictionPolicy policy) {
+        var config = CacheConfig.builder().maximumSize(100).evictionPolicy(policy).expireAfterWrite(null).build();
+        var policyCache = new FunkoCacheImpl(config, Runnable::run);
+        int hits = 0, lookups = 0;
+        // 20 Funkos consultados a menudo mezclados con un recorrido de 20.000 Funkos que solo se piden una vez
+        for (int i = 0; i < 20_000; i++) {
+            int key = i % 10 == 0 ? (i / 10) % 20 : 1_000 + i;
+            boolean hit = policyCache.getIfPresent(key) != null;
+            if (!hit) {
+                Funko fk = new Funko();
+                fk.setId(key);
+                policyCache.put(key, fk).join();
+            }
+            if (key < 20 && i >= 2_000) {
+                lookups++;
+                hits += hit ? 1 : 0;
+            }
+        }
+        policyCache.shutdown().join();
+        return (double) hits / lookups;
+    }
+
+    @Test
+    void tinyLfuRejectsOneHitKeyTest() {
+        var lru = oneHitContent(EvictionPolicy.LRU);
+        var tinyLfu = oneHitContent(EvictionPolicy.TINY_LFU);
+
+        assertAll(
+                ()-> assertTrue(lru.containsKey(100)),
+                ()-> assertFalse(lru.containsKey(0)),
+                ()-> assertFalse(tinyLfu.containsKey(100)),
+                ()-> assertTrue(IntStream.range(0, 9).allMatch(tinyLfu::containsKey)),
+                ()-> assertTrue(tinyLfu.containsKey(101)),
+                ()-> assertEquals(10, tinyLfu.size())
+        );
+    }
+
+    private Map<Integer, Funko> oneHitContent(EvictionPolicy policy) {
+        var config = CacheConfig.builder().maximumSize(10).evictionPolicy(policy).build();
+        var smallCache = new FunkoCacheImpl(config, Runnable::run);
+        // 9 Funkos pedidos a menudo; 100 solo se pide una vez y, al salir de la ventana cuando llega 101, se compara
+        // con la primera entrada a prueba
+        for (int key : IntStream.concat(IntStream.range(0, 9), IntStream.of(100, 101)).toArray()) {
+            Funko fk = new Funko();
+            fk.setId(key);
+            smallCache.put(key, fk).join();
+            if (key < 9) {
+                for (int round = 0; round < 5; round++) {
+                    smallCache.getIfPresent(key);
+                }
+            }
+        }
+        var content = smallCache.getCache();
+        smallCache.shutdown().join();
+        return content;
+    }
+
+    @Test
+    void tinyLfuSizeBoundTest() {
+        var config = CacheConfig.builder().maximumSize(100).evictionPolicy(EvictionPolicy.TINY_LFU).build();
+        var bigCache = new FunkoCacheImpl(config, Runnable::run);
+        IntStream.range(0, 1_000).parallel().forEach(i -> {
+            Funko fk = new Funko();
+            fk.setId(i);
+            bigCache.put(i, fk).join();
+            bigCache.getIfPresent(i / 2);
+        });
+
+        assertAll(
+                ()-> assertEquals(100, bigCache.size()),
+                ()-> assertEquals(100, bigCache.getCache().size())
+        );
+        bigCache.shutdown().join();
+    }
+
+    @Test
+    void statsTest() {
+        var now = new AtomicLong();
+        var config = CacheConfig.builder().maximumSize(1)
+                .expireAfterWrite(Duration.ofSeconds(60)).ticker(now::get).build();
+        var statsCache = new FunkoCacheImpl(config, Runnable::run);
+        statsCache.put(funko1.getId(),funko1).join();
+        statsCache.getIfPresent(funko1.getId());
+        statsCache.getIfPresent(funko2.getId());
+        statsCache.get(funko2.getId(), key -> CompletableFuture.completedFuture(Optional.of(funko2))).join();
+        statsCache.get(3, key -> CompletableFuture.failedFuture(new IllegalStateException())).exceptionally(e -> null).join();
+        now.addAndGet(Duration.ofSeconds(61).toNanos());
+        statsCache.getIfPresent(funko2.getId());
+
+        var stats = statsCache.stats();
+        assertAll(
+                ()-> assertEquals(1, stats.getHitCount()),
+                ()-> assertEquals(4, stats.getMissCount()),
+                ()-> assertEquals(1, stats.getLoadSuccessCount()),
+                ()-> assertEquals(1, stats.getLoadFailureCount()),
+                ()-> assertEquals(1, stats.getSizeEvictionCount()),
+                ()-> assertEquals(1, stats.getExpiryEvictionCount()),
+                ()-> assertEquals(0, stats.getSize()),
+                ()-> assertEquals(0.2, stats.hitRate(), 1e-9)
+        );
+        statsCache.shutdown().join();
+    }
+
+    @Test
+    void statsJmxTest() throws Exception {
+        funkoCache.put(funko1.getId(),funko1).join();
+        funkoCache.getIfPresent(funko1.getId());
+        CacheStatsJmx.register("test", funkoCache);
+        CacheStatsJmx.register("test", funkoCache);
+
+        var server = ManagementFactory.getPlatformMBeanServer();
+        var name = new ObjectName("org.develop:type=Cache,name=\"test\"");
+        assertAll(
+                ()-> assertEquals(1L, server.getAttribute(name, "HitCount")),
+                ()-> assertEquals(1L, server.getAttribute(name, "Size"))
+        );
+        server.unregisterMBean(name);
+    }
+
     @Test
     void shutdownTest() {
         funkoCache.shutdown().join();
         assertTrue(funkoCache.getCleaner().isShutdown());
     }
-}
\ No newline at end of file
+
+    @Test
+    void concurrentStressTest() throws InterruptedException {
+        int threads = 16;
+        int operations = 5_000;
+        var pool = Executors.newFixedThreadPool(threads);
+        var start = new CountDownLatch(1);
+        var errors = new ConcurrentLinkedQueue<String>();
+
+        for (int t = 0; t < threads; t++) {
+            pool.execute(() -> {
+                try {
+                    start.await();
+                    var random = ThreadLocalRandom.current();
+                    for (int i = 0; i < operations; i++) {
+                        int key = random.nextInt(200);
+                        switch (random.nextInt(3)) {
+                            case 0 -> {
+                                Funko fk = new Funko();
+                                fk.setId(key);
+                                funkoCache.put(key, fk).join();
+                            }
+                            case 1 -> funkoCache.get(key).join()
+                                    .filter(fk -> fk.getId() != key)
+                                    .ifPresent(fk -> errors.add("Clave " + key + " devolvio el Funko " + fk.getId()));
+                            default -> funkoCache.remove(key).join();
+                        }
+                        if (funkoCache.size() > funkoCache.getMaxSize()) {
+                            errors.add("Tamano " + funkoCache.size() + " mayor que el maximo");
+                        }
+                    }
+                } catch (Exception e) {
+                    errors.add(e.toString());
+                }
+            });
+        }
+        start.countDown();
+        pool.shutdown();
+
+        assertAll(
+                ()-> assertTrue(pool.awaitTermination(1, TimeUnit.MINUTES)),
+                ()-> assertTrue(errors.isEmpty(), () -> String.join("\n", errors)),
+                ()-> assertTrue(funkoCache.getCache().size() <= funkoCache.getMaxSize()),
+                ()-> assertEquals(funkoCache.size(), funkoCache.getCache().size())
+        );
+    }
+
+    @Test
+    void sizeBoundTest() {
+        var bigCache = new FunkoCacheImpl(100);
+        IntStream.range(0, 1_000).parallel().forEach(i -> {
+            Funko fk = new Funko();
+            fk.setId(i);
+            bigCache.put(i, fk).join();
+        });
+
+        assertAll(
+                ()-> assertEquals(100, bigCache.size()),
+                ()-> assertEquals(100, bigCache.getCache().size())
+        );
+        bigCache.shutdown().join();
+    }
+}
@@ -0,0 +1,251 @@
+package org.develop.cache;
+
+import org.develop.model.Funko;
+import org.develop.model.Modelo;
+import org.develop.services.cache.CacheConfig;
+import org.develop.services.funkos.FunkoCacheImpl;
+import org.develop.services.funkos.OffHeapFunkoCache;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OffHeapFunkoCacheTest {
+    private OffHeapFunkoCache offHeapCache;
+    private Funko funko1;
+
+    @BeforeEach
+    void setup(){
+        offHeapCache = new OffHeapFunkoCache(100, null, System::nanoTime, Runnable::run);
+
+        funko1=new Funko();
+        funko1.setId(1);
+        funko1.setMyId(7);
+        funko1.setUuid(UUID.randomUUID());
+        funko1.setName("Señor de los Anillos");
+        funko1.setModelo(Modelo.ANIME);
+        funko1.setPrecio(19.95);
+        funko1.setFecha_lanzamiento(LocalDate.of(2024,1,20));
+        funko1.setCreated_at(LocalDateTime.of(2024,2,3,4,5,6,789));
+        funko1.setUpdated_at(LocalDateTime.of(2024,3,4,5,6,7,891));
+    }
+
+    @Test
+    void roundTripTest() {
+        offHeapCache.put(funko1.getId(),funko1).join();
+        Funko cached = offHeapCache.getIfPresent(funko1.getId());
+
+        assertAll(
+                ()-> assertEquals(funko1, cached),
+                ()-> assertNotSame(funko1, cached),
+                ()-> assertEquals(1, offHeapCache.size())
+        );
+    }
+
+    @Test
+    void nullFieldsTest() {
+        Funko empty = new Funko();
+        empty.setId(2);
+        empty.setCreated_at(null);
+        empty.setUpdated_at(null);
+        offHeapCache.put(empty.getId(),empty).join();
+
+        assertEquals(empty, offHeapCache.getIfPresent(empty.getId()));
+    }
+
+    @Test
+    void nameTooLongTest() {
+        offHeapCache.put(funko1.getId(),funko1).join();
+        funko1.setName("x".repeat(OffHeapFunkoCache.MAX_NAME_BYTES + 1));
+        offHeapCache.put(funko1.getId(),funko1).join();
+
+        assertAll(
+                ()-> assertNull(offHeapCache.getIfPresent(funko1.getId())),
+                ()-> assertEquals(0, offHeapCache.size())
+        );
+    }
+
+    @Test
+    void sizeBoundTest() {
+        for (int i = 0; i < 1000; i++) {
+            funko1.setId(i);
+            offHeapCache.put(i,funko1).join();
+        }
+        long present = IntStream.range(0, 1000)
+                .filter(i -> offHeapCache.getIfPresent(i) != null).count();
+
+        assertAll(
+                ()-> assertEquals(100, offHeapCache.size()),
+                ()-> assertEquals(100, present),
+                ()-> assertEquals(900, offHeapCache.stats().getSizeEvictionCount())
+        );
+    }
+
+    @Test
+    void clockKeepsReferencedEntriesTest() {
+        for (int i = 0; i < 100; i++) {
+            funko1.setId(i);
+            offHeapCache.put(i,funko1).join();
+        }
+        offHeapCache.getIfPresent(0);
+        funko1.setId(100);
+        offHeapCache.put(100,funko1).join();
+
+        assertAll(
+                ()-> assertNotNull(offHeapCache.getIfPresent(0)),
+                ()-> assertNull(offHeapCache.getIfPresent(1)),
+                ()-> assertNotNull(offHeapCache.getIfPresent(100))
+        );
+    }
+
+    @Test
+    void randomOperationsTest() {
+        // Comprueba el indice (borrado por desplazamiento) contra un mapa comun con muchas colisiones de sondeo
+        Map<Integer,Funko> expected = new HashMap<>();
+        Random random = new Random(42);
+        for (int i = 0; i < 20_000; i++) {
+            int key = random.nextInt(150);
+            if (random.nextInt(3) == 0) {
+                offHeapCache.remove(key).join();
+                expected.remove(key);
+            } else if (expected.size() < 100 || expected.containsKey(key)) {
+                Funko fk = new Funko();
+                fk.setId(key);
+                fk.setName("funko" + i);
+                offHeapCache.put(key,fk).join();
+                expected.put(key, fk);
+            }
+        }
+        for (int key = 0; key < 150; key++) {
+            Funko cached = offHeapCache.getIfPresent(key);
+            Funko fk = expected.get(key);
+            assertEquals(fk == null ? null : fk.getName(), cached == null ? null : cached.getName());
+        }
+        assertEquals(expected.size(), offHeapCache.size());
+    }
+
+    @Test
+    void expireAfterWriteTest() {
+        var time = new AtomicLong();
+        offHeapCache = new OffHeapFunkoCache(10, Duration.ofSeconds(10), time::get, Runnable::run);
+        offHeapCache.put(funko1.getId(),funko1).join();
+        time.addAndGet(Duration.ofSeconds(9).toNanos());
+        assertNotNull(offHeapCache.getIfPresent(funko1.getId()));
+        time.addAndGet(Duration.ofSeconds(1).toNanos());
+        assertNull(offHeapCache.getIfPresent(funko1.getId()));
+    }
+
+    @Test
+    void getWithLoaderRacingWriteTest() {
+        var stale = new CompletableFuture<Optional<Funko>>();
+        var loadResult = offHeapCache.get(funko1.getId(), key -> stale);
+        Funko updated = new Funko();
+        updated.setId(funko1.getId());
+        updated.setName("updated");
+        offHeapCache.put(funko1.getId(), updated).join();
+        stale.complete(Optional.of(funko1));
+
+        var deleted = new CompletableFuture<Optional<Funko>>();
+        offHeapCache.get(2, key -> deleted);
+        offHeapCache.remove(2).join();
+        deleted.complete(Optional.of(funko1));
+
+        assertAll(
+                ()-> assertEquals(funko1, loadResult.join().orElseThrow()),
+                ()-> assertEquals("updated", offHeapCache.getIfPresent(funko1.getId()).getName()),
+                ()-> assertNull(offHeapCache.getIfPresent(2))
+        );
+    }
+
+    @Test
+    void clearTest() {
+        offHeapCache.put(funko1.getId(),funko1).join();
+        offHeapCache.clear().join();
+
+        assertAll(
+                ()-> assertNull(offHeapCache.getIfPresent(funko1.getId())),
+                ()-> assertEquals(0, offHeapCache.size())
+        );
+    }
+
+    @Test
+    void secondLevelTest() {
+        var cache = new FunkoCacheImpl(CacheConfig.builder().maximumSize(10).offHeapMaximumSize(100).build(), Runnable::run);
+        OffHeapFunkoCache secondLevel = cache.getSecondLevel();
+        for (int i = 0; i < 50; i++) {
+            Funko fk = new Funko();
+            fk.setId(i);
+            fk.setName("funko" + i);
+            cache.put(i,fk).join();
+        }
+
+        assertAll(
+                ()-> assertEquals(10, cache.size()),
+                ()-> assertEquals(40, secondLevel.size()),
+                ()-> assertEquals("funko0", cache.getIfPresent(0).getName()),
+                ()-> assertNotNull(cache.getCache().get(0)),
+                ()-> assertEquals(40, secondLevel.size()),
+                ()-> assertEquals(10, cache.size())
+        );
+        cache.remove(1).join();
+        cache.remove(49).join();
+        assertAll(
+                ()-> assertNull(cache.getIfPresent(1)),
+                ()-> assertNull(cache.getIfPresent(49)),
+                ()-> assertEquals(48, cache.size() + secondLevel.size())
+        );
+        cache.clear().join();
+        assertEquals(0, cache.size() + secondLevel.size());
+        cache.shutdown().join();
+    }
+
+    @Test
+    void secondLevelPromoteRacingRemoveTest() throws Exception {
+        var cache = new FunkoCacheImpl(CacheConfig.builder().maximumSize(10).offHeapMaximumSize(100).build(), Runnable::run);
+        OffHeapFunkoCache secondLevel = cache.getSecondLevel();
+        var pool = Executors.newFixedThreadPool(2);
+        try {
+            for (int round = 0; round < 500; round++) {
+                for (int i = 0; i < 40; i++) {
+                    funko1.setId(i);
+                    cache.put(i, funko1).join();
+                }
+                // Unos suben Funkos del segundo nivel mientras otros los borran: ninguno borrado puede volver
+                var start = new CountDownLatch(1);
+                var readers = pool.submit(() -> {
+                    start.await();
+                    IntStream.range(0, 40).forEach(cache::getIfPresent);
+                    return null;
+                });
+                var removers = pool.submit(() -> {
+                    start.await();
+                    IntStream.range(0, 40).forEach(i -> cache.remove(i).join());
+                    return null;
+                });
+                start.countDown();
+                readers.get();
+                removers.get();
+
+                assertEquals(0, cache.size() + secondLevel.size(), "Funkos borrados de nuevo en la cache en la ronda " + round);
+            }
+        } finally {
+            pool.shutdownNow();
+            cache.shutdown().join();
+        }
+    }
+
+}
@@ -0,0 +1,43 @@
+package org.develop.executor;
+
+import org.develop.services.executor.IOExecutors;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IOExecutorsTest {
+
+    @Test
+    void rejectedTaskFailsFuture() throws InterruptedException {
+        var executor = IOExecutors.bounded("test", 1, 1);
+        var release = new CountDownLatch(1);
+        Thread caller = Thread.currentThread();
+        // Un hilo ocupado y la cola llena: la tercera tarea se rechaza
+        var busy = IOExecutors.runAsync(() -> awaitQuietly(release), executor);
+        var queued = IOExecutors.supplyAsync(() -> Thread.currentThread() != caller, executor);
+        var rejected = IOExecutors.supplyAsync(() -> Thread.currentThread() != caller, executor);
+
+        var error = assertThrows(CompletionException.class, rejected::join);
+        release.countDown();
+
+        assertAll(
+                ()-> assertInstanceOf(RejectedExecutionException.class, error.getCause()),
+                ()-> assertTrue(queued.join()),
+                ()-> assertNull(busy.join())
+        );
+        executor.shutdown(5, TimeUnit.SECONDS);
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package org.develop.repositories;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CountingBloomFilterTest {
+
+    @Test
+    void noFalseNegativesTest() {
+        var filter = new CountingBloomFilter(10_000, 0.01);
+        IntStream.range(0, 10_000).forEach(filter::add);
+
+        assertAll(
+                ()-> assertTrue(IntStream.range(0, 10_000).allMatch(filter::mightContain)),
+                ()-> assertEquals(10_000, filter.size())
+        );
+    }
+
+    @Test
+    void falsePositiveRateTest() {
+        var filter = new CountingBloomFilter(100_000, 0.01);
+        IntStream.range(0, 100_000).forEach(filter::add);
+
+        long falsePositives = IntStream.range(100_000, 1_100_000).filter(filter::mightContain).count();
+
+        assertTrue(falsePositives / 1_000_000.0 < 0.015, "Tasa de falsos positivos: " + falsePositives / 1_000_000.0);
+    }
+
+    @Test
+    void removeTest() {
+        var filter = new CountingBloomFilter(10_000, 0.01);
+        IntStream.range(0, 10_000).forEach(filter::add);
+        IntStream.range(0, 5_000).forEach(filter::remove);
+
+        long stillPresent = IntStream.range(0, 5_000).filter(filter::mightContain).count();
+
+        assertAll(
+                ()-> assertTrue(IntStream.range(5_000, 10_000).allMatch(filter::mightContain)),
+                ()-> assertTrue(stillPresent < 100, "Eliminados que siguen presentes: " + stillPresent),
+                ()-> assertEquals(5_000, filter.size())
+        );
+    }
+
+    @Test
+    void clearTest() {
+        var filter = new CountingBloomFilter(1_000, 0.01);
+        IntStream.range(0, 1_000).forEach(filter::add);
+        filter.clear();
+
+        assertAll(
+                ()-> assertTrue(IntStream.range(0, 1_000).noneMatch(filter::mightContain)),
+                ()-> assertEquals(0, filter.size())
+        );
+    }
+
+    @Test
+    void memoryPerMillionIdsTest() {
+        var filter = new CountingBloomFilter(1_000_000, 0.01);
+
+        // 9,59 millones de contadores de 4 bits: unos 4,8 MB por millon de IDs con un 1% de falsos positivos
+        assertEquals(4_792_536, filter.memoryBytes(), 8);
+    }
+}
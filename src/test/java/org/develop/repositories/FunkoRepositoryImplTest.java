@@ -2,18 +2,25 @@ package org.develop.repositories;
 
 import org.develop.exceptions.FunkoNotFoundException;
 import org.develop.model.Funko;
+import org.develop.model.FunkoSort;
+import org.develop.model.FunkoSummary;
 import org.develop.model.Modelo;
 import org.develop.model.MyIDGenerator;
+import org.develop.model.NameMatch;
 import org.develop.services.database.DatabaseManager;
+import org.h2.engine.SessionLocal;
+import org.h2.jdbc.JdbcConnection;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import java.sql.SQLException;
 import java.time.LocalDate;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 import java.util.concurrent.ExecutionException;
+import java.util.stream.IntStream;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -42,7 +49,7 @@ class FunkoRepositoryImplTest {
 
     @AfterEach
     void teardown() throws SQLException {
-        funkoRepository.deleteAll();
+        funkoRepository.deleteAll().join();
     }
 
     @Test
@@ -61,6 +68,23 @@ class FunkoRepositoryImplTest {
         );
     }
 
+    @Test
+    void saveAllTest() throws SQLException, ExecutionException, InterruptedException {
+        var saved = funkoRepository.saveAll(List.of(funko1, funko2), 1).get();
+        var listFunkos = funkoRepository.findAll().get();
+
+        assertAll(
+                ()-> assertEquals(2, saved.size()),
+                ()-> assertTrue(saved.get(0).getId() > 0),
+                ()-> assertTrue(saved.get(1).getId() > saved.get(0).getId()),
+                ()-> assertTrue(saved.get(0).getMyId() > 0),
+                ()-> assertNotEquals(saved.get(0).getMyId(), saved.get(1).getMyId()),
+                ()-> assertEquals(2, listFunkos.size()),
+                ()-> assertEquals(funko1.getUuid(), listFunkos.get(0).getUuid()),
+                ()-> assertEquals(saved.get(1).getId(), listFunkos.get(1).getId())
+        );
+    }
+
     @Test
     void updateTest() throws SQLException, ExecutionException, InterruptedException {
      Funko fknSave = funkoRepository.save(funko1).get();
@@ -81,6 +105,27 @@ class FunkoRepositoryImplTest {
                 ()-> assertEquals(LocalDate.now(),funkoUpdt.getFecha_lanzamiento())
         );
     }
+    @Test
+    void updateAllTest() throws SQLException, ExecutionException, InterruptedException {
+        var saved = funkoRepository.saveAll(List.of(funko1, funko2)).get();
+        saved.get(0).setPrecio(9.99);
+        saved.get(1).setName("renombrado");
+        Funko missing = new Funko();
+        missing.setId(500);
+        missing.setName("no existe");
+        missing.setModelo(Modelo.OTROS);
+
+        var updated = funkoRepository.updateAll(List.of(saved.get(0), missing, saved.get(1))).get();
+        var listFunkos = funkoRepository.findAll().get();
+
+        assertAll(
+                ()-> assertEquals(List.of(saved.get(0), saved.get(1)), updated),
+                ()-> assertEquals(9.99, listFunkos.get(0).getPrecio()),
+                ()-> assertEquals("renombrado", listFunkos.get(1).getName()),
+                ()-> assertEquals(1, funkoRepository.findByNombre("renombrado").get().size())
+        );
+    }
+
     @Test
     void updateBadTest2(){
 
@@ -108,6 +153,22 @@ class FunkoRepositoryImplTest {
     );
     }
 
+    @Test
+    void findByIdMapsTimestampsTest() throws SQLException, ExecutionException, InterruptedException {
+        Funko fknSave = funkoRepository.save(funko1).get();
+
+        Funko first = funkoRepository.findById(fknSave.getId()).get().orElseThrow();
+        Funko second = funkoRepository.findAll().get().get(0);
+
+        assertAll(
+                ()-> assertEquals(funko1.getModelo(), first.getModelo()),
+                ()-> assertEquals(funko1.getFecha_lanzamiento(), first.getFecha_lanzamiento()),
+                ()-> assertNotNull(first.getCreated_at()),
+                ()-> assertEquals(first.getCreated_at(), second.getCreated_at()),
+                ()-> assertEquals(first.getUpdated_at(), second.getUpdated_at())
+        );
+    }
+
     @Test
     void notFindByIdTest() throws SQLException, ExecutionException, InterruptedException {
      Optional<Funko> fknId = funkoRepository.findById(100).get();
@@ -115,6 +176,30 @@ class FunkoRepositoryImplTest {
                 ()-> assertTrue(fknId.isEmpty())
         );
     }
+    @Test
+    void findByIdFilterTest() throws SQLException, ExecutionException, InterruptedException {
+        Funko deleted = funkoRepository.save(funko1).get();
+        funkoRepository.deleteById(deleted.getId()).get();
+
+        // El filtro se construye en segundo plano al crear el repositorio; en cuanto esta listo, responde sin la BD
+        boolean answeredByFilter = false;
+        for (int i = 0; i < 50 && !answeredByFilter; i++) {
+            var res = funkoRepository.findById(deleted.getId());
+            answeredByFilter = res.isDone() && res.get().isEmpty();
+            if (!answeredByFilter) {
+                Thread.sleep(100);
+            }
+        }
+        Funko saved = funkoRepository.save(funko2).get();
+        Optional<Funko> found = funkoRepository.findById(saved.getId()).get();
+
+        boolean filtered = answeredByFilter;
+        assertAll(
+                ()-> assertTrue(filtered),
+                ()-> assertEquals(funko2.getUuid(), found.orElseThrow().getUuid())
+        );
+    }
+
     @Test
     void findByNombreTest() throws SQLException, ExecutionException, InterruptedException {
      funko1 = funkoRepository.save(funko1).get();
@@ -131,6 +216,46 @@ class FunkoRepositoryImplTest {
      );
     }
 
+    @Test
+    void findByNombreModesTest() throws SQLException, ExecutionException, InterruptedException {
+        funko1.setName("Stitch Hula");
+        funko2.setName("Super Stitch");
+        funkoRepository.saveAll(List.of(funko1, funko2)).get();
+
+        var contains = funkoRepository.findByNombre("Stitch").get();
+        var prefix = funkoRepository.findByNombre("Stitch", NameMatch.PREFIX, false).get();
+        var ignoreCase = funkoRepository.findByNombre("stitch", NameMatch.CONTAINS, true).get();
+        var caseSensitive = funkoRepository.findByNombre("stitch", NameMatch.CONTAINS, false).get();
+        var shortPrefix = funkoRepository.findByNombre("s", NameMatch.PREFIX, true).get();
+        var none = funkoRepository.findByNombre("sakfaskf").get();
+
+        assertAll(
+                ()-> assertEquals(2, contains.size()),
+                ()-> assertEquals(1, prefix.size()),
+                ()-> assertEquals(funko1.getId(), prefix.get(0).getId()),
+                ()-> assertEquals(2, ignoreCase.size()),
+                ()-> assertTrue(caseSensitive.isEmpty()),
+                ()-> assertEquals(2, shortPrefix.size()),
+                ()-> assertTrue(none.isEmpty())
+        );
+    }
+
+    @Test
+    void findByNombreAfterUpdateAndDeleteTest() throws SQLException, ExecutionException, InterruptedException {
+        funko1 = funkoRepository.save(funko1).get();
+        funko2 = funkoRepository.save(funko2).get();
+        funkoRepository.findByNombre("test").get();
+
+        funko1.setName("Renombrado");
+        funkoRepository.update(funko1).get();
+        funkoRepository.deleteById(funko2.getId()).get();
+
+        assertAll(
+                ()-> assertTrue(funkoRepository.findByNombre("test").get().isEmpty()),
+                ()-> assertEquals(funko1.getId(), funkoRepository.findByNombre("nombrad").get().get(0).getId())
+        );
+    }
+
     @Test
     void findAllTest() throws SQLException, ExecutionException, InterruptedException {
         funko1 =funkoRepository.save(funko1).get();
@@ -145,6 +270,162 @@ class FunkoRepositoryImplTest {
         );
     }
 
+    @Test
+    void streamAllTest() throws SQLException, ExecutionException, InterruptedException {
+        funko1 = funkoRepository.save(funko1).get();
+        funko2 = funkoRepository.save(funko2).get();
+
+        List<Funko> listFunkos;
+        try (var stream = funkoRepository.streamAll().get()) {
+            listFunkos = stream.toList();
+        }
+
+        assertAll(
+                ()-> assertEquals(2, listFunkos.size()),
+                ()-> assertEquals(funko1.getId(), listFunkos.get(0).getId()),
+                ()-> assertEquals(funko2.getUuid(), listFunkos.get(1).getUuid())
+        );
+    }
+
+    @Test
+    void summariesTest() throws SQLException, ExecutionException, InterruptedException {
+        funko1 = funkoRepository.save(funko1).get();
+        funko2 = funkoRepository.save(funko2).get();
+        var expected = List.of(
+                new FunkoSummary(funko1.getId(), funko1.getName(), funko1.getModelo(), funko1.getPrecio()),
+                new FunkoSummary(funko2.getId(), funko2.getName(), funko2.getModelo(), funko2.getPrecio()));
+
+        var summaries = funkoRepository.findAllSummaries().get();
+        List<FunkoSummary> streamed;
+        try (var stream = funkoRepository.streamSummaries().get()) {
+            streamed = stream.toList();
+        }
+
+        assertAll(
+                ()-> assertEquals(expected, summaries),
+                ()-> assertEquals(expected, streamed)
+        );
+    }
+
+    @Test
+    void streamAllReleasesConnectionTest() throws ExecutionException, InterruptedException {
+        funkoRepository.saveAll(List.of(funko1, funko2)).get();
+
+        // Mas aperturas que conexiones en el pool: si alguna no se liberase, la prueba se quedaria esperando
+        for (int i = 0; i < 25; i++) {
+            try (var stream = funkoRepository.streamAll().get()) {
+                assertTrue(stream.findFirst().isPresent());
+            }
+            assertEquals(2, funkoRepository.streamAll().get().count());
+        }
+    }
+
+    @Test
+    void deleteAllRacingSaveAllTest() throws SQLException, ExecutionException, InterruptedException {
+        for (int round = 0; round < 20; round++) {
+            var funkos = IntStream.range(0, 20).mapToObj(i -> {
+                var fk = new Funko();
+                fk.setUuid(UUID.randomUUID());
+                fk.setName("carrera" + i);
+                fk.setModelo(Modelo.OTROS);
+                fk.setPrecio(1.0);
+                fk.setFecha_lanzamiento(LocalDate.of(2024,1,20));
+                return fk;
+            }).toList();
+            var saved = funkoRepository.saveAll(funkos, 5);
+            var deleted = funkoRepository.deleteAll();
+            saved.join();
+            deleted.join();
+
+            // Toda fila que haya sobrevivido al borrado debe seguir siendo visible por el filtro y por el indice
+            List<Integer> remaining;
+            try (var stream = funkoRepository.streamAll().get()) {
+                remaining = stream.map(Funko::getId).toList();
+            }
+            var byName = funkoRepository.findByNombre("carrera").get().stream().map(Funko::getId).toList();
+            for (int id : remaining) {
+                assertTrue(funkoRepository.findById(id).get().isPresent(), "ID " + id + " rechazado por el filtro");
+            }
+            assertEquals(remaining.stream().sorted().toList(), byName);
+        }
+    }
+
+    @Test
+    void streamAllReleasesConnectionOnErrorTest() throws ExecutionException, InterruptedException {
+        funkoRepository.saveAll(List.of(funko1, funko2)).get();
+        int active = DatabaseManager.getInstance().getPoolMetrics().getActiveConnections();
+
+        // El consumidor falla y el Stream no se cierra: el cursor debe liberar la conexion igualmente
+        var stream = funkoRepository.streamAll().get();
+        assertThrows(IllegalStateException.class, () -> stream.forEach(fk -> {
+            throw new IllegalStateException("Fallo al procesar " + fk.getId());
+        }));
+
+        assertEquals(active, DatabaseManager.getInstance().getPoolMetrics().getActiveConnections());
+    }
+
+    @Test
+    void cursorOpenFailureResetsLazyExecutionTest() throws SQLException {
+        var conn = DatabaseManager.getInstance().getConnection();
+        var session = (SessionLocal) conn.unwrap(JdbcConnection.class).getSession();
+
+        // La consulta falla despues de activar la ejecucion perezosa: la conexion debe volver al pool sin ella
+        assertThrows(SQLException.class, () -> CursorStream.open(conn, "SELECT * FROM NoExiste", 10,
+                CursorStream.StatementBinder.NONE, rs -> rs.getInt(1)));
+
+        assertAll(
+                ()-> assertTrue(conn.isClosed()),
+                ()-> assertFalse(session.isLazyQueryExecution())
+        );
+    }
+
+    @Test
+    void findPageTest() throws ExecutionException, InterruptedException {
+        var funko3 = new Funko();
+        funko3.setUuid(UUID.randomUUID());
+        funko3.setName("test3");
+        funko3.setModelo(Modelo.ANIME);
+        funko3.setPrecio(0.5);
+        funko3.setFecha_lanzamiento(LocalDate.of(2025,2,2));
+        funkoRepository.saveAll(List.of(funko1, funko2, funko3)).get();
+
+        var first = funkoRepository.findPage(null, 2).get();
+        var second = funkoRepository.findPage(first.getNextCursor().getId(), 2).get();
+
+        assertAll(
+                ()-> assertEquals(2, first.getContent().size()),
+                ()-> assertTrue(first.hasNext()),
+                ()-> assertEquals(funko2.getId(), first.getNextCursor().getId()),
+                ()-> assertEquals(1, second.getContent().size()),
+                ()-> assertEquals(funko3.getId(), second.getContent().get(0).getId()),
+                ()-> assertFalse(second.hasNext())
+        );
+    }
+
+    @Test
+    void findPageSortedTest() throws SQLException, ExecutionException, InterruptedException {
+        var funko3 = new Funko();
+        funko3.setUuid(UUID.randomUUID());
+        funko3.setName("test3");
+        funko3.setModelo(Modelo.ANIME);
+        funko3.setPrecio(1.0);
+        funko3.setFecha_lanzamiento(LocalDate.of(2025,2,2));
+        funkoRepository.saveAll(List.of(funko2, funko1, funko3)).get();
+
+        var first = funkoRepository.findPage(null, 2, FunkoSort.PRECIO).get();
+        // El ultimo Funko de la pagina se borra antes de pedir la siguiente
+        funkoRepository.deleteById(first.getNextCursor().getId()).get();
+        var second = funkoRepository.findPage(first.getNextCursor(), 2, FunkoSort.PRECIO).get();
+        var byDate = funkoRepository.findPage(null, 3, FunkoSort.FECHA_LANZAMIENTO).get();
+
+        assertAll(
+                ()-> assertEquals(List.of(funko1.getId(), funko3.getId()), first.getContent().stream().map(Funko::getId).toList()),
+                ()-> assertEquals(List.of(funko2.getId()), second.getContent().stream().map(Funko::getId).toList()),
+                ()-> assertFalse(second.hasNext()),
+                ()-> assertEquals(List.of(funko1.getId(), funko2.getId()), byDate.getContent().stream().map(Funko::getId).toList())
+        );
+    }
+
     @Test
     void deleteByIdTest() throws SQLException, ExecutionException, InterruptedException {
         var funkSave = funkoRepository.save(funko1).get();
@@ -170,7 +451,7 @@ class FunkoRepositoryImplTest {
         funko1 = funkoRepository.save(funko1).get();
         funko2 = funkoRepository.save(funko2).get();
 
-        funkoRepository.deleteAll();
+        funkoRepository.deleteAll().join();
         var allFunk = funkoRepository.findAll().get();
 
         assertEquals(0, allFunk.size());
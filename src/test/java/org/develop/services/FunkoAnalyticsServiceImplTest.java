@@ -0,0 +1,96 @@
+package org.develop.services;
+
+import org.develop.model.Funko;
+import org.develop.model.Modelo;
+import org.develop.model.MyIDGenerator;
+import org.develop.repositories.FunkoRepository;
+import org.develop.repositories.FunkoRepositoryImpl;
+import org.develop.services.analytics.FunkoAnalyticsService;
+import org.develop.services.analytics.FunkoAnalyticsServiceImpl;
+import org.develop.services.analytics.InMemoryFunkoAnalytics;
+import org.develop.services.database.DatabaseManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalDouble;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FunkoAnalyticsServiceImplTest {
+    private FunkoRepository funkoRepository;
+    private FunkoAnalyticsService analytics;
+    private List<Funko> saved;
+
+    @BeforeEach
+    void setup() throws SQLException, ExecutionException, InterruptedException {
+        funkoRepository = FunkoRepositoryImpl.getInstance(DatabaseManager.getInstance(), MyIDGenerator.getInstance());
+        analytics = FunkoAnalyticsServiceImpl.getInstance(DatabaseManager.getInstance());
+        saved = funkoRepository.saveAll(List.of(
+                funko("Stitch Hula", Modelo.DISNEY, 20.0, LocalDate.of(2023, 1, 1)),
+                funko("Iron Man", Modelo.MARVEL, 35.5, LocalDate.of(2022, 12, 31)),
+                funko("Stitch Classic", Modelo.DISNEY, 35.5, LocalDate.of(2023, 12, 31)),
+                funko("Naruto", Modelo.ANIME, 9.5, LocalDate.of(2024, 1, 1)))).get();
+    }
+
+    @AfterEach
+    void teardown() throws SQLException {
+        funkoRepository.deleteAll().join();
+    }
+
+    @Test
+    void databaseAggregatesTest() throws ExecutionException, InterruptedException {
+        assertResults(analytics);
+    }
+
+    @Test
+    void inMemoryAggregatesTest() throws SQLException, ExecutionException, InterruptedException {
+        assertResults(new InMemoryFunkoAnalytics(funkoRepository.findAll().get()));
+    }
+
+    @Test
+    void emptyCatalogTest() throws SQLException, ExecutionException, InterruptedException {
+        funkoRepository.deleteAll().join();
+
+        assertAll(
+                ()-> assertTrue(analytics.findMostExpensive().get().isEmpty()),
+                ()-> assertEquals(OptionalDouble.empty(), analytics.averagePrice().get()),
+                ()-> assertTrue(analytics.countByModelo().get().isEmpty()),
+                ()-> assertEquals(0L, analytics.countByNombre("Stitch").get()),
+                ()-> assertEquals(OptionalDouble.empty(), new InMemoryFunkoAnalytics(List.of()).averagePrice().get())
+        );
+    }
+
+    private void assertResults(FunkoAnalyticsService service) throws ExecutionException, InterruptedException {
+        var groups = service.groupByModelo().get();
+        assertAll(
+                // Empate de precio entre Iron Man y Stitch Classic: gana el de menor ID
+                ()-> assertEquals(saved.get(1).getId(), service.findMostExpensive().get().orElseThrow().getId()),
+                ()-> assertEquals(25.125, service.averagePrice().get().orElseThrow(), 1e-9),
+                ()-> assertEquals(Map.of(Modelo.DISNEY, 2L, Modelo.MARVEL, 1L, Modelo.ANIME, 1L), service.countByModelo().get()),
+                ()-> assertEquals(List.of(saved.get(0).getId(), saved.get(2).getId()),
+                        groups.get(Modelo.DISNEY).stream().map(Funko::getId).toList()),
+                ()-> assertFalse(groups.containsKey(Modelo.OTROS)),
+                ()-> assertEquals(List.of(saved.get(0).getId(), saved.get(2).getId()),
+                        service.findReleasedIn(2023).get().stream().map(Funko::getId).toList()),
+                ()-> assertEquals(2L, service.countByNombre("Stitch").get()),
+                ()-> assertEquals(0L, service.countByNombre("stitch").get())
+        );
+    }
+
+    private static Funko funko(String name, Modelo modelo, double precio, LocalDate fecha) {
+        Funko fk = new Funko();
+        fk.setUuid(UUID.randomUUID());
+        fk.setName(name);
+        fk.setModelo(modelo);
+        fk.setPrecio(precio);
+        fk.setFecha_lanzamiento(fecha);
+        return fk;
+    }
+}
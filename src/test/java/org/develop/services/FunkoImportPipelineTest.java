@@ -0,0 +1,114 @@
+package org.develop.services;
+
+import org.develop.model.Funko;
+import org.develop.model.MyIDGenerator;
+import org.develop.repositories.FunkoRepository;
+import org.develop.repositories.FunkoRepositoryImpl;
+import org.develop.services.database.DatabaseManager;
+import org.develop.services.files.BackupManagerImpl;
+import org.develop.services.files.ImportConfig;
+import org.develop.services.files.ImportReport;
+import org.develop.services.funkos.FunkoImportPipeline;
+import org.develop.services.funkos.FunkoServiceImpl;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FunkoImportPipelineTest {
+    private FunkoRepository funkoRepository;
+
+    @TempDir
+    Path dir;
+
+    @BeforeEach
+    void setup() throws SQLException {
+        funkoRepository = FunkoRepositoryImpl.getInstance(DatabaseManager.getInstance(), MyIDGenerator.getInstance());
+        funkoRepository.deleteAll().join();
+    }
+
+    @AfterEach
+    void teardown() throws SQLException {
+        funkoRepository.deleteAll().join();
+    }
+
+    @Test
+    void importsWholeFile() throws Exception {
+        // Lotes de 7 lineas y colas de un lote: las etapas se bloquean unas a otras constantemente
+        var config = ImportConfig.builder().batchSize(7).parserThreads(3).writerThreads(2).queueCapacity(1).build();
+        var pipeline = new FunkoImportPipeline(BackupManagerImpl.getInstance(), funkoRepository, config);
+
+        ImportReport report = pipeline.run(Paths.get("data", "funkos.csv")).get(30, TimeUnit.SECONDS);
+
+        var expected = Files.readAllLines(Paths.get("data", "funkos.csv")).stream().skip(1)
+                .map(line -> new Funko().setFunko(line).getUuid()).sorted().toList();
+        var saved = funkoRepository.findAll().get().stream().map(Funko::getUuid).sorted().toList();
+        assertAll(
+                ()-> assertEquals(90, report.getRows()),
+                ()-> assertEquals(90, report.getImported()),
+                ()-> assertEquals(0, report.getFailures()),
+                ()-> assertTrue(report.getRowsPerSecond() > 0),
+                ()-> assertEquals(expected, saved)
+        );
+    }
+
+    @Test
+    void badLinesCountedAsFailures() throws Exception {
+        Path csv = Files.writeString(dir.resolve("bad.csv"), "COD,NOMBRE,MODELO,PRECIO,FECHA_LANZAMIENTO\r\n"
+                + "3b6c6f58-79b9-434b-82ab-01a2d6e4434a,Spiderman Delight,MARVEL,15.99,2022-05-01\r\n"
+                + "\r\n"
+                + "a1b2c3d4-1234-5678-90ab-cdef12345678,Naruto,SHONEN,9.99,2023-01-01\r\n"
+                + "b9c8d7e6-5432-1098-76fe-dcba98765432,Elsa,DISNEY,19.99,2021-03-05\r\n"
+                + "b9c8d7e6-5432-1098-76fe-dcba98765433,Elsa,DISNEY,diez,2021-03-05");
+        var config = ImportConfig.builder().batchSize(2).parserThreads(1).writerThreads(1).build();
+
+        ImportReport report = new FunkoImportPipeline(BackupManagerImpl.getInstance(), funkoRepository, config)
+                .run(csv).get(30, TimeUnit.SECONDS);
+
+        assertAll(
+                ()-> assertEquals(4, report.getRows()),
+                ()-> assertEquals(2, report.getImported()),
+                ()-> assertEquals(2, report.getFailures()),
+                ()-> assertEquals(List.of(4L, 6L), report.getErrors().stream().map(e -> e.getLine()).toList()),
+                ()-> assertEquals(2, funkoRepository.findAll().get().size())
+        );
+    }
+
+    @Test
+    void importStreamInvalidatesNotFoundIds() throws Exception {
+        var service = FunkoServiceImpl.getInstance(BackupManagerImpl.getInstance(), funkoRepository);
+        // El siguiente ID que generara la BD: el primero de la importacion
+        var probe = funkoRepository.save(new Funko().setFunko("3b6c6f58-79b9-434b-82ab-01a2d6e4434a,Sonda,MARVEL,1.0,2022-05-01")).get();
+        funkoRepository.deleteById(probe.getId()).get();
+        int nextId = probe.getId() + 1;
+
+        var before = service.findById(nextId).get();
+        ImportReport report = service.importStream(Paths.get("data", "funkos.csv")).get(30, TimeUnit.SECONDS);
+        var after = service.findById(nextId).get();
+
+        assertAll(
+                ()-> assertTrue(before.isEmpty()),
+                ()-> assertEquals(90, report.getImported()),
+                ()-> assertTrue(after.isPresent())
+        );
+    }
+
+    @Test
+    void missingFileFails() {
+        var pipeline = new FunkoImportPipeline(BackupManagerImpl.getInstance(), funkoRepository, ImportConfig.builder().build());
+
+        var e = assertThrows(ExecutionException.class, () -> pipeline.run(dir.resolve("missing.csv")).get(30, TimeUnit.SECONDS));
+        assertInstanceOf(NoSuchFileException.class, e.getCause());
+    }
+}
@@ -10,17 +10,25 @@ import org.develop.services.funkos.FunkoServiceImpl;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentMatchers;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.sql.SQLException;
+import java.time.Duration;
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 import static org.mockito.Mockito.*;
 
@@ -106,6 +114,28 @@ class FunkoServiceImplTest {
         verify(repository,times(1)).findById(1);
     }
 
+    @Test
+    void findByIdReadThrough() throws SQLException, ExecutionException, InterruptedException {
+        var pending = new CompletableFuture<Optional<Funko>>();
+        when(repository.findById(1)).thenReturn(pending);
+
+        var requests = IntStream.range(0, 50).mapToObj(i -> {
+            try {
+                return service.findById(1);
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+        }).toList();
+        pending.complete(Optional.of(funko1));
+        var cached = service.findById(1).get();
+
+        assertAll(
+                ()-> assertTrue(requests.stream().allMatch(r -> r.join().orElseThrow() == funko1)),
+                ()-> assertEquals(funko1.getUuid(), cached.get().getUuid())
+        );
+        verify(repository,times(1)).findById(1);
+    }
+
     @Test
     void findByIdError() throws SQLException, ExecutionException, InterruptedException {
         when(repository.findById(1)).thenReturn(CompletableFuture.completedFuture(Optional.empty()));
@@ -115,6 +145,39 @@ class FunkoServiceImplTest {
         assertTrue(res.isEmpty());
     }
 
+    @Test
+    void findByIdNegativeCache() throws SQLException, ExecutionException, InterruptedException {
+        funko1.setId(1);
+        when(repository.findById(1)).thenReturn(CompletableFuture.completedFuture(Optional.empty()))
+                .thenReturn(CompletableFuture.completedFuture(Optional.of(funko1)));
+        when(repository.save(funko1)).thenReturn(CompletableFuture.completedFuture(funko1));
+
+        var first = service.findById(1).get();
+        var second = service.findById(1).get();
+        service.save(funko1);
+        var afterSave = service.findById(1).get();
+
+        assertAll(
+                ()-> assertTrue(first.isEmpty()),
+                ()-> assertTrue(second.isEmpty()),
+                ()-> assertEquals(funko1.getUuid(), afterSave.orElseThrow().getUuid())
+        );
+        verify(repository,atMost(2)).findById(1);
+    }
+
+    @Test
+    void findByIdAfterDatabaseError() throws SQLException, ExecutionException, InterruptedException {
+        funko1.setId(1);
+        when(repository.findById(1)).thenReturn(CompletableFuture.failedFuture(new SQLException("Pool agotado")))
+                .thenReturn(CompletableFuture.completedFuture(Optional.of(funko1)));
+
+        assertThrows(ExecutionException.class, () -> service.findById(1).get());
+        var retried = service.findById(1).get();
+
+        assertSame(funko1, retried.orElseThrow());
+        verify(repository,times(2)).findById(1);
+    }
+
     @Test
     void save() throws SQLException, ExecutionException, InterruptedException  {
         when(repository.save(funko1)).thenReturn(CompletableFuture.completedFuture(funko1));
@@ -130,6 +193,41 @@ class FunkoServiceImplTest {
         verify(repository,times(1)).save(funko1);
     }
 
+    @Test
+    void saveAll() throws ExecutionException, InterruptedException {
+        var listFunk = List.of(funko1,funko2);
+        when(repository.saveAll(listFunk)).thenReturn(CompletableFuture.completedFuture(listFunk));
+
+        var res = service.saveAll(listFunk).get();
+
+        assertAll(
+                ()-> assertEquals(res.size(),2),
+                ()-> assertEquals(res.get(0).getUuid(),funko1.getUuid()),
+                ()-> assertEquals(res.get(1).getUuid(),funko2.getUuid())
+        );
+
+        verify(repository,times(1)).saveAll(listFunk);
+    }
+
+    @Test
+    void saveAllInvalidatesCache() throws SQLException, ExecutionException, InterruptedException {
+        funko1.setId(1);
+        var listFunk = List.of(funko1);
+        when(repository.findById(1)).thenReturn(CompletableFuture.completedFuture(Optional.empty()))
+                .thenReturn(CompletableFuture.completedFuture(Optional.of(funko1)));
+        when(repository.saveAll(listFunk)).thenReturn(CompletableFuture.completedFuture(listFunk));
+
+        var before = service.findById(1).get();
+        service.saveAll(listFunk).get();
+        var after = service.findById(1).get();
+
+        assertAll(
+                ()-> assertTrue(before.isEmpty()),
+                ()-> assertSame(funko1, after.orElseThrow())
+        );
+        verify(repository,times(2)).findById(1);
+    }
+
     @Test
     void update() throws SQLException, ExecutionException, InterruptedException {
         when(repository.update(funko1)).thenReturn(CompletableFuture.completedFuture(funko1));
@@ -154,6 +252,121 @@ class FunkoServiceImplTest {
 
         verify(repository,times(1)).update(funko1);
     }
+    @Test
+    void updateWriteBehind() throws SQLException, ExecutionException, InterruptedException {
+        funko1.setId(1);
+        var writeBehind = service.enableWriteBehind(100, Duration.ofMinutes(1));
+        when(repository.updateAll(anyCollection())).thenAnswer(inv -> CompletableFuture.completedFuture(new ArrayList<>(inv.<List<Funko>>getArgument(0))));
+
+        for (int i = 0; i < 4; i++) {
+            funko1.setPrecio(i);
+            assertSame(funko1, service.update(funko1).get());
+        }
+        var pending = service.findById(1).get();
+        assertAll(
+                ()-> assertEquals(3.0, pending.orElseThrow().getPrecio()),
+                ()-> assertEquals(1, writeBehind.getPendingCount()),
+                ()-> assertEquals(3, writeBehind.getCoalescedCount())
+        );
+
+        service.shutdown().join();
+
+        assertAll(
+                ()-> assertEquals(0, writeBehind.getPendingCount()),
+                ()-> assertEquals(1, writeBehind.getFlushedCount()),
+                ()-> assertEquals(1, writeBehind.getFlushCount())
+        );
+        verify(repository, never()).update(any());
+        verify(repository, times(1)).updateAll(List.of(funko1));
+    }
+
+    @Test
+    void updateWriteBehindBatch() throws SQLException, ExecutionException, InterruptedException {
+        funko1.setId(1);
+        funko2.setId(2);
+        var writeBehind = service.enableWriteBehind(2, Duration.ofMinutes(1));
+        when(repository.updateAll(anyCollection()))
+                .thenReturn(CompletableFuture.failedFuture(new SQLException("Conexion perdida")))
+                .thenAnswer(inv -> CompletableFuture.completedFuture(new ArrayList<>(inv.<List<Funko>>getArgument(0))));
+
+        service.update(funko1).get();
+        service.update(funko2).get();
+        writeBehind.flush().join();
+
+        assertAll(
+                ()-> assertEquals(1, writeBehind.getFailedFlushCount()),
+                ()-> assertEquals(0, writeBehind.getPendingCount()),
+                ()-> assertEquals(2, writeBehind.getFlushedCount())
+        );
+        verify(repository, times(2)).updateAll(anyCollection());
+        service.shutdown().join();
+    }
+
+    @Test
+    void updateWriteBehindDuringFlush() throws SQLException, ExecutionException, InterruptedException {
+        funko1.setId(1);
+        var writeBehind = service.enableWriteBehind(100, Duration.ofMinutes(1));
+        var commit = new CompletableFuture<List<Funko>>();
+        doReturn(commit).doReturn(CompletableFuture.completedFuture(List.of(funko1))).when(repository).updateAll(anyCollection());
+
+        service.update(funko1).get();
+        var flushed = writeBehind.flush();
+        // Mientras la escritura no termina, el Funko sigue pendiente y visible
+        assertAll(
+                ()-> assertEquals(1, writeBehind.getPendingCount()),
+                ()-> assertSame(funko1, service.findById(1).get().orElseThrow())
+        );
+        funko1.setPrecio(2.0);
+        service.update(funko1).get();
+        commit.complete(List.of(funko1));
+        flushed.join();
+
+        // La version actualizada durante el volcado se queda para el siguiente
+        assertEquals(1, writeBehind.getPendingCount());
+        service.shutdown().join();
+        assertEquals(0, writeBehind.getPendingCount());
+        verify(repository, times(2)).updateAll(anyCollection());
+    }
+
+    @Test
+    void shutdownWriteBehindFailedFlush() throws SQLException, ExecutionException, InterruptedException {
+        funko1.setId(1);
+        var writeBehind = service.enableWriteBehind(100, Duration.ofMinutes(1));
+        when(repository.updateAll(anyCollection()))
+                .thenReturn(CompletableFuture.failedFuture(new SQLException("Conexion perdida")))
+                .thenAnswer(inv -> CompletableFuture.completedFuture(new ArrayList<>(inv.<List<Funko>>getArgument(0))));
+        service.update(funko1).get();
+
+        // El ultimo volcado falla: el llamador se entera y lo pendiente no se pierde
+        assertThrows(CompletionException.class, () -> service.shutdown().join());
+        assertEquals(1, writeBehind.getPendingCount());
+
+        service.shutdown().join();
+        assertAll(
+                ()-> assertEquals(0, writeBehind.getPendingCount()),
+                ()-> assertEquals(1, writeBehind.getFailedFlushCount()),
+                ()-> assertEquals(1, writeBehind.getFlushedCount())
+        );
+    }
+
+    @Test
+    void enableWriteBehindDrainsPrevious() throws SQLException, ExecutionException, InterruptedException {
+        funko1.setId(1);
+        var previous = service.enableWriteBehind(100, Duration.ofMinutes(1));
+        when(repository.updateAll(anyCollection())).thenAnswer(inv -> CompletableFuture.completedFuture(new ArrayList<>(inv.<List<Funko>>getArgument(0))));
+        service.update(funko1).get();
+
+        var current = service.enableWriteBehind(100, Duration.ofMinutes(1));
+        service.update(funko2).get();
+
+        assertAll(
+                ()-> assertEquals(0, previous.getPendingCount()),
+                ()-> assertEquals(1, previous.getFlushedCount()),
+                ()-> assertEquals(1, current.getPendingCount())
+        );
+        service.shutdown().join();
+    }
+
     @Test
     void deleteById() throws SQLException, ExecutionException, InterruptedException {
         when(repository.deleteById(1)).thenReturn(CompletableFuture.completedFuture(true));
@@ -182,12 +395,41 @@ class FunkoServiceImplTest {
         verify(repository,times(1)).deleteAll();
     }
 
+    @Test
+    void nonBlockingOnSingleThread() throws Exception {
+        funko1.setId(1);
+        var single = Executors.newSingleThreadExecutor();
+        when(repository.save(funko1)).thenAnswer(inv -> CompletableFuture.supplyAsync(() -> funko1, single));
+        when(repository.update(funko1)).thenAnswer(inv -> CompletableFuture.supplyAsync(() -> funko1, single));
+        when(repository.deleteById(1)).thenAnswer(inv -> CompletableFuture.supplyAsync(() -> true, single));
+        when(repository.deleteAll()).thenAnswer(inv -> CompletableFuture.runAsync(() -> {}, single));
+        when(repository.streamAll()).thenAnswer(inv -> CompletableFuture.supplyAsync(() -> Stream.of(funko1), single));
+        when(backupManager.writeFileFunko(eq("funkosTest.json"), ArgumentMatchers.<Stream<Funko>>any()))
+                .thenAnswer(inv -> CompletableFuture.supplyAsync(() -> true, single));
+
+        // Cada llamada se hace desde el unico hilo del executor, el mismo que completa el repositorio: si el servicio
+        // esperase un resultado en ese hilo no terminaria nunca y saltaria el timeout
+        try {
+            assertAll(
+                    ()-> assertSame(funko1, single.submit(() -> service.save(funko1)).get(5, TimeUnit.SECONDS).get(5, TimeUnit.SECONDS)),
+                    ()-> assertSame(funko1, service.findById(1).get(5, TimeUnit.SECONDS).orElseThrow()),
+                    ()-> assertSame(funko1, single.submit(() -> service.update(funko1)).get(5, TimeUnit.SECONDS).get(5, TimeUnit.SECONDS)),
+                    ()-> assertTrue(single.submit(() -> service.backup("funkosTest.json")).get(5, TimeUnit.SECONDS).get(5, TimeUnit.SECONDS)),
+                    ()-> assertTrue(single.submit(() -> service.deleteById(1)).get(5, TimeUnit.SECONDS).get(5, TimeUnit.SECONDS)),
+                    ()-> single.submit(() -> service.deleteAll()).get(5, TimeUnit.SECONDS).get(5, TimeUnit.SECONDS)
+            );
+        } finally {
+            single.shutdownNow();
+        }
+        verify(repository, never()).findById(1);
+    }
+
     @Test
     void backup() throws SQLException, ExecutionException, InterruptedException {
-        var listFunk = List.of(funko1,funko2);
+        var streamFunk = Stream.of(funko1,funko2);
 
-        when(backupManager.writeFileFunko("funkosTest.json",listFunk)).thenReturn(CompletableFuture.completedFuture(true));
-        when(repository.findAll()).thenReturn(CompletableFuture.completedFuture(listFunk));
+        when(backupManager.writeFileFunko("funkosTest.json",streamFunk)).thenReturn(CompletableFuture.completedFuture(true));
+        when(repository.streamAll()).thenReturn(CompletableFuture.completedFuture(streamFunk));
 
         var res = service.backup("funkosTest.json").get();
 
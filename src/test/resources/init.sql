@@ -10,3 +10,6 @@ CREATE TABLE IF NOT EXISTS FUNKO (
     created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
     updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
 );
+
+CREATE INDEX IF NOT EXISTS IDX_FUNKO_PRECIO ON FUNKO (precio, ID);
+CREATE INDEX IF NOT EXISTS IDX_FUNKO_FECHA_LANZAMIENTO ON FUNKO (fecha_lanzamiento, ID);